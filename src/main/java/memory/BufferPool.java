@@ -0,0 +1,101 @@
+package memory;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recycles vector storage between computations, so long jobs reuse the arrays of consumed
+ * intermediate results instead of allocating new ones for every node.
+ * Storage is kept per (precision, length) up to a total byte budget; anything beyond it is left to the GC.
+ * A pool built on an {@link OffHeapArena} allocates off-heap and keeps everything released to it,
+ * since arena memory is only given back when the arena is closed.
+ * Safe to use from several threads.
+ */
+public class BufferPool {
+
+    public static final long DEFAULT_MAX_RETAINED_BYTES = 64L << 20;
+
+    private final long maxRetainedBytes;
+    private final OffHeapArena arena; // null for heap storage
+    private final Map<Long, Queue<VectorStorage>> free = new ConcurrentHashMap<>();
+    private final AtomicLong retainedBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public BufferPool() {
+        this(DEFAULT_MAX_RETAINED_BYTES);
+    }
+
+    public BufferPool(long maxRetainedBytes) {
+        if (maxRetainedBytes < 0)
+            throw new IllegalArgumentException("Retained bytes must not be negative");
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.arena = null;
+    }
+
+    public BufferPool(OffHeapArena arena) {
+        this.maxRetainedBytes = Long.MAX_VALUE;
+        this.arena = arena;
+    }
+
+    public boolean isOffHeap() {
+        return arena != null;
+    }
+
+    /**
+     * Returns zeroed storage of the given precision and length, reusing a released one if available.
+     */
+    VectorStorage acquire(Precision precision, int length) {
+        Queue<VectorStorage> queue = free.get(key(precision, length));
+        VectorStorage storage = queue == null ? null : queue.poll();
+        if (storage == null) {
+            misses.incrementAndGet();
+            return arena != null ? arena.allocate(precision, length) : VectorStorage.allocate(precision, length, null);
+        }
+        retainedBytes.addAndGet(-bytes(storage));
+        hits.incrementAndGet();
+        storage.clear();
+        return storage;
+    }
+
+    /**
+     * Hands storage back for reuse. The caller must not touch it afterwards.
+     */
+    void release(VectorStorage storage) {
+        long size = bytes(storage);
+        if (retainedBytes.addAndGet(size) > maxRetainedBytes) {
+            retainedBytes.addAndGet(-size);
+            return;
+        }
+        free.computeIfAbsent(key(storage.precision(), storage.length()), k -> new ConcurrentLinkedQueue<>()).offer(storage);
+    }
+
+    public long retainedBytes() {
+        return retainedBytes.get();
+    }
+
+    /**
+     * Number of acquisitions served from released storage.
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Number of acquisitions that had to allocate.
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    private static long key(Precision precision, int length) {
+        return ((long) length << 1) | precision.ordinal();
+    }
+
+    private static long bytes(VectorStorage storage) {
+        return (long) storage.length() * storage.precision().bytes();
+    }
+}
@@ -0,0 +1,126 @@
+package memory;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * Off-heap storage of 64-bit elements in a slice of an {@link OffHeapArena} slab or of a memory-mapped scratch file.
+ */
+final class DirectDoubleStorage implements VectorStorage {
+
+    private final DoubleBuffer data;
+    private final OffHeapArena arena; // where copies are allocated, null for slices of a scratch file
+
+    DirectDoubleStorage(DoubleBuffer data, OffHeapArena arena) {
+        this.data = data;
+        this.arena = arena;
+    }
+
+    @Override
+    public Precision precision() {
+        return Precision.DOUBLE;
+    }
+
+    @Override
+    public int length() {
+        return data.capacity();
+    }
+
+    @Override
+    public double get(int index) {
+        return data.get(index);
+    }
+
+    @Override
+    public void set(int index, double value) {
+        data.put(index, value);
+    }
+
+    @Override
+    public VectorStorage allocate(int length) {
+        return arena != null ? arena.allocate(Precision.DOUBLE, length) : VectorStorage.allocate(Precision.DOUBLE, length, null);
+    }
+
+    @Override
+    public VectorStorage copy() {
+        VectorStorage copy = allocate(length());
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    @Override
+    public void copyFrom(VectorStorage other) {
+        if (other instanceof DirectDoubleStorage same) {
+            data.put(0, same.data, 0, data.capacity());
+        } else {
+            for (int i = 0; i < data.capacity(); i++) {
+                data.put(i, other.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < data.capacity(); i++) {
+            data.put(i, 0);
+        }
+    }
+
+    @Override
+    public void add(VectorStorage other) {
+        if (other instanceof DirectDoubleStorage same) {
+            for (int i = 0; i < data.capacity(); i++) {
+                data.put(i, data.get(i) + same.data.get(i));
+            }
+        } else {
+            for (int i = 0; i < data.capacity(); i++) {
+                data.put(i, (data.get(i) + other.get(i)));
+            }
+        }
+    }
+
+    @Override
+    public void negate() {
+        for (int i = 0; i < data.capacity(); i++) {
+            data.put(i, -data.get(i));
+        }
+    }
+
+    @Override
+    public void scale(double factor) {
+        for (int i = 0; i < data.capacity(); i++) {
+            data.put(i, (data.get(i) * factor));
+        }
+    }
+
+    @Override
+    public void scale(double[] factors) {
+        for (int i = 0; i < data.capacity(); i++) {
+            data.put(i, (data.get(i) * factors[i]));
+        }
+    }
+
+    @Override
+    public double dot(VectorStorage other, int from, int to, boolean accumulateInDouble) {
+        double result = 0;
+        if (other instanceof DirectDoubleStorage same) {
+            for (int i = from; i < to; i++) {
+                result += data.get(i) * same.data.get(i);
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                result += data.get(i) * other.get(i);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int countNonZeros() {
+        int count = 0;
+        for (int i = 0; i < data.capacity(); i++) {
+            if (data.get(i) != 0)
+                count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,134 @@
+package memory;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Off-heap storage of 32-bit elements in a slice of an {@link OffHeapArena} slab or of a memory-mapped scratch file.
+ */
+final class DirectFloatStorage implements VectorStorage {
+
+    private final FloatBuffer data;
+    private final OffHeapArena arena; // where copies are allocated, null for slices of a scratch file
+
+    DirectFloatStorage(FloatBuffer data, OffHeapArena arena) {
+        this.data = data;
+        this.arena = arena;
+    }
+
+    @Override
+    public Precision precision() {
+        return Precision.FLOAT;
+    }
+
+    @Override
+    public int length() {
+        return data.capacity();
+    }
+
+    @Override
+    public double get(int index) {
+        return data.get(index);
+    }
+
+    @Override
+    public void set(int index, double value) {
+        data.put(index, (float) value);
+    }
+
+    @Override
+    public VectorStorage allocate(int length) {
+        return arena != null ? arena.allocate(Precision.FLOAT, length) : VectorStorage.allocate(Precision.FLOAT, length, null);
+    }
+
+    @Override
+    public VectorStorage copy() {
+        VectorStorage copy = allocate(length());
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    @Override
+    public void copyFrom(VectorStorage other) {
+        if (other instanceof DirectFloatStorage same) {
+            data.put(0, same.data, 0, data.capacity());
+        } else {
+            for (int i = 0; i < data.capacity(); i++) {
+                data.put(i, (float) other.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < data.capacity(); i++) {
+            data.put(i, 0);
+        }
+    }
+
+    @Override
+    public void add(VectorStorage other) {
+        if (other instanceof DirectFloatStorage same) {
+            for (int i = 0; i < data.capacity(); i++) {
+                data.put(i, data.get(i) + same.data.get(i));
+            }
+        } else {
+            for (int i = 0; i < data.capacity(); i++) {
+                data.put(i, (float) (data.get(i) + other.get(i)));
+            }
+        }
+    }
+
+    @Override
+    public void negate() {
+        for (int i = 0; i < data.capacity(); i++) {
+            data.put(i, -data.get(i));
+        }
+    }
+
+    @Override
+    public void scale(double factor) {
+        for (int i = 0; i < data.capacity(); i++) {
+            data.put(i, (float) (data.get(i) * factor));
+        }
+    }
+
+    @Override
+    public void scale(double[] factors) {
+        for (int i = 0; i < data.capacity(); i++) {
+            data.put(i, (float) (data.get(i) * factors[i]));
+        }
+    }
+
+    @Override
+    public double dot(VectorStorage other, int from, int to, boolean accumulateInDouble) {
+        if (other instanceof DirectFloatStorage same) {
+            if (accumulateInDouble) {
+                double result = 0;
+                for (int i = from; i < to; i++) {
+                    result += (double) data.get(i) * same.data.get(i);
+                }
+                return result;
+            }
+            float result = 0;
+            for (int i = from; i < to; i++) {
+                result += data.get(i) * same.data.get(i);
+            }
+            return result;
+        }
+        double result = 0;
+        for (int i = from; i < to; i++) {
+            result += data.get(i) * other.get(i);
+        }
+        return result;
+    }
+
+    @Override
+    public int countNonZeros() {
+        int count = 0;
+        for (int i = 0; i < data.capacity(); i++) {
+            if (data.get(i) != 0)
+                count++;
+        }
+        return count;
+    }
+}
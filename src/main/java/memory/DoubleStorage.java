@@ -0,0 +1,120 @@
+package memory;
+
+import java.util.Arrays;
+
+/**
+ * Heap storage of 64-bit elements.
+ */
+final class DoubleStorage implements VectorStorage {
+
+    private final double[] data;
+
+    DoubleStorage(double[] data) {
+        this.data = data;
+    }
+
+    @Override
+    public Precision precision() {
+        return Precision.DOUBLE;
+    }
+
+    @Override
+    public int length() {
+        return data.length;
+    }
+
+    @Override
+    public double get(int index) {
+        return data[index];
+    }
+
+    @Override
+    public void set(int index, double value) {
+        data[index] = value;
+    }
+
+    @Override
+    public VectorStorage allocate(int length) {
+        return new DoubleStorage(new double[length]);
+    }
+
+    @Override
+    public VectorStorage copy() {
+        return new DoubleStorage(data.clone());
+    }
+
+    @Override
+    public void copyFrom(VectorStorage other) {
+        if (other instanceof DoubleStorage same) {
+            System.arraycopy(same.data, 0, data, 0, data.length);
+        } else {
+            for (int i = 0; i < data.length; i++) {
+                data[i] = other.get(i);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(data, 0);
+    }
+
+    @Override
+    public void add(VectorStorage other) {
+        if (other instanceof DoubleStorage same) {
+            for (int i = 0; i < data.length; i++) {
+                data[i] += same.data[i];
+            }
+        } else {
+            for (int i = 0; i < data.length; i++) {
+                data[i] += other.get(i);
+            }
+        }
+    }
+
+    @Override
+    public void negate() {
+        for (int i = 0; i < data.length; i++) {
+            data[i] = -data[i];
+        }
+    }
+
+    @Override
+    public void scale(double factor) {
+        for (int i = 0; i < data.length; i++) {
+            data[i] *= factor;
+        }
+    }
+
+    @Override
+    public void scale(double[] factors) {
+        for (int i = 0; i < data.length; i++) {
+            data[i] *= factors[i];
+        }
+    }
+
+    @Override
+    public double dot(VectorStorage other, int from, int to, boolean accumulateInDouble) {
+        double result = 0;
+        if (other instanceof DoubleStorage same) {
+            for (int i = from; i < to; i++) {
+                result += data[i] * same.data[i];
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                result += data[i] * other.get(i);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int countNonZeros() {
+        int count = 0;
+        for (double value : data) {
+            if (value != 0)
+                count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,129 @@
+package memory;
+
+import java.util.Arrays;
+
+/**
+ * Heap storage of 32-bit elements. Sums are accumulated in float unless a wider accumulator is requested.
+ */
+final class FloatStorage implements VectorStorage {
+
+    private final float[] data;
+
+    FloatStorage(float[] data) {
+        this.data = data;
+    }
+
+    @Override
+    public Precision precision() {
+        return Precision.FLOAT;
+    }
+
+    @Override
+    public int length() {
+        return data.length;
+    }
+
+    @Override
+    public double get(int index) {
+        return data[index];
+    }
+
+    @Override
+    public void set(int index, double value) {
+        data[index] = (float) value;
+    }
+
+    @Override
+    public VectorStorage allocate(int length) {
+        return new FloatStorage(new float[length]);
+    }
+
+    @Override
+    public VectorStorage copy() {
+        return new FloatStorage(data.clone());
+    }
+
+    @Override
+    public void copyFrom(VectorStorage other) {
+        if (other instanceof FloatStorage same) {
+            System.arraycopy(same.data, 0, data, 0, data.length);
+        } else {
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (float) other.get(i);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(data, 0);
+    }
+
+    @Override
+    public void add(VectorStorage other) {
+        if (other instanceof FloatStorage same) {
+            for (int i = 0; i < data.length; i++) {
+                data[i] += same.data[i];
+            }
+        } else {
+            for (int i = 0; i < data.length; i++) {
+                data[i] += (float) other.get(i);
+            }
+        }
+    }
+
+    @Override
+    public void negate() {
+        for (int i = 0; i < data.length; i++) {
+            data[i] = -data[i];
+        }
+    }
+
+    @Override
+    public void scale(double factor) {
+        float f = (float) factor;
+        for (int i = 0; i < data.length; i++) {
+            data[i] *= f;
+        }
+    }
+
+    @Override
+    public void scale(double[] factors) {
+        for (int i = 0; i < data.length; i++) {
+            data[i] *= (float) factors[i];
+        }
+    }
+
+    @Override
+    public double dot(VectorStorage other, int from, int to, boolean accumulateInDouble) {
+        if (other instanceof FloatStorage same) {
+            if (accumulateInDouble) {
+                double result = 0;
+                for (int i = from; i < to; i++) {
+                    result += (double) data[i] * same.data[i];
+                }
+                return result;
+            }
+            float result = 0;
+            for (int i = from; i < to; i++) {
+                result += data[i] * same.data[i];
+            }
+            return result;
+        }
+        double result = 0;
+        for (int i = from; i < to; i++) {
+            result += data[i] * other.get(i);
+        }
+        return result;
+    }
+
+    @Override
+    public int countNonZeros() {
+        int count = 0;
+        for (float value : data) {
+            if (value != 0)
+                count++;
+        }
+        return count;
+    }
+}
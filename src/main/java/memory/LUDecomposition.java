@@ -0,0 +1,240 @@
+package memory;
+
+/**
+ * Right-looking blocked LU factorization with partial pivoting, PA = LU, of a square dense matrix.
+ * L (unit lower, diagonal not stored) and U are kept in place in a row-major copy of the matrix;
+ * row interchanges swap whole row arrays, so they cost O(1) and reach both the factored and the trailing part.
+ * <p>
+ * The factorization is driven one block column at a time so the caller can schedule the parallel parts:
+ * {@link #factorPanel} factors a block column on one thread, then the columns to its right are independent
+ * and {@link #updateColumns} may run for disjoint column ranges concurrently. Solving is parallel over the
+ * columns of the right-hand side in the same way.
+ */
+public final class LUDecomposition {
+
+    public static final int DEFAULT_BLOCK_SIZE = 64;
+
+    private final double[][] lu;
+    private final int[] pivots; // row j was swapped with row pivots[j] when column j was factored
+    private final int blockSize;
+
+    /**
+     * Copies the matrix; nothing is factored yet.
+     */
+    public LUDecomposition(double[][] matrix, int blockSize) {
+        int n = matrix.length;
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Block size must be positive");
+        lu = new double[n][];
+        for (int i = 0; i < n; i++) {
+            if (matrix[i].length != n)
+                throw new IllegalArgumentException("Illegal operation: matrix is not square");
+            lu[i] = matrix[i].clone();
+        }
+        pivots = new int[n];
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Copies the matrix row by row straight from its vectors; nothing is factored yet.
+     */
+    public LUDecomposition(SharedMatrix matrix, int blockSize) {
+        int n = matrix.rows();
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Block size must be positive");
+        if (matrix.columns() != n)
+            throw new IllegalArgumentException("Illegal operation: matrix is not square");
+        lu = new double[n][];
+        for (int i = 0; i < n; i++) {
+            lu[i] = new double[n];
+            matrix.readRow(i, lu[i]);
+        }
+        pivots = new int[n];
+        this.blockSize = blockSize;
+    }
+
+    public int size() {
+        return lu.length;
+    }
+
+    /**
+     * Returns the column just past the block column starting at start.
+     */
+    public int panelEnd(int start) {
+        return Math.min(lu.length, start + blockSize);
+    }
+
+    /**
+     * Factors the block column [start, panelEnd(start)) with partial pivoting, leaving the columns to its right
+     * untouched apart from the row interchanges.
+     *
+     * @throws IllegalArgumentException if the matrix is singular
+     */
+    public void factorPanel(int start) {
+        int n = lu.length;
+        int end = panelEnd(start);
+        for (int j = start; j < end; j++) {
+            int pivot = j;
+            for (int i = j + 1; i < n; i++) {
+                if (Math.abs(lu[i][j]) > Math.abs(lu[pivot][j]))
+                    pivot = i;
+            }
+            if (lu[pivot][j] == 0)
+                throw new IllegalArgumentException("Illegal operation: matrix is singular");
+            pivots[j] = pivot;
+            if (pivot != j) {
+                double[] row = lu[pivot];
+                lu[pivot] = lu[j];
+                lu[j] = row;
+            }
+            double[] pivotRow = lu[j];
+            double inverse = 1 / pivotRow[j];
+            for (int i = j + 1; i < n; i++) {
+                double[] row = lu[i];
+                double l = row[j] * inverse;
+                row[j] = l;
+                if (l == 0)
+                    continue;
+                for (int c = j + 1; c < end; c++) {
+                    row[c] -= l * pivotRow[c];
+                }
+            }
+        }
+    }
+
+    /**
+     * After factorPanel(start), computes the U block of columns [from, to) (all right of the panel)
+     * and applies the panel's rank-blockSize update to the trailing rows of those columns.
+     * Disjoint column ranges may be updated concurrently.
+     */
+    public void updateColumns(int start, int from, int to) {
+        int n = lu.length;
+        int end = panelEnd(start);
+        for (int j = start; j < end; j++) { // U12 = L11^-1 A12, forward substitution with a unit diagonal
+            double[] pivotRow = lu[j];
+            for (int i = j + 1; i < end; i++) {
+                double l = lu[i][j];
+                if (l == 0)
+                    continue;
+                double[] row = lu[i];
+                for (int c = from; c < to; c++) {
+                    row[c] -= l * pivotRow[c];
+                }
+            }
+        }
+        for (int i = end; i < n; i++) { // A22 -= L21 U12
+            double[] row = lu[i];
+            for (int p = start; p < end; p++) {
+                double l = row[p];
+                if (l == 0)
+                    continue;
+                double[] upper = lu[p];
+                for (int c = from; c < to; c++) {
+                    row[c] -= l * upper[c];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of b with the factorization's row interchanges applied, ready for {@link #solveColumns}.
+     */
+    public double[][] permute(double[][] b) {
+        if (b.length != lu.length)
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        double[][] x = new double[b.length][];
+        for (int i = 0; i < b.length; i++) {
+            x[i] = b[i].clone();
+        }
+        return applyPivots(x);
+    }
+
+    /**
+     * Same as {@link #permute(double[][])}, reading b row by row straight from its vectors.
+     */
+    public double[][] permute(SharedMatrix b) {
+        if (b.rows() != lu.length)
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        double[][] x = new double[b.rows()][];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = new double[b.columns()];
+            b.readRow(i, x[i]);
+        }
+        return applyPivots(x);
+    }
+
+    private double[][] applyPivots(double[][] x) {
+        for (int j = 0; j < pivots.length; j++) {
+            double[] row = x[pivots[j]];
+            x[pivots[j]] = x[j];
+            x[j] = row;
+        }
+        return x;
+    }
+
+    /**
+     * Overwrites columns [from, to) of a permuted right-hand side with the solution of A x = b,
+     * by forward substitution with L and back substitution with U. Disjoint ranges may run concurrently.
+     */
+    public void solveColumns(double[][] x, int from, int to) {
+        int n = lu.length;
+        for (int i = 1; i < n; i++) {
+            double[] row = x[i];
+            double[] factors = lu[i];
+            for (int p = 0; p < i; p++) {
+                double l = factors[p];
+                if (l == 0)
+                    continue;
+                double[] solved = x[p];
+                for (int c = from; c < to; c++) {
+                    row[c] -= l * solved[c];
+                }
+            }
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double[] row = x[i];
+            double[] factors = lu[i];
+            for (int p = i + 1; p < n; p++) {
+                double u = factors[p];
+                if (u == 0)
+                    continue;
+                double[] solved = x[p];
+                for (int c = from; c < to; c++) {
+                    row[c] -= u * solved[c];
+                }
+            }
+            double inverse = 1 / factors[i];
+            for (int c = from; c < to; c++) {
+                row[c] *= inverse;
+            }
+        }
+    }
+
+    /**
+     * Factors the whole matrix on the calling thread.
+     */
+    public LUDecomposition factor() {
+        for (int start = 0; start < lu.length; start += blockSize) {
+            factorPanel(start);
+            updateColumns(start, panelEnd(start), lu.length);
+        }
+        return this;
+    }
+
+    /**
+     * Returns A^-1 b, computed on the calling thread. The matrix must have been factored.
+     */
+    public double[][] solve(double[][] b) {
+        double[][] x = permute(b);
+        solveColumns(x, 0, x.length == 0 ? 0 : x[0].length);
+        return x;
+    }
+
+    public static double[][] identity(int n) {
+        double[][] identity = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            identity[i][i] = 1;
+        }
+        return identity;
+    }
+}
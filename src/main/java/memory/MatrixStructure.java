@@ -0,0 +1,137 @@
+package memory;
+
+/**
+ * Known shape of a matrix's nonzero pattern, used to dispatch operations to cheaper kernels.
+ * Tags are conservative: a matrix tagged UPPER_TRIANGULAR may also happen to be diagonal,
+ * but a tag is never attached to a matrix that does not have that structure.
+ */
+public enum MatrixStructure {
+    GENERAL,
+    SYMMETRIC,
+    UPPER_TRIANGULAR,
+    LOWER_TRIANGULAR,
+    DIAGONAL,
+    IDENTITY,
+    ZERO;
+
+    /**
+     * Element at a logical position of a matrix scanned in place, e.g. in its vectors' storage.
+     */
+    interface Elements {
+        double get(int row, int column);
+    }
+
+    /**
+     * Scans a dense matrix and returns its most specific structure.
+     * The scan stops as soon as the matrix is known to be GENERAL.
+     */
+    public static MatrixStructure classify(double[][] matrix) {
+        int rows = matrix.length;
+        int columns = rows == 0 ? 0 : matrix[0].length;
+        return classify(rows, columns, (i, j) -> matrix[i][j]);
+    }
+
+    static MatrixStructure classify(int rows, int columns, Elements matrix) {
+        if (rows != columns) { // only square matrices get triangular/diagonal tags
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    if (matrix.get(i, j) != 0)
+                        return GENERAL;
+                }
+            }
+            return ZERO;
+        }
+        boolean upperNonZero = false, lowerNonZero = false, symmetric = true;
+        for (int i = 0; i < rows && !(upperNonZero && lowerNonZero && !symmetric); i++) {
+            for (int j = i + 1; j < columns; j++) {
+                double upper = matrix.get(i, j);
+                double lower = matrix.get(j, i);
+                upperNonZero |= upper != 0;
+                lowerNonZero |= lower != 0;
+                symmetric &= upper == lower;
+            }
+        }
+        boolean diagonalZero = true, diagonalOnes = true;
+        for (int i = 0; i < rows; i++) {
+            diagonalZero &= matrix.get(i, i) == 0;
+            diagonalOnes &= matrix.get(i, i) == 1;
+        }
+        return fromFlags(upperNonZero, lowerNonZero, symmetric, diagonalZero, diagonalOnes);
+    }
+
+    static MatrixStructure fromFlags(boolean upperNonZero, boolean lowerNonZero, boolean symmetric,
+                                     boolean diagonalZero, boolean diagonalOnes) {
+        if (!upperNonZero && !lowerNonZero) {
+            if (diagonalZero)
+                return ZERO;
+            return diagonalOnes ? IDENTITY : DIAGONAL;
+        }
+        if (!lowerNonZero)
+            return UPPER_TRIANGULAR;
+        if (!upperNonZero)
+            return LOWER_TRIANGULAR;
+        return symmetric ? SYMMETRIC : GENERAL;
+    }
+
+    public boolean isDiagonal() {
+        return this == DIAGONAL || this == IDENTITY;
+    }
+
+    public boolean isUpperTriangular() {
+        return this == UPPER_TRIANGULAR || isDiagonal();
+    }
+
+    public boolean isLowerTriangular() {
+        return this == LOWER_TRIANGULAR || isDiagonal();
+    }
+
+    public boolean isSymmetric() {
+        return this == SYMMETRIC || isDiagonal();
+    }
+
+    // ==================== Propagation through operations ====================
+
+    public MatrixStructure transpose() {
+        if (this == UPPER_TRIANGULAR)
+            return LOWER_TRIANGULAR;
+        if (this == LOWER_TRIANGULAR)
+            return UPPER_TRIANGULAR;
+        return this;
+    }
+
+    public MatrixStructure negate() {
+        return this == IDENTITY ? DIAGONAL : this;
+    }
+
+    public MatrixStructure add(MatrixStructure other) {
+        if (this == ZERO)
+            return other;
+        if (other == ZERO)
+            return this;
+        if (isDiagonal() && other.isDiagonal())
+            return DIAGONAL;
+        if (isUpperTriangular() && other.isUpperTriangular())
+            return UPPER_TRIANGULAR;
+        if (isLowerTriangular() && other.isLowerTriangular())
+            return LOWER_TRIANGULAR;
+        if (isSymmetric() && other.isSymmetric())
+            return SYMMETRIC;
+        return GENERAL;
+    }
+
+    public MatrixStructure multiply(MatrixStructure other) {
+        if (this == ZERO || other == ZERO)
+            return ZERO;
+        if (this == IDENTITY)
+            return other;
+        if (other == IDENTITY)
+            return this;
+        if (isDiagonal() && other.isDiagonal())
+            return DIAGONAL;
+        if (isUpperTriangular() && other.isUpperTriangular())
+            return UPPER_TRIANGULAR;
+        if (isLowerTriangular() && other.isLowerTriangular())
+            return LOWER_TRIANGULAR;
+        return GENERAL;
+    }
+}
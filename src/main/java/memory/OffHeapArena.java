@@ -0,0 +1,107 @@
+package memory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocates vector storage outside the Java heap, so large matrices neither count against -Xmx
+ * nor get copied around by the garbage collector.
+ * Memory is reserved in direct slabs and handed out in slices aligned to {@link #ALIGNMENT} bytes;
+ * small vectors share slabs of {@link #DEFAULT_SLAB_BYTES}, and larger ones get a slab sized to the request.
+ * Slices are never returned to the arena one by one: released storage is recycled through a {@link BufferPool}
+ * built on this arena, and the slabs are dropped together when the arena is closed.
+ * <p>
+ * Slabs are direct buffers, so they count against {@code -XX:MaxDirectMemorySize} (by default the maximum heap
+ * size), and their native memory is freed by the garbage collector once nothing slices them any more, not by
+ * {@link #close()}. Copy anything that must outlive the arena to the heap first ({@link SharedMatrix#moveToHeap()}).
+ */
+public class OffHeapArena implements AutoCloseable {
+
+    public static final int ALIGNMENT = 64; // cache line size, so no vector starts mid-line
+    public static final int DEFAULT_SLAB_BYTES = 16 << 20;
+
+    private final int slabBytes;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private ByteBuffer current = null;
+    private long allocatedBytes = 0;
+    private boolean closed = false;
+
+    public OffHeapArena() {
+        this(DEFAULT_SLAB_BYTES);
+    }
+
+    public OffHeapArena(int slabBytes) {
+        if (slabBytes <= 0)
+            throw new IllegalArgumentException("Slab size must be positive");
+        this.slabBytes = slabBytes;
+    }
+
+    VectorStorage allocate(Precision precision, int length) {
+        ByteBuffer slice = allocateAligned((long) length * precision.bytes());
+        return precision == Precision.FLOAT
+                ? new DirectFloatStorage(slice.asFloatBuffer(), this)
+                : new DirectDoubleStorage(slice.asDoubleBuffer(), this);
+    }
+
+    /**
+     * Returns a zeroed, aligned, native-order slice of the given size.
+     */
+    synchronized ByteBuffer allocateAligned(long bytes) {
+        if (closed)
+            throw new IllegalStateException("The arena is closed");
+        if (bytes > Integer.MAX_VALUE - ALIGNMENT)
+            throw new IllegalArgumentException("Vector too large for off-heap storage: " + bytes + " bytes");
+        allocatedBytes += bytes;
+        if (bytes > slabBytes / 2) { // a slab of its own, so the vector pins no more memory than it uses
+            ByteBuffer slab = ByteBuffer.allocateDirect((int) bytes + ALIGNMENT);
+            slabs.add(slab);
+            return slab.slice(align(slab), (int) bytes).order(ByteOrder.nativeOrder());
+        }
+        int start = current == null ? 0 : align(current);
+        if (current == null || current.capacity() - start < bytes) {
+            current = ByteBuffer.allocateDirect(slabBytes);
+            slabs.add(current);
+            start = align(current);
+        }
+        ByteBuffer slice = current.slice(start, (int) bytes).order(ByteOrder.nativeOrder());
+        current.position(start + (int) bytes);
+        return slice;
+    }
+
+    private static int align(ByteBuffer slab) {
+        int offset = slab.alignmentOffset(slab.position(), ALIGNMENT);
+        return offset == 0 ? slab.position() : slab.position() + ALIGNMENT - offset;
+    }
+
+    /**
+     * Bytes handed out as vector storage so far.
+     */
+    public synchronized long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Native memory reserved by the arena's slabs.
+     */
+    public synchronized long reservedBytes() {
+        long total = 0;
+        for (ByteBuffer slab : slabs) {
+            total += slab.capacity();
+        }
+        return total;
+    }
+
+    /**
+     * Drops the arena's slabs; no further storage can be allocated.
+     * The JVM frees a slab's native memory once no vector slices it any more, so storage still in use
+     * should have been moved to the heap before.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        slabs.clear();
+        current = null;
+    }
+}
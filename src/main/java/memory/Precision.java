@@ -0,0 +1,39 @@
+package memory;
+
+/**
+ * Element type used to store SharedVectors.
+ * FLOAT halves memory and bandwidth at the cost of about 7 significant digits.
+ */
+public enum Precision {
+    DOUBLE(Double.BYTES),
+    FLOAT(Float.BYTES);
+
+    private final int bytes;
+
+    Precision(int bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Size of one element in bytes.
+     */
+    public int bytes() {
+        return bytes;
+    }
+
+    /**
+     * Maps the names used in input files ("float32"/"float", "float64"/"double") to a precision.
+     */
+    public static Precision fromName(String name) {
+        switch (name.toLowerCase()) {
+            case "float32":
+            case "float":
+                return FLOAT;
+            case "float64":
+            case "double":
+                return DOUBLE;
+            default:
+                throw new IllegalArgumentException("Unknown precision: " + name);
+        }
+    }
+}
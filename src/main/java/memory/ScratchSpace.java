@@ -0,0 +1,62 @@
+package memory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Directory of memory-mapped scratch files that matrices are spilled to when they do not fit the memory budget.
+ * Every file is unlinked as soon as it is mapped, so it takes disk space only while its mapping is reachable
+ * and nothing is left behind if the process dies.
+ */
+public class ScratchSpace {
+
+    static final int MAX_FILE_BYTES = 1 << 30; // a single mapping is limited to 2 GiB, larger matrices use several files
+
+    private final Path directory;
+    private final AtomicLong spilledBytes = new AtomicLong();
+    private final AtomicLong files = new AtomicLong();
+
+    public ScratchSpace(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Maps a new scratch file of the given size and returns it as a native-order buffer.
+     */
+    ByteBuffer map(long bytes) throws IOException {
+        if (bytes > MAX_FILE_BYTES)
+            throw new IllegalArgumentException("Scratch file too large: " + bytes + " bytes");
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "lae-spill-", ".bin");
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE)) {
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes); // the mapping outlives the channel
+        }
+        spilledBytes.addAndGet(bytes);
+        files.incrementAndGet();
+        return mapped.order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Total bytes written to scratch files so far.
+     */
+    public long spilledBytes() {
+        return spilledBytes.get();
+    }
+
+    public long files() {
+        return files.get();
+    }
+}
@@ -1,8 +1,14 @@
 package memory;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 public class SharedMatrix {
 
     private volatile SharedVector[] vectors = {}; // underlying vectors
+    private volatile VectorOrientation orientation = VectorOrientation.ROW_MAJOR; // whether the vectors are rows or columns
+    private volatile boolean spilled = false; // elements live in memory-mapped scratch files
 
     public SharedMatrix() {
         // TODO: initialize empty matrix
@@ -12,50 +18,437 @@ public class SharedMatrix {
 
     public SharedMatrix(double[][] matrix) {
         // TODO: construct matrix as row-major SharedVectors
-        vectors = new SharedVector[matrix.length];
+        this(matrix, Precision.DOUBLE);
+    }
+
+    public SharedMatrix(double[][] matrix, Precision precision) {
+        this(copyRows(matrix, precision, null), VectorOrientation.ROW_MAJOR);
+    }
+
+    private SharedMatrix(SharedVector[] vectors, VectorOrientation orientation) {
+        this.vectors = vectors;
+        this.orientation = orientation;
+    }
+
+    /**
+     * Builds a row-major matrix that takes ownership of the given rows instead of copying them.
+     * The caller must not modify the arrays afterwards.
+     */
+    public static SharedMatrix wrapRowMajor(double[][] matrix) {
+        SharedVector[] rows = new SharedVector[matrix.length];
         for (int i = 0; i < matrix.length; i++) {
-            double[] temp = new double[matrix[i].length];
-            for (int j = 0; j < matrix[i].length; j++) {
-                temp[j] = matrix[i][j];
+            rows[i] = new SharedVector(matrix[i], VectorOrientation.ROW_MAJOR);
+        }
+        return new SharedMatrix(rows, VectorOrientation.ROW_MAJOR);
+    }
+
+    /**
+     * Builds a zeroed row-major matrix whose rows are taken from the pool, e.g. the output of a multiply.
+     */
+    public static SharedMatrix allocate(int rows, int columns, Precision precision, BufferPool pool) {
+        SharedVector[] vectors = new SharedVector[rows];
+        for (int i = 0; i < rows; i++) {
+            vectors[i] = new SharedVector(pool.acquire(precision, columns), VectorOrientation.ROW_MAJOR);
+        }
+        return new SharedMatrix(vectors, VectorOrientation.ROW_MAJOR);
+    }
+
+    /**
+     * Returns this matrix's storage to the pool and leaves the matrix empty.
+     * Only valid once nothing else (such as a transpose view) reads the vectors.
+     */
+    public void recycle(BufferPool pool) {
+        SharedVector[] current = vectors;
+        vectors = new SharedVector[0];
+        if (spilled) { // scratch file mappings are not worth keeping
+            spilled = false;
+            return;
+        }
+        for (SharedVector v : current) {
+            pool.release(v.storage());
+        }
+    }
+
+    /**
+     * Moves the elements to memory-mapped scratch files and drops the in-memory storage.
+     * The matrix stays readable (reads page the data in from disk) until {@link #pageIn} brings it back.
+     */
+    public void spill(ScratchSpace scratch) throws IOException {
+        SharedVector[] current = vectors;
+        if (spilled || current.length == 0)
+            return;
+        int first = 0;
+        while (first < current.length) { // vectors are grouped into files of at most MAX_FILE_BYTES
+            long bytes = 0;
+            int last = first;
+            while (last < current.length && (last == first || bytes + bytes(current[last]) <= ScratchSpace.MAX_FILE_BYTES)) {
+                bytes += bytes(current[last++]);
+            }
+            ByteBuffer file = scratch.map(bytes);
+            int offset = 0;
+            for (int i = first; i < last; i++) {
+                VectorStorage storage = current[i].storage();
+                int size = (int) bytes(current[i]);
+                ByteBuffer slice = file.slice(offset, size).order(file.order());
+                VectorStorage mapped = storage.precision() == Precision.FLOAT
+                        ? new DirectFloatStorage(slice.asFloatBuffer(), null)
+                        : new DirectDoubleStorage(slice.asDoubleBuffer(), null);
+                mapped.copyFrom(storage);
+                current[i].replaceStorage(mapped);
+                offset += size;
+            }
+            first = last;
+        }
+        spilled = true;
+    }
+
+    /**
+     * Copies spilled elements back into memory, taking the storage from the pool if one is given.
+     */
+    public void pageIn(BufferPool pool) {
+        if (!spilled)
+            return;
+        for (SharedVector v : vectors) {
+            VectorStorage mapped = v.storage();
+            VectorStorage storage = VectorStorage.allocate(mapped.precision(), mapped.length(), pool);
+            storage.copyFrom(mapped);
+            v.replaceStorage(storage);
+        }
+        spilled = false;
+    }
+
+    /**
+     * Copies elements held in an {@link OffHeapArena} into heap storage, so the matrix stays readable
+     * after the arena is closed and does not keep the arena's native memory alive.
+     * Spilled matrices are left in their scratch files.
+     */
+    public void moveToHeap() {
+        if (spilled)
+            return;
+        for (SharedVector v : vectors) {
+            VectorStorage storage = v.storage();
+            if (storage instanceof DirectDoubleStorage || storage instanceof DirectFloatStorage) {
+                VectorStorage heap = VectorStorage.allocate(storage.precision(), storage.length(), null);
+                heap.copyFrom(storage);
+                v.replaceStorage(heap);
             }
-            vectors[i] = new SharedVector(temp, VectorOrientation.ROW_MAJOR);
         }
     }
 
+    public boolean isSpilled() {
+        return spilled;
+    }
+
+    /**
+     * Size of the stored elements in bytes.
+     */
+    public long bytes() {
+        long total = 0;
+        for (SharedVector v : vectors) {
+            total += bytes(v);
+        }
+        return total;
+    }
+
+    private static long bytes(SharedVector vector) {
+        return (long) vector.length() * vector.getPrecision().bytes();
+    }
+
     public void loadRowMajor(double[][] matrix) {
         // TODO: replace internal data with new row-major matrix
-        vectors = new SharedVector[matrix.length];
+        loadRowMajor(matrix, Precision.DOUBLE);
+    }
+
+    public void loadRowMajor(double[][] matrix, Precision precision) {
+        loadRowMajor(matrix, precision, null);
+    }
+
+    /**
+     * Loads a row-major copy of the matrix, taking the storage from the pool if one is given.
+     */
+    public void loadRowMajor(double[][] matrix, Precision precision, BufferPool pool) {
+        vectors = copyRows(matrix, precision, pool);
+        orientation = VectorOrientation.ROW_MAJOR;
+    }
+
+    private static SharedVector[] copyRows(double[][] matrix, Precision precision, BufferPool pool) {
+        SharedVector[] rows = new SharedVector[matrix.length];
         for (int i = 0; i < matrix.length; i++) {
-            double[] temp = new double[matrix[i].length];
+            VectorStorage temp = VectorStorage.allocate(precision, matrix[i].length, pool);
             for (int j = 0; j < matrix[i].length; j++) {
-                temp[j] = matrix[i][j];
+                temp.set(j, matrix[i][j]);
             }
-            vectors[i] = new SharedVector(temp, VectorOrientation.ROW_MAJOR);
+            rows[i] = new SharedVector(temp, VectorOrientation.ROW_MAJOR);
         }
-
+        return rows;
     }
 
     public void loadColumnMajor(double[][] matrix) {
         // TODO: replace internal data with new column-major matrix
-        vectors = new SharedVector[matrix[0].length];
+        loadColumnMajor(matrix, Precision.DOUBLE);
+    }
+
+    public void loadColumnMajor(double[][] matrix, Precision precision) {
+        SharedVector[] columns = new SharedVector[matrix[0].length];
         for (int j = 0; j < matrix[0].length; j++) {
-            double[] temp = new double[matrix.length];
+            VectorStorage temp = VectorStorage.allocate(precision, matrix.length, null);
             for (int i = 0; i < matrix.length; i++) {
-                temp[i] = matrix[i][j];
+                temp.set(i, matrix[i][j]);
+            }
+            columns[j] = new SharedVector(temp, VectorOrientation.COLUMN_MAJOR);
+        }
+        vectors = columns;
+        orientation = VectorOrientation.COLUMN_MAJOR;
+    }
+
+    /**
+     * Returns this matrix stored in the given precision; vectors are only copied if they need converting.
+     */
+    public SharedMatrix toPrecision(Precision precision) {
+        return toPrecision(precision, null);
+    }
+
+    /**
+     * Same as {@link #toPrecision(Precision)}, taking converted storage from the pool if one is given.
+     * The copy-making methods below all have such an overload, so an engine can keep its working set in one pool
+     * (for instance off-heap).
+     */
+    public SharedMatrix toPrecision(Precision precision, BufferPool pool) {
+        SharedVector[] current = vectors;
+        SharedVector[] converted = new SharedVector[current.length];
+        boolean changed = false;
+        for (int i = 0; i < current.length; i++) {
+            converted[i] = current[i].getPrecision() == precision ? current[i] : current[i].copy(precision, pool);
+            changed |= converted[i] != current[i];
+        }
+        return changed ? new SharedMatrix(converted, orientation) : this;
+    }
+
+    /**
+     * Returns an independent copy of this matrix stored in the given precision.
+     */
+    public SharedMatrix copy(Precision precision) {
+        return copy(precision, null);
+    }
+
+    public SharedMatrix copy(Precision precision, BufferPool pool) {
+        SharedVector[] current = vectors;
+        SharedVector[] copied = new SharedVector[current.length];
+        for (int i = 0; i < current.length; i++) {
+            copied[i] = current[i].copy(precision, pool);
+        }
+        return new SharedMatrix(copied, orientation);
+    }
+
+    /**
+     * Returns an independent row-major copy of this matrix stored in the given precision.
+     * Column-major matrices (e.g. transpose views) are gathered into rows.
+     */
+    public SharedMatrix copyRowMajor(Precision precision) {
+        return copyRowMajor(precision, null);
+    }
+
+    public SharedMatrix copyRowMajor(Precision precision, BufferPool pool) {
+        return orientation == VectorOrientation.ROW_MAJOR ? copy(precision, pool) : repack(precision, pool);
+    }
+
+    /**
+     * Returns an independent column-major copy of this matrix stored in the given precision.
+     */
+    public SharedMatrix copyColumnMajor(Precision precision) {
+        return orientation == VectorOrientation.COLUMN_MAJOR ? copy(precision) : repack(precision, null);
+    }
+
+    /**
+     * Returns this matrix laid out row-major in the given precision, copying only if the layout or precision differs.
+     */
+    public SharedMatrix toRowMajor(Precision precision) {
+        return toRowMajor(precision, null);
+    }
+
+    public SharedMatrix toRowMajor(Precision precision, BufferPool pool) {
+        return orientation == VectorOrientation.ROW_MAJOR ? toPrecision(precision, pool) : repack(precision, pool);
+    }
+
+    /**
+     * Returns this matrix laid out column-major in the given precision, copying only if the layout or precision
+     * differs. Row × matrix products read such a matrix as contiguous column dot products.
+     */
+    public SharedMatrix toColumnMajor(Precision precision) {
+        return toColumnMajor(precision, null);
+    }
+
+    public SharedMatrix toColumnMajor(Precision precision, BufferPool pool) {
+        return orientation == VectorOrientation.COLUMN_MAJOR ? toPrecision(precision, pool) : repack(precision, pool);
+    }
+
+    /**
+     * Copies the matrix into vectors of the other orientation (rows become columns and vice versa).
+     */
+    private SharedMatrix repack(Precision precision, BufferPool pool) {
+        SharedVector[] current = vectors;
+        int length = current.length == 0 ? 0 : current[0].length();
+        VectorOrientation target = orientation == VectorOrientation.ROW_MAJOR
+                ? VectorOrientation.COLUMN_MAJOR : VectorOrientation.ROW_MAJOR;
+        SharedVector[] repacked = new SharedVector[length];
+        for (int i = 0; i < length; i++) {
+            VectorStorage temp = VectorStorage.allocate(precision, current.length, pool);
+            for (int j = 0; j < current.length; j++) {
+                temp.set(j, current[j].get(i));
+            }
+            repacked[i] = new SharedVector(temp, target);
+        }
+        return new SharedMatrix(repacked, target);
+    }
+
+    /**
+     * Returns the transpose of this matrix as a view over the same vectors: the rows of this matrix are read
+     * as the columns of the result and vice versa, so no element is moved.
+     */
+    public SharedMatrix transpose() {
+        return new SharedMatrix(vectors, orientation == VectorOrientation.ROW_MAJOR
+                ? VectorOrientation.COLUMN_MAJOR : VectorOrientation.ROW_MAJOR);
+    }
+
+    public int rows() {
+        SharedVector[] current = vectors;
+        if (orientation == VectorOrientation.ROW_MAJOR)
+            return current.length;
+        return current.length == 0 ? 0 : current[0].length();
+    }
+
+    public int columns() {
+        SharedVector[] current = vectors;
+        if (orientation == VectorOrientation.COLUMN_MAJOR)
+            return current.length;
+        return current.length == 0 ? 0 : current[0].length();
+    }
+
+    /**
+     * Returns the element at the given logical position, whatever the layout.
+     */
+    public double get(int row, int column) {
+        return orientation == VectorOrientation.ROW_MAJOR ? vectors[row].get(column) : vectors[column].get(row);
+    }
+
+    /**
+     * Writes rows [from, to) of this × x into y, using absolute values of the elements when absolute is set.
+     * Disjoint row ranges may be computed concurrently.
+     */
+    public void multiplyVector(double[] x, double[] y, boolean absolute, int from, int to) {
+        SharedVector[] current = vectors;
+        if (orientation == VectorOrientation.ROW_MAJOR) {
+            for (int i = from; i < to; i++) {
+                y[i] = current[i].dot(x, absolute);
             }
-            vectors[j] = new SharedVector(temp, VectorOrientation.COLUMN_MAJOR);
+            return;
+        }
+        if (x.length != current.length)
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        Arrays.fill(y, from, to, 0);
+        for (int j = 0; j < current.length; j++) { // column-major: accumulate column by column
+            current[j].addScaledTo(y, x[j], from, to, absolute);
+        }
+    }
+
+    public Precision getPrecision() {
+        if (vectors.length == 0) {
+            return Precision.DOUBLE;
         }
+        return vectors[0].getPrecision();
+    }
+
+    /**
+     * Makes the dot products and row × matrix products of FLOAT vectors accumulate in double precision.
+     */
+    public void setDoubleAccumulation(boolean accumulateInDouble) {
+        for (SharedVector v : vectors) {
+            v.setDoubleAccumulation(accumulateInDouble);
+        }
+    }
+
+    public int countNonZeros() {
+        int count = 0;
+        for (SharedVector v : vectors) {
+            count += v.countNonZeros();
+        }
+        return count;
+    }
+
+    /**
+     * Copies columns [from, to) of a row into out, starting at out[0], without copying the rest of the matrix.
+     */
+    public void readRow(int row, int from, int to, double[] out) {
+        SharedVector[] current = vectors;
+        if (orientation == VectorOrientation.ROW_MAJOR) {
+            current[row].copyTo(out, from, to);
+            return;
+        }
+        for (int j = from; j < to; j++) {
+            out[j - from] = current[j].get(row);
+        }
+    }
+
+    public void readRow(int row, double[] out) {
+        readRow(row, 0, columns(), out);
+    }
+
+    /**
+     * Returns the structure of this matrix, scanning the vectors in place under their read locks.
+     */
+    public MatrixStructure classify() {
+        SharedVector[] current = vectors;
+        int rows = rows();
+        int columns = columns();
+        VectorStorage[] storages = new VectorStorage[current.length];
+        acquireAllVectorReadLocks(current);
+        try {
+            for (int v = 0; v < current.length; v++) {
+                storages[v] = current[v].storage();
+            }
+            if (orientation == VectorOrientation.ROW_MAJOR)
+                return MatrixStructure.classify(rows, columns, (i, j) -> storages[i].get(j));
+            return MatrixStructure.classify(rows, columns, (i, j) -> storages[j].get(i));
+        } finally {
+            releaseAllVectorReadLocks(current);
+        }
+    }
+
+    /**
+     * Whether other holds the same elements (compared like {@link Arrays#equals(double[], double[])}), whatever
+     * the layout of either. Compares one row at a time, so neither matrix is copied.
+     */
+    public boolean contentEquals(SharedMatrix other) {
+        if (other == this || (other.vectors == vectors && other.orientation == orientation))
+            return true;
+        int rows = rows();
+        int columns = columns();
+        if (other.rows() != rows || other.columns() != columns)
+            return false;
+        double[] row = new double[columns];
+        double[] otherRow = new double[columns];
+        for (int i = 0; i < rows; i++) {
+            readRow(i, row);
+            other.readRow(i, otherRow);
+            if (!Arrays.equals(row, otherRow))
+                return false;
+        }
+        return true;
     }
 
     public double[][] readRowMajor() {
         // TODO: return matrix contents as a row-major double[][]
-        if (vectors.length == 0) {
+        SharedVector[] current = vectors;
+        if (current.length == 0) {
             return new double[0][0];
         }
-        double[][] result = new double[vectors.length][vectors[0].length()];
-        for (int i = 0; i < vectors.length; i++) {
-            for (int j = 0; j < vectors[i].length(); j++) {
-                result[i][j] = vectors[i].get(j);
+        double[][] result = new double[rows()][columns()];
+        for (int v = 0; v < current.length; v++) {
+            for (int k = 0; k < current[v].length(); k++) {
+                if (orientation == VectorOrientation.ROW_MAJOR)
+                    result[v][k] = current[v].get(k);
+                else
+                    result[k][v] = current[v].get(k);
             }
         }
         return result;
@@ -76,7 +469,7 @@ public class SharedMatrix {
         if (vectors.length == 0) {
             return null;
         }
-        return vectors[0].getOrientation();
+        return orientation;
     }
 
     private void acquireAllVectorReadLocks(SharedVector[] vecs) {
@@ -1,24 +1,108 @@
 package memory;
 
-import java.util.concurrent.locks.ReadWriteLock;
+import jdk.jfr.FlightRecorder;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class SharedVector {
 
-    private double[] vector;
+    private VectorStorage vector;
     private VectorOrientation orientation;
-    private ReadWriteLock lock = new java.util.concurrent.locks.ReentrantReadWriteLock();
+    private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean accumulateInDouble = false; // FLOAT vectors only: sum products in double precision
 
     public SharedVector(double[] vector, VectorOrientation orientation) {
         // TODO: store vector data and its orientation
+        this.vector = new DoubleStorage(vector);
+        this.orientation = orientation;
+    }
+
+    public SharedVector(float[] vector, VectorOrientation orientation) {
+        this.vector = new FloatStorage(vector);
+        this.orientation = orientation;
+    }
+
+    SharedVector(VectorStorage vector, VectorOrientation orientation) {
         this.vector = vector;
         this.orientation = orientation;
     }
 
+    /**
+     * Returns a copy of this vector stored in the given precision, or this vector if it already is.
+     */
+    public SharedVector withPrecision(Precision precision) {
+        return getPrecision() == precision ? this : copy(precision, null);
+    }
+
+    /**
+     * Returns an independent copy of this vector stored in the given precision.
+     */
+    public SharedVector copy(Precision precision) {
+        return copy(precision, null);
+    }
+
+    /**
+     * Same as {@link #copy(Precision)}, taking the copy's storage from the pool if one is given.
+     */
+    SharedVector copy(Precision precision, BufferPool pool) {
+        readLock();
+        try {
+            VectorStorage converted = VectorStorage.allocate(precision, vector.length(), pool);
+            converted.copyFrom(vector);
+            SharedVector copy = new SharedVector(converted, orientation);
+            copy.accumulateInDouble = accumulateInDouble;
+            return copy;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    VectorStorage storage() {
+        return vector;
+    }
+
+    /**
+     * Swaps in storage holding the same elements elsewhere (another memory tier), returning the old storage.
+     */
+    VectorStorage replaceStorage(VectorStorage storage) {
+        writeLock();
+        try {
+            VectorStorage old = vector;
+            vector = storage;
+            return old;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Precision getPrecision() {
+        readLock();
+        try {
+            return vector.precision();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void setDoubleAccumulation(boolean accumulateInDouble) {
+        this.accumulateInDouble = accumulateInDouble;
+    }
+
+    public int countNonZeros() {
+        readLock();
+        try {
+            return vector.countNonZeros();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     public double get(int index) {
         // TODO: return element at index (read-locked)
-        lock.readLock().lock();
+        readLock();
         try {
-            return vector[index];
+            return vector.get(index);
         } finally {
             lock.readLock().unlock();
         }
@@ -26,9 +110,9 @@ public class SharedVector {
 
     public int length() {
         // TODO: return vector length
-        lock.readLock().lock();
+        readLock();
         try {
-            return vector.length;
+            return vector.length();
         } finally {
             lock.readLock().unlock();
         }
@@ -36,7 +120,7 @@ public class SharedVector {
 
     public VectorOrientation getOrientation() {
         // TODO: return vector orientation
-        lock.readLock().lock();
+        readLock();
         try {
             return orientation;
         } finally {
@@ -46,7 +130,10 @@ public class SharedVector {
 
     public void writeLock() {
         // TODO: acquire write lock
-        lock.writeLock().lock();
+        if (FlightRecorder.isInitialized() && (lock.isWriteLocked() || lock.getReadLockCount() > 0 || lock.hasQueuedThreads()))
+            awaitLock(lock.writeLock(), true);
+        else
+            lock.writeLock().lock();
 
     }
 
@@ -58,7 +145,27 @@ public class SharedVector {
 
     public void readLock() {
         // TODO: acquire read lock
-        lock.readLock().lock();
+        if (FlightRecorder.isInitialized() && (lock.isWriteLocked() || lock.hasQueuedThreads()))
+            awaitLock(lock.readLock(), false);
+        else
+            lock.readLock().lock();
+    }
+
+    /**
+     * Slow path of readLock and writeLock while Flight Recorder runs and the lock looks contended: blocks on it
+     * with a plain lock(), so readers still queue behind waiting writers, timed as a VectorLockWaitEvent.
+     * The contention check is only a hint; an uncontended lock, or one without Flight Recorder, is taken untimed.
+     */
+    private void awaitLock(Lock contended, boolean write) {
+        VectorLockWaitEvent wait = new VectorLockWaitEvent();
+        wait.begin();
+        contended.lock();
+        wait.end();
+        if (wait.shouldCommit()) {
+            wait.write = write;
+            wait.length = vector.length();
+            wait.commit();
+        }
     }
 
     public void readUnlock() {
@@ -68,7 +175,7 @@ public class SharedVector {
 
     public void transpose() {
         // TODO: transpose vector
-        lock.writeLock().lock();
+        writeLock();
         try {
             if (this.orientation == VectorOrientation.ROW_MAJOR)
                 this.orientation = VectorOrientation.COLUMN_MAJOR;
@@ -86,9 +193,7 @@ public class SharedVector {
         try {
             this.writeLock();
             other.readLock();
-            for (int i = 0; i < vector.length; i++) {
-                this.vector[i] += other.vector[i];
-            }
+            this.vector.add(other.vector);
         } finally {
             other.readUnlock();
             this.writeUnlock();
@@ -97,11 +202,9 @@ public class SharedVector {
 
     public void negate() {
         // TODO: negate vector
-        lock.writeLock().lock();
+        writeLock();
         try {
-            for (int i = 0; i < vector.length; i++) {
-                vector[i] = -vector[i];
-            }
+            vector.negate();
         } finally {
             lock.writeLock().unlock();
         }
@@ -116,9 +219,7 @@ public class SharedVector {
             this.readLock();
             other.readLock();
 
-            for (int i = 0; i < vector.length; i++) {
-                result += this.vector[i] * other.vector[i];
-            }
+            result = this.vector.dot(other.vector, 0, vector.length(), accumulateInDouble);
         } finally {
             this.readUnlock();
             other.readUnlock();
@@ -126,25 +227,204 @@ public class SharedVector {
         return result;
     }
 
+    /**
+     * Returns this · x for a plain array, or |this| · x when absolute is set.
+     */
+    public double dot(double[] x, boolean absolute) {
+        readLock();
+        try {
+            int length = vector.length();
+            if (x.length != length)
+                throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+            double sum = 0;
+            for (int i = 0; i < length; i++) {
+                double value = vector.get(i);
+                sum += (absolute ? Math.abs(value) : value) * x[i];
+            }
+            return sum;
+        } finally {
+            readUnlock();
+        }
+    }
+
+    /**
+     * Copies elements [from, to) into out, starting at out[0].
+     */
+    public void copyTo(double[] out, int from, int to) {
+        readLock();
+        try {
+            for (int i = from; i < to; i++) {
+                out[i - from] = vector.get(i);
+            }
+        } finally {
+            readUnlock();
+        }
+    }
+
+    /**
+     * Adds factor times elements [from, to) of this vector (or of their absolute values) to y[from, to).
+     */
+    public void addScaledTo(double[] y, double factor, int from, int to, boolean absolute) {
+        readLock();
+        try {
+            for (int i = from; i < to; i++) {
+                double value = vector.get(i);
+                y[i] += (absolute ? Math.abs(value) : value) * factor;
+            }
+        } finally {
+            readUnlock();
+        }
+    }
+
     public void vecMatMul(SharedMatrix matrix) {
         // TODO: compute row-vector × matrix
+        vecMatMul(matrix, 0, matrix.rows());
+    }
+
+    /**
+     * Row-vector × matrix when this vector is known to be zero outside [from, to),
+     * e.g. a row of a triangular left operand. Only that band of the sum is computed.
+     * A column-major matrix (such as a transpose view) is consumed as contiguous column dot products.
+     */
+    public void vecMatMul(SharedMatrix matrix, int from, int to) {
         this.writeLock();
         try {
-            if (vector.length != matrix.length())
-                throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+            VectorStorage temp = vector.allocate(matrix.columns());
+            multiplyInto(matrix, from, to, temp, accumulateInDouble);
+            this.vector = temp;
+        } finally {
+            this.writeUnlock();
+        }
 
-            double[] temp = new double[matrix.get(0).length()];
-            for (int i = 0; i < matrix.get(0).length(); i++) {
-                double sum = 0;
-                for (int j = 0; j < matrix.length(); j++) {
-                    sum += this.vector[j] * matrix.get(j).get(i);
-                }
-                temp[i] = sum;
-            }
+    }
+
+    /**
+     * Writes this row-vector × matrix into result, leaving this vector unchanged.
+     * Lets a multiply fill one preallocated output matrix instead of allocating a new array per row.
+     * FLOAT sums follow the result's double accumulation setting.
+     */
+    public void vecMatMul(SharedMatrix matrix, SharedVector result) {
+        vecMatMul(matrix, 0, matrix.rows(), result);
+    }
+
+    /**
+     * Banded variant of {@link #vecMatMul(SharedMatrix, SharedVector)}, see {@link #vecMatMul(SharedMatrix, int, int)}.
+     */
+    public void vecMatMul(SharedMatrix matrix, int from, int to, SharedVector result) {
+        if (result == this)
+            throw new IllegalArgumentException("The result vector must not be the operand");
+        if (result.length() != matrix.columns())
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        this.readLock();
+        result.writeLock();
+        try {
+            multiplyInto(matrix, from, to, result.vector, result.accumulateInDouble);
+        } finally {
+            result.writeUnlock();
+            this.readUnlock();
+        }
+    }
+
+    private void multiplyInto(SharedMatrix matrix, int from, int to, VectorStorage out, boolean accumulate) {
+        if (vector.length() != matrix.rows())
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        for (int i = 0; i < out.length(); i++) {
+            out.set(i, sumProducts(matrix, i, from, to, accumulate));
+        }
+    }
+
+    /**
+     * Row-vector × square triangular matrix, skipping the matrix's zero half:
+     * element i only sums rows k <= i of an upper triangular matrix, or k >= i of a lower one.
+     */
+    public void vecTriangularMatMul(SharedMatrix matrix, boolean upper) {
+        this.writeLock();
+        try {
+            VectorStorage temp = vector.allocate(vector.length());
+            triangularMultiplyInto(matrix, upper, temp, accumulateInDouble);
             this.vector = temp;
         } finally {
             this.writeUnlock();
         }
+    }
+
+    /**
+     * Writes this row-vector × triangular matrix into result, leaving this vector unchanged.
+     */
+    public void vecTriangularMatMul(SharedMatrix matrix, boolean upper, SharedVector result) {
+        if (result == this)
+            throw new IllegalArgumentException("The result vector must not be the operand");
+        if (result.length() != matrix.columns())
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        this.readLock();
+        result.writeLock();
+        try {
+            triangularMultiplyInto(matrix, upper, result.vector, result.accumulateInDouble);
+        } finally {
+            result.writeUnlock();
+            this.readUnlock();
+        }
+    }
+
+    private void triangularMultiplyInto(SharedMatrix matrix, boolean upper, VectorStorage out, boolean accumulate) {
+        if (vector.length() != matrix.rows() || matrix.rows() != matrix.columns())
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        for (int i = 0; i < out.length(); i++) {
+            out.set(i, upper ? sumProducts(matrix, i, 0, i + 1, accumulate) : sumProducts(matrix, i, i, out.length(), accumulate));
+        }
+    }
+
+    /**
+     * Sums this[j] * matrix[j][column] over j in [from, to).
+     */
+    private double sumProducts(SharedMatrix matrix, int column, int from, int to, boolean accumulate) {
+        if (matrix.getOrientation() == VectorOrientation.COLUMN_MAJOR)
+            return matrix.get(column).dotWith(vector, from, to, accumulate);
+        boolean floatSums = vector.precision() == Precision.FLOAT && !accumulate;
+        double sum = 0;
+        for (int j = from; j < to; j++) {
+            sum += this.vector.get(j) * matrix.get(j).get(column);
+            if (floatSums)
+                sum = (float) sum;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns elements · this over [from, to), holding this vector's read lock while its elements are read.
+     */
+    private double dotWith(VectorStorage elements, int from, int to, boolean accumulate) {
+        readLock();
+        try {
+            return elements.dot(vector, from, to, accumulate);
+        } finally {
+            readUnlock();
+        }
+    }
 
+    /**
+     * Multiplies every element by the same factor (a row of diagonal × matrix).
+     */
+    public void scale(double factor) {
+        writeLock();
+        try {
+            vector.scale(factor);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Multiplies element i by factors[i] (a row of matrix × diagonal).
+     */
+    public void scale(double[] factors) {
+        if (this.length() != factors.length)
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        writeLock();
+        try {
+            vector.scale(factors);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 }
@@ -0,0 +1,490 @@
+package memory;
+
+import java.util.Arrays;
+
+/**
+ * A matrix stored in compressed form, keeping only its nonzero entries.
+ * In ROW_MAJOR orientation the storage is CSR (every major vector is a row),
+ * in COLUMN_MAJOR orientation it is CSC (every major vector is a column).
+ * Instances are never modified after construction, so workers may read them concurrently without locking.
+ */
+public class SparseMatrix {
+
+    public static final double DEFAULT_DENSITY_THRESHOLD = 0.1; // from this fraction of nonzeros on, dense storage wins
+
+    private final int rows;
+    private final int columns;
+    private final VectorOrientation orientation;
+    private final int[] pointers; // entries of major vector k are stored at [pointers[k], pointers[k + 1])
+    private final int[] indices; // minor index of every entry (column for CSR, row for CSC), sorted per vector
+    private final double[] values; // value of every entry
+
+    /**
+     * A single compressed row or column, produced by the row kernels and assembled with {@link #fromVectors}.
+     */
+    public static final class CompressedVector {
+        private final int[] indices;
+        private final double[] values;
+
+        public CompressedVector(int[] indices, double[] values) {
+            this.indices = indices;
+            this.values = values;
+        }
+    }
+
+    public SparseMatrix(int rows, int columns, VectorOrientation orientation, int[] pointers, int[] indices, double[] values) {
+        int major = orientation == VectorOrientation.ROW_MAJOR ? rows : columns;
+        if (pointers.length != major + 1 || indices.length != values.length || pointers[major] != values.length)
+            throw new IllegalArgumentException("Illegal sparse structure: pointers do not match entries");
+        this.rows = rows;
+        this.columns = columns;
+        this.orientation = orientation;
+        this.pointers = pointers;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    public static SparseMatrix fromDense(double[][] matrix, VectorOrientation orientation) {
+        int rows = matrix.length;
+        int columns = rows == 0 ? 0 : matrix[0].length;
+        int nonZeros = countNonZeros(matrix);
+        int[] pointers = new int[(orientation == VectorOrientation.ROW_MAJOR ? rows : columns) + 1];
+        int[] indices = new int[nonZeros];
+        double[] values = new double[nonZeros];
+        int k = 0;
+        if (orientation == VectorOrientation.ROW_MAJOR) {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    if (matrix[i][j] != 0) {
+                        indices[k] = j;
+                        values[k++] = matrix[i][j];
+                    }
+                }
+                pointers[i + 1] = k;
+            }
+        } else {
+            for (int j = 0; j < columns; j++) {
+                for (int i = 0; i < rows; i++) {
+                    if (matrix[i][j] != 0) {
+                        indices[k] = i;
+                        values[k++] = matrix[i][j];
+                    }
+                }
+                pointers[j + 1] = k;
+            }
+        }
+        return new SparseMatrix(rows, columns, orientation, pointers, indices, values);
+    }
+
+    public static SparseMatrix zero(int rows, int columns) {
+        return new SparseMatrix(rows, columns, VectorOrientation.ROW_MAJOR, new int[rows + 1], new int[0], new double[0]);
+    }
+
+    /**
+     * Assembles a matrix from its compressed major vectors (rows for ROW_MAJOR, columns for COLUMN_MAJOR).
+     */
+    public static SparseMatrix fromVectors(int rows, int columns, VectorOrientation orientation, CompressedVector[] vectors) {
+        int[] pointers = new int[vectors.length + 1];
+        for (int k = 0; k < vectors.length; k++) {
+            pointers[k + 1] = pointers[k] + vectors[k].values.length;
+        }
+        int[] indices = new int[pointers[vectors.length]];
+        double[] values = new double[pointers[vectors.length]];
+        for (int k = 0; k < vectors.length; k++) {
+            System.arraycopy(vectors[k].indices, 0, indices, pointers[k], vectors[k].indices.length);
+            System.arraycopy(vectors[k].values, 0, values, pointers[k], vectors[k].values.length);
+        }
+        return new SparseMatrix(rows, columns, orientation, pointers, indices, values);
+    }
+
+    public static int countNonZeros(double[][] matrix) {
+        int count = 0;
+        for (double[] row : matrix) {
+            for (double value : row) {
+                if (value != 0)
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether a dense matrix has fewer nonzeros than the given density allows.
+     * Stops scanning as soon as the budget is exceeded, so dense inputs are rejected quickly.
+     */
+    public static boolean isSparseEnough(double[][] matrix, double threshold) {
+        if (threshold <= 0 || matrix.length == 0 || matrix[0].length == 0)
+            return false;
+        double budget = threshold * matrix.length * matrix[0].length;
+        int count = 0;
+        for (double[] row : matrix) {
+            for (double value : row) {
+                if (value != 0 && ++count >= budget)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same check for dense vector storage; rows are counted one at a time so dense inputs are still rejected early.
+     */
+    public static boolean isSparseEnough(SharedMatrix matrix, double threshold) {
+        if (threshold <= 0 || matrix.length() == 0 || matrix.get(0).length() == 0)
+            return false;
+        double budget = threshold * matrix.length() * matrix.get(0).length();
+        int count = 0;
+        for (int i = 0; i < matrix.length(); i++) {
+            count += matrix.get(i).countNonZeros();
+            if (count >= budget)
+                return false;
+        }
+        return true;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public VectorOrientation getOrientation() {
+        return orientation;
+    }
+
+    public int nonZeros() {
+        return values.length;
+    }
+
+    /**
+     * Bytes held by the compressed arrays.
+     */
+    public long bytes() {
+        return (long) (pointers.length + indices.length) * Integer.BYTES + (long) values.length * Double.BYTES;
+    }
+
+    public double density() {
+        long size = (long) rows * columns;
+        return size == 0 ? 0 : (double) values.length / size;
+    }
+
+    /**
+     * Returns the most specific structure of this matrix, visiting only the stored entries.
+     */
+    public MatrixStructure classify() {
+        boolean upperNonZero = false, lowerNonZero = false, symmetric = true, diagonalOnes = true;
+        int diagonalCount = 0;
+        for (int k = 0; k < pointers.length - 1; k++) {
+            for (int p = pointers[k]; p < pointers[k + 1]; p++) {
+                if (values[p] == 0)
+                    continue;
+                int row = orientation == VectorOrientation.ROW_MAJOR ? k : indices[p];
+                int column = orientation == VectorOrientation.ROW_MAJOR ? indices[p] : k;
+                if (row == column) {
+                    diagonalCount++;
+                    diagonalOnes &= values[p] == 1;
+                    continue;
+                }
+                upperNonZero |= row < column;
+                lowerNonZero |= row > column;
+                if (symmetric && rows == columns)
+                    symmetric = get(column, row) == values[p];
+            }
+        }
+        if (rows != columns)
+            return upperNonZero || lowerNonZero || diagonalCount > 0 ? MatrixStructure.GENERAL : MatrixStructure.ZERO;
+        return MatrixStructure.fromFlags(upperNonZero, lowerNonZero, symmetric,
+                diagonalCount == 0, diagonalOnes && diagonalCount == rows);
+    }
+
+    /**
+     * Whether other holds the same compressed arrays in the same orientation. Matrices with equal elements
+     * stored differently (other orientation, explicit zeros) compare unequal; nothing is expanded.
+     */
+    public boolean contentEquals(SparseMatrix other) {
+        return other == this || (rows == other.rows && columns == other.columns && orientation == other.orientation
+                && values.length == other.values.length && Arrays.equals(pointers, other.pointers)
+                && Arrays.equals(indices, other.indices) && Arrays.equals(values, other.values));
+    }
+
+    public double get(int row, int column) {
+        int major = orientation == VectorOrientation.ROW_MAJOR ? row : column;
+        int minor = orientation == VectorOrientation.ROW_MAJOR ? column : row;
+        int position = Arrays.binarySearch(indices, pointers[major], pointers[major + 1], minor);
+        return position >= 0 ? values[position] : 0;
+    }
+
+    public double[][] toDense() {
+        double[][] result = new double[rows][columns];
+        for (int k = 0; k < pointers.length - 1; k++) {
+            for (int p = pointers[k]; p < pointers[k + 1]; p++) {
+                if (orientation == VectorOrientation.ROW_MAJOR)
+                    result[k][indices[p]] = values[p];
+                else
+                    result[indices[p]][k] = values[p];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the same matrix stored in the requested orientation (CSR <-> CSC conversion in O(nnz)).
+     */
+    public SparseMatrix toOrientation(VectorOrientation target) {
+        if (target == orientation)
+            return this;
+        int minor = orientation == VectorOrientation.ROW_MAJOR ? columns : rows;
+        int[] newPointers = new int[minor + 1];
+        for (int index : indices) {
+            newPointers[index + 1]++;
+        }
+        for (int k = 0; k < minor; k++) {
+            newPointers[k + 1] += newPointers[k];
+        }
+        int[] next = Arrays.copyOf(newPointers, minor);
+        int[] newIndices = new int[indices.length];
+        double[] newValues = new double[values.length];
+        for (int k = 0; k < pointers.length - 1; k++) { // visiting majors in order keeps the new indices sorted
+            for (int p = pointers[k]; p < pointers[k + 1]; p++) {
+                int destination = next[indices[p]]++;
+                newIndices[destination] = k;
+                newValues[destination] = values[p];
+            }
+        }
+        return new SparseMatrix(rows, columns, target, newPointers, newIndices, newValues);
+    }
+
+    /**
+     * Sums entries that share a coordinate (assembled inputs may repeat them); indices must already be sorted.
+     */
+    public SparseMatrix sumDuplicates() {
+        int[] newPointers = new int[pointers.length];
+        int[] newIndices = new int[indices.length];
+        double[] newValues = new double[values.length];
+        int count = 0;
+        for (int k = 0; k < pointers.length - 1; k++) {
+            int vectorStart = count;
+            for (int p = pointers[k]; p < pointers[k + 1]; p++) {
+                if (count > vectorStart && newIndices[count - 1] == indices[p]) {
+                    newValues[count - 1] += values[p];
+                } else {
+                    newIndices[count] = indices[p];
+                    newValues[count++] = values[p];
+                }
+            }
+            newPointers[k + 1] = count;
+        }
+        if (count == indices.length)
+            return this;
+        return new SparseMatrix(rows, columns, orientation, newPointers,
+                Arrays.copyOf(newIndices, count), Arrays.copyOf(newValues, count));
+    }
+
+    /**
+     * Transposes in O(1): the CSR storage of a matrix is exactly the CSC storage of its transpose.
+     */
+    public SparseMatrix transpose() {
+        VectorOrientation flipped = orientation == VectorOrientation.ROW_MAJOR
+                ? VectorOrientation.COLUMN_MAJOR : VectorOrientation.ROW_MAJOR;
+        return new SparseMatrix(columns, rows, flipped, pointers, indices, values);
+    }
+
+    public SparseMatrix negate() {
+        double[] negated = new double[values.length];
+        for (int p = 0; p < values.length; p++) {
+            negated[p] = -values[p];
+        }
+        return new SparseMatrix(rows, columns, orientation, pointers, indices, negated);
+    }
+
+    /**
+     * Adds major vectors [from, to) of this matrix and other, which must share this orientation.
+     */
+    public void addVectors(SparseMatrix other, int from, int to, CompressedVector[] out) {
+        if (rows != other.rows || columns != other.columns || orientation != other.orientation)
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        for (int k = from; k < to; k++) {
+            int p = pointers[k], pEnd = pointers[k + 1];
+            int q = other.pointers[k], qEnd = other.pointers[k + 1];
+            int[] mergedIndices = new int[(pEnd - p) + (qEnd - q)];
+            double[] mergedValues = new double[mergedIndices.length];
+            int count = 0;
+            while (p < pEnd || q < qEnd) {
+                int index;
+                double sum;
+                if (q == qEnd || (p < pEnd && indices[p] < other.indices[q])) {
+                    index = indices[p];
+                    sum = values[p++];
+                } else if (p == pEnd || other.indices[q] < indices[p]) {
+                    index = other.indices[q];
+                    sum = other.values[q++];
+                } else {
+                    index = indices[p];
+                    sum = values[p++] + other.values[q++];
+                }
+                if (sum != 0) { // cancelled entries are dropped so nnz stays exact
+                    mergedIndices[count] = index;
+                    mergedValues[count++] = sum;
+                }
+            }
+            out[k] = new CompressedVector(Arrays.copyOf(mergedIndices, count), Arrays.copyOf(mergedValues, count));
+        }
+    }
+
+    /**
+     * Adds row {@code row} of this CSR matrix into a dense row.
+     */
+    public void addRowTo(int row, double[] target) {
+        requireRowMajor();
+        if (target.length != columns)
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        for (int p = pointers[row]; p < pointers[row + 1]; p++) {
+            target[indices[p]] += values[p];
+        }
+    }
+
+    /**
+     * Sparse x dense: row {@code row} of this CSR matrix times a dense matrix, written into {@code out}.
+     */
+    public void multiplyRow(int row, double[][] dense, double[] out) {
+        requireRowMajor();
+        if (dense.length != columns)
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        Arrays.fill(out, 0);
+        for (int p = pointers[row]; p < pointers[row + 1]; p++) {
+            double scale = values[p];
+            double[] denseRow = dense[indices[p]];
+            for (int j = 0; j < out.length; j++) {
+                out[j] += scale * denseRow[j];
+            }
+        }
+    }
+
+    /**
+     * Same product with the dense matrix read from its vectors in place: rows of a row-major matrix are added
+     * scaled, columns of a column-major one are dotted with the sparse row.
+     */
+    public void multiplyRow(int row, SharedMatrix dense, double[] out) {
+        requireRowMajor();
+        if (dense.rows() != columns)
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        if (dense.getOrientation() != VectorOrientation.COLUMN_MAJOR) {
+            Arrays.fill(out, 0);
+            for (int p = pointers[row]; p < pointers[row + 1]; p++) {
+                dense.get(indices[p]).addScaledTo(out, values[p], 0, out.length, false);
+            }
+            return;
+        }
+        for (int j = 0; j < out.length; j++) {
+            SharedVector column = dense.get(j);
+            column.readLock();
+            try {
+                VectorStorage storage = column.storage();
+                double sum = 0;
+                for (int p = pointers[row]; p < pointers[row + 1]; p++) {
+                    sum += values[p] * storage.get(indices[p]);
+                }
+                out[j] = sum;
+            } finally {
+                column.readUnlock();
+            }
+        }
+    }
+
+    /**
+     * Writes this × x into y, using absolute values of the entries when absolute is set.
+     */
+    public void multiplyVector(double[] x, double[] y, boolean absolute) {
+        if (x.length != columns || y.length != rows)
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        Arrays.fill(y, 0);
+        int majors = orientation == VectorOrientation.ROW_MAJOR ? rows : columns;
+        for (int k = 0; k < majors; k++) {
+            for (int p = pointers[k]; p < pointers[k + 1]; p++) {
+                double value = absolute ? Math.abs(values[p]) : values[p];
+                if (orientation == VectorOrientation.ROW_MAJOR)
+                    y[k] += value * x[indices[p]];
+                else
+                    y[indices[p]] += value * x[k];
+            }
+        }
+    }
+
+    /**
+     * Dense x sparse: a dense row vector times this matrix, written into {@code out}.
+     * Works on either orientation; only stored entries are visited.
+     */
+    public void multiplyDenseRow(double[] row, double[] out) {
+        if (row.length != rows)
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        if (orientation == VectorOrientation.ROW_MAJOR) {
+            Arrays.fill(out, 0);
+            for (int k = 0; k < rows; k++) {
+                double scale = row[k];
+                if (scale == 0)
+                    continue;
+                for (int p = pointers[k]; p < pointers[k + 1]; p++) {
+                    out[indices[p]] += scale * values[p];
+                }
+            }
+        } else {
+            for (int j = 0; j < columns; j++) {
+                double sum = 0;
+                for (int p = pointers[j]; p < pointers[j + 1]; p++) {
+                    sum += row[indices[p]] * values[p];
+                }
+                out[j] = sum;
+            }
+        }
+    }
+
+    /**
+     * Sparse x sparse: rows [from, to) of this CSR matrix times another CSR matrix (Gustavson's algorithm).
+     * The scratch space is one dense accumulator per call, so callers should hand out row ranges, not single rows.
+     */
+    public void multiplyRows(SparseMatrix right, int from, int to, CompressedVector[] out) {
+        requireRowMajor();
+        right.requireRowMajor();
+        if (columns != right.rows)
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        double[] accumulator = new double[right.columns];
+        int[] marker = new int[right.columns];
+        int[] pattern = new int[right.columns];
+        Arrays.fill(marker, -1);
+        for (int i = from; i < to; i++) {
+            int count = 0;
+            for (int p = pointers[i]; p < pointers[i + 1]; p++) {
+                double scale = values[p];
+                int k = indices[p];
+                for (int q = right.pointers[k]; q < right.pointers[k + 1]; q++) {
+                    int j = right.indices[q];
+                    if (marker[j] != i) {
+                        marker[j] = i;
+                        pattern[count++] = j;
+                        accumulator[j] = scale * right.values[q];
+                    } else {
+                        accumulator[j] += scale * right.values[q];
+                    }
+                }
+            }
+            Arrays.sort(pattern, 0, count);
+            int[] rowIndices = new int[count];
+            double[] rowValues = new double[count];
+            int kept = 0;
+            for (int c = 0; c < count; c++) {
+                if (accumulator[pattern[c]] != 0) {
+                    rowIndices[kept] = pattern[c];
+                    rowValues[kept++] = accumulator[pattern[c]];
+                }
+            }
+            out[i] = new CompressedVector(Arrays.copyOf(rowIndices, kept), Arrays.copyOf(rowValues, kept));
+        }
+    }
+
+    private void requireRowMajor() {
+        if (orientation != VectorOrientation.ROW_MAJOR)
+            throw new IllegalStateException("Row kernels require CSR (ROW_MAJOR) storage");
+    }
+}
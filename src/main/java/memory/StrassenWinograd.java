@@ -0,0 +1,218 @@
+package memory;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * Strassen-Winograd multiplication of dense row-major matrices: seven half-size products and fifteen
+ * additions per level instead of eight products, recursing until a dimension falls below the cutoff and
+ * then switching to a cache-blocked classical kernel. Odd dimensions are padded with zeros on the fly
+ * when the quadrants are extracted, so any rectangular shape is accepted.
+ * The error bound is somewhat weaker than the classical kernel's, which is why the engine leaves it off by default.
+ */
+public final class StrassenWinograd {
+
+    public static final int PRODUCTS = 7;
+    private static final int BLOCK = 64; // k and j tile of the classical kernel
+
+    private StrassenWinograd() {
+    }
+
+    /**
+     * Returns a * b, computed on the calling thread.
+     */
+    public static double[][] multiply(double[][] a, double[][] b, int cutoff) {
+        int m = a.length;
+        int k = m == 0 ? 0 : a[0].length;
+        int n = b.length == 0 ? 0 : b[0].length;
+        if (k != b.length)
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        if (Math.min(m, Math.min(k, n)) <= Math.max(1, cutoff)) {
+            double[][] c = new double[m][n];
+            multiplyClassical(a, b, c);
+            return c;
+        }
+        Split split = split(a, b);
+        for (int p = 0; p < PRODUCTS; p++) {
+            split.computeProduct(p, cutoff);
+        }
+        return split.combine();
+    }
+
+    /**
+     * Adds a * b to c with the classical i-k-j loop, tiled over k and j so the touched rows of b stay in cache.
+     */
+    public static void multiplyClassical(double[][] a, double[][] b, double[][] c) {
+        int m = a.length;
+        int k = b.length;
+        int n = k == 0 ? 0 : b[0].length;
+        for (int kk = 0; kk < k; kk += BLOCK) {
+            int kEnd = Math.min(k, kk + BLOCK);
+            for (int jj = 0; jj < n; jj += BLOCK) {
+                int jEnd = Math.min(n, jj + BLOCK);
+                for (int i = 0; i < m; i++) {
+                    double[] ai = a[i];
+                    double[] ci = c[i];
+                    for (int p = kk; p < kEnd; p++) {
+                        double aip = ai[p];
+                        if (aip == 0)
+                            continue;
+                        double[] bp = b[p];
+                        for (int j = jj; j < jEnd; j++) {
+                            ci[j] += aip * bp[j];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs one level of the recursion: builds the operands of the seven products. The products are
+     * independent, so callers may compute them in parallel before calling {@link Split#combine()}.
+     */
+    public static Split split(double[][] a, double[][] b) {
+        int m = (a.length + 1) / 2;
+        int k = (a[0].length + 1) / 2;
+        int n = (b[0].length + 1) / 2;
+        return new Split(a.length, b[0].length,
+                quadrant(a, 0, 0, m, k), quadrant(a, 0, k, m, k), quadrant(a, m, 0, m, k), quadrant(a, m, k, m, k),
+                quadrant(b, 0, 0, k, n), quadrant(b, 0, n, k, n), quadrant(b, k, 0, k, n), quadrant(b, k, n, k, n));
+    }
+
+    /**
+     * Same as {@link #split(double[][], double[][])}, copying the quadrants straight from the operands' vectors.
+     */
+    public static Split split(SharedMatrix a, SharedMatrix b) {
+        int m = (a.rows() + 1) / 2;
+        int k = (a.columns() + 1) / 2;
+        int n = (b.columns() + 1) / 2;
+        return new Split(a.rows(), b.columns(),
+                quadrant(a, 0, 0, m, k), quadrant(a, 0, k, m, k), quadrant(a, m, 0, m, k), quadrant(a, m, k, m, k),
+                quadrant(b, 0, 0, k, n), quadrant(b, 0, n, k, n), quadrant(b, k, 0, k, n), quadrant(b, k, n, k, n));
+    }
+
+    /**
+     * The seven sub-products of one recursion level and the additions that assemble them into the result.
+     */
+    public static final class Split {
+        private final int rows;
+        private final int columns;
+        private final double[][][] left = new double[PRODUCTS][][];
+        private final double[][][] right = new double[PRODUCTS][][];
+        private final double[][][] products = new double[PRODUCTS][][];
+
+        private Split(int rows, int columns, double[][] a11, double[][] a12, double[][] a21, double[][] a22,
+                      double[][] b11, double[][] b12, double[][] b21, double[][] b22) {
+            this.rows = rows;
+            this.columns = columns;
+
+            double[][] s1 = sum(a21, a22, 1);
+            double[][] s2 = sum(s1, a11, -1);
+            double[][] s3 = sum(a11, a21, -1);
+            double[][] s4 = sum(a12, s2, -1);
+            double[][] t1 = sum(b12, b11, -1);
+            double[][] t2 = sum(b22, t1, -1);
+            double[][] t3 = sum(b22, b12, -1);
+            double[][] t4 = sum(t2, b21, -1);
+
+            set(0, a11, b11);
+            set(1, a12, b21);
+            set(2, s4, b22);
+            set(3, a22, t4);
+            set(4, s1, t1);
+            set(5, s2, t2);
+            set(6, s3, t3);
+        }
+
+        private void set(int index, double[][] a, double[][] b) {
+            left[index] = a;
+            right[index] = b;
+        }
+
+        /**
+         * Computes product index (0 to 6), recursing with the given cutoff. Each product writes only its own slot.
+         */
+        public void computeProduct(int index, int cutoff) {
+            computeProduct(index, (a, b) -> multiply(a, b, cutoff));
+        }
+
+        /**
+         * Computes product index with the given multiplication, e.g. one that splits again in parallel.
+         */
+        public void computeProduct(int index, BinaryOperator<double[][]> multiplication) {
+            products[index] = multiplication.apply(left[index], right[index]);
+            left[index] = null;
+            right[index] = null;
+        }
+
+        /**
+         * Assembles the result from the seven products, dropping the padding.
+         */
+        public double[][] combine() {
+            double[][] m1 = products[0], m2 = products[1], m3 = products[2], m4 = products[3];
+            double[][] m5 = products[4], m6 = products[5], m7 = products[6];
+            double[][] u2 = sum(m1, m6, 1);
+            double[][] u3 = sum(u2, m7, 1);
+            double[][] u4 = sum(u2, m5, 1);
+            double[][] c11 = sum(m1, m2, 1);
+            double[][] c12 = sum(u4, m3, 1);
+            double[][] c21 = sum(u3, m4, -1);
+            double[][] c22 = sum(u3, m5, 1);
+
+            int m = m1.length;
+            int n = m1[0].length;
+            double[][] c = new double[rows][columns];
+            for (int i = 0; i < rows; i++) {
+                double[][] westQuadrant = i < m ? c11 : c21;
+                double[][] eastQuadrant = i < m ? c12 : c22;
+                int row = i < m ? i : i - m;
+                System.arraycopy(westQuadrant[row], 0, c[i], 0, Math.min(n, columns));
+                if (columns > n)
+                    System.arraycopy(eastQuadrant[row], 0, c[i], n, columns - n);
+            }
+            return c;
+        }
+    }
+
+    /**
+     * Copies the height x width block starting at (row, column), zero-filling whatever lies outside the matrix.
+     */
+    private static double[][] quadrant(double[][] matrix, int row, int column, int height, int width) {
+        double[][] block = new double[height][width];
+        int columns = matrix[0].length;
+        for (int i = 0; i < height && row + i < matrix.length; i++) {
+            int count = Math.min(width, columns - column);
+            if (count > 0)
+                System.arraycopy(matrix[row + i], column, block[i], 0, count);
+        }
+        return block;
+    }
+
+    private static double[][] quadrant(SharedMatrix matrix, int row, int column, int height, int width) {
+        double[][] block = new double[height][width];
+        int columns = matrix.columns();
+        for (int i = 0; i < height && row + i < matrix.rows(); i++) {
+            int count = Math.min(width, columns - column);
+            if (count > 0)
+                matrix.readRow(row + i, column, column + count, block[i]);
+        }
+        return block;
+    }
+
+    /**
+     * Returns x + sign * y.
+     */
+    private static double[][] sum(double[][] x, double[][] y, double sign) {
+        double[][] result = new double[x.length][];
+        for (int i = 0; i < x.length; i++) {
+            double[] xi = x[i];
+            double[] yi = y[i];
+            double[] ri = new double[xi.length];
+            for (int j = 0; j < ri.length; j++) {
+                ri[j] = xi[j] + sign * yi[j];
+            }
+            result[i] = ri;
+        }
+        return result;
+    }
+}
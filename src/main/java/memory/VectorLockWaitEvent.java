@@ -0,0 +1,25 @@
+package memory;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A thread blocked on a contended SharedVector lock. Uncontended acquisitions are not timed at all.
+ */
+@Name("lae.VectorLockWait")
+@Label("Vector Lock Wait")
+@Category({ "Linear Algebra Engine", "Memory" })
+@Description("Time spent waiting for a contended SharedVector read or write lock")
+@Threshold("100 us")
+final class VectorLockWaitEvent extends Event {
+
+    @Label("Write")
+    boolean write;
+
+    @Label("Length")
+    int length;
+}
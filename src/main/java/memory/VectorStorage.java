@@ -0,0 +1,59 @@
+package memory;
+
+/**
+ * Backing store of a SharedVector's elements.
+ * Bulk kernels are implemented per storage type so every loop runs over a single primitive array;
+ * operands of another storage type fall back to element access.
+ * Implementations are not thread-safe: the owning SharedVector's lock guards them.
+ */
+interface VectorStorage {
+
+    Precision precision();
+
+    int length();
+
+    double get(int index);
+
+    void set(int index, double value);
+
+    /**
+     * Returns new zeroed storage of the same type.
+     */
+    VectorStorage allocate(int length);
+
+    VectorStorage copy();
+
+    /**
+     * Overwrites this storage with other's elements, converting them to this storage's precision.
+     */
+    void copyFrom(VectorStorage other);
+
+    /**
+     * Sets every element to zero.
+     */
+    void clear();
+
+    void add(VectorStorage other);
+
+    void negate();
+
+    void scale(double factor);
+
+    void scale(double[] factors);
+
+    /**
+     * Sums this[i] * other[i] over i in [from, to).
+     */
+    double dot(VectorStorage other, int from, int to, boolean accumulateInDouble);
+
+    int countNonZeros();
+
+    /**
+     * Returns zeroed storage of the given precision, from the pool if one is given, else on the heap.
+     */
+    static VectorStorage allocate(Precision precision, int length, BufferPool pool) {
+        if (pool != null)
+            return pool.acquire(precision, length);
+        return precision == Precision.FLOAT ? new FloatStorage(new float[length]) : new DoubleStorage(new double[length]);
+    }
+}
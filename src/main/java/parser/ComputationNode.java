@@ -1,12 +1,22 @@
 package parser;
 
+import memory.MatrixStructure;
+import memory.Precision;
+import memory.SharedMatrix;
+import memory.SparseMatrix;
+
+import java.util.ArrayList;
 import java.util.List;
 
 public class ComputationNode {
 
     private ComputationNodeType nodeType;
     private List<ComputationNode> children = null;
-    private double[][] matrix = null; // only used for MATRIX nodes
+    private SharedMatrix matrix = null; // only used for MATRIX nodes
+    private SparseMatrix sparseMatrix = null; // only used for MATRIX nodes kept in compressed form
+    private MatrixStructure structure = null; // known structure of the matrix, null until classified
+    private Precision precision = null; // storage precision requested for this matrix, null to use the job's default
+    private int exponent = 0; // only used for POWER nodes
 
     public ComputationNode(String operatorStr, List<ComputationNode> children) throws IllegalArgumentException {
         this.nodeType = mapOperator(operatorStr);
@@ -23,6 +33,10 @@ public class ComputationNode {
                 return ComputationNodeType.NEGATE;
             case "T":
                 return ComputationNodeType.TRANSPOSE;
+            case "solve":
+                return ComputationNodeType.SOLVE;
+            case "inverse":
+                return ComputationNodeType.INVERSE;
             default:
                 throw new IllegalArgumentException("Unknown operator: " + operatorStr);
         }
@@ -33,9 +47,47 @@ public class ComputationNode {
         this.children = children;
     }
 
+    /**
+     * Creates a POWER node computing base raised to exponent (at least 1).
+     */
+    public ComputationNode(ComputationNode base, int exponent) {
+        if (exponent < 1)
+            throw new IllegalArgumentException("Power exponent must be at least 1");
+        this.nodeType = ComputationNodeType.POWER;
+        this.children = List.of(base);
+        this.exponent = exponent;
+    }
+
     public ComputationNode(double[][] matrix) {
+        this.nodeType = ComputationNodeType.MATRIX;
+        this.matrix = new SharedMatrix(matrix);
+    }
+
+    /**
+     * Creates a leaf that keeps the given storage, including its precision.
+     */
+    public ComputationNode(SharedMatrix matrix) {
         this.nodeType = ComputationNodeType.MATRIX;
         this.matrix = matrix;
+        this.precision = matrix.getPrecision();
+    }
+
+    public ComputationNode(SparseMatrix matrix) {
+        this.nodeType = ComputationNodeType.MATRIX;
+        this.sparseMatrix = matrix;
+    }
+
+    /**
+     * Returns a new leaf over this leaf's storage, precision and structure. Evaluation releases the leaves it
+     * consumes but never writes to their storage, so trees evaluated at the same time may each hold one.
+     */
+    public ComputationNode shareStorage() {
+        if (nodeType != ComputationNodeType.MATRIX)
+            throw new IllegalStateException("Only matrix leaves can share their storage.");
+        ComputationNode leaf = sparseMatrix != null ? new ComputationNode(sparseMatrix) : new ComputationNode(getSharedMatrix());
+        leaf.precision = precision;
+        leaf.structure = structure;
+        return leaf;
     }
 
     public ComputationNodeType getNodeType() {
@@ -46,6 +98,10 @@ public class ComputationNode {
         return children;
     }
 
+    public int getExponent() {
+        return exponent;
+    }
+
     /**
      * Recursively finds the first resolvable node in the tree.
      * A resolvable node is defined as a node that is not of type MATRIX,
@@ -81,21 +137,203 @@ public class ComputationNode {
         }
     }
 
+    /**
+     * Rewrites runs of identical consecutive operands of multiplications into POWER nodes, so
+     * A * B * B * B becomes A * B^3. Must run before associativeNesting, while chains are still flat.
+     * Operands are identical when they are the same node or equal expressions over equal leaves.
+     */
+    public void rewritePowers() {
+        if (children == null)
+            return;
+        if (nodeType == ComputationNodeType.MULTIPLY && children.size() > 1) {
+            List<ComputationNode> rewritten = new ArrayList<>();
+            int start = 0;
+            while (start < children.size()) {
+                int end = start + 1;
+                while (end < children.size() && sameExpression(children.get(start), children.get(end))) {
+                    end++;
+                }
+                ComputationNode base = children.get(start);
+                rewritten.add(end - start > 1 ? new ComputationNode(base, end - start) : base);
+                start = end;
+            }
+            if (rewritten.size() == 1) { // the whole chain is one power
+                ComputationNode power = rewritten.getFirst();
+                nodeType = ComputationNodeType.POWER;
+                exponent = power.exponent;
+                children = power.children;
+            } else {
+                children = rewritten;
+            }
+        }
+        for (ComputationNode child : children) {
+            child.rewritePowers();
+        }
+    }
+
+    private static boolean sameExpression(ComputationNode a, ComputationNode b) {
+        if (a == b)
+            return true;
+        if (a.nodeType != b.nodeType || a.exponent != b.exponent || a.precision != b.precision)
+            return false;
+        if (a.nodeType == ComputationNodeType.MATRIX)
+            return a.getRows() == b.getRows() && a.getColumns() == b.getColumns()
+                    && sameElements(a, b);
+        if (a.children.size() != b.children.size())
+            return false;
+        for (int i = 0; i < a.children.size(); i++) {
+            if (!sameExpression(a.children.get(i), b.children.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Compares leaves in place, never expanding a sparse one: a sparse and a dense leaf are never the same,
+     * which at worst leaves a power unrewritten.
+     */
+    private static boolean sameElements(ComputationNode a, ComputationNode b) {
+        if (a.isSparse() || b.isSparse())
+            return a.isSparse() && b.isSparse() && a.getSparseMatrix().contentEquals(b.getSparseMatrix());
+        return a.getSharedMatrix().contentEquals(b.getSharedMatrix());
+    }
+
+    /**
+     * Turns a POWER node with exponent k >= 2 into the multiplications of exponentiation by squaring:
+     * O(log k) MULTIPLY nodes, where every square is a single node shared by the products that use it.
+     * The node itself becomes the last multiplication, so parents keep referring to it.
+     */
+    public void expandPower() {
+        if (nodeType != ComputationNodeType.POWER || exponent < 2)
+            return;
+        ComputationNode square = children.getFirst();
+        ComputationNode result = null;
+        int k = exponent;
+        while (true) {
+            if ((k & 1) != 0)
+                result = result == null ? square : new ComputationNode(ComputationNodeType.MULTIPLY, List.of(result, square));
+            k >>= 1;
+            if (k == 0)
+                break;
+            square = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(square, square));
+        }
+        nodeType = ComputationNodeType.MULTIPLY; // result is a multiplication created above, referenced nowhere else
+        children = result.children;
+        exponent = 0;
+    }
+
     /**
      * Resolves this node by setting its type to MATRIX and storing the computed matrix.
      */
     public void resolve(double[][] matrix) {
+        resolve(SharedMatrix.wrapRowMajor(matrix));
+        this.precision = null;
+    }
+
+    /**
+     * Resolves this node to the given storage, keeping its precision.
+     */
+    public void resolve(SharedMatrix matrix) {
         this.nodeType = ComputationNodeType.MATRIX;
         this.children = null;
         this.matrix = matrix;
+        this.sparseMatrix = null;
+        this.structure = null;
+        this.precision = matrix.getPrecision();
+    }
+
+    /**
+     * Resolves this node to a matrix kept in compressed (sparse) form.
+     */
+    public void resolve(SparseMatrix matrix) {
+        this.nodeType = ComputationNodeType.MATRIX;
+        this.children = null;
+        this.matrix = null;
+        this.sparseMatrix = matrix;
+        this.structure = null;
+        this.precision = null;
+    }
+
+    /**
+     * Drops this node's matrix once all of its consumers have read it, so a reference to the node
+     * (from the parsed tree or the caller) no longer keeps the storage alive.
+     */
+    public void release() {
+        this.children = null;
+        this.matrix = null;
+        this.sparseMatrix = null;
     }
 
+    /**
+     * Returns the matrix as a dense 2D array, expanding it if it is stored sparsely.
+     */
     public double[][] getMatrix() {
+        if (sparseMatrix != null) {
+            return sparseMatrix.toDense();
+        }
+        return getSharedMatrix().readRowMajor();
+    }
+
+    /**
+     * Returns the dense row-major storage of this node.
+     */
+    public SharedMatrix getSharedMatrix() {
         if (matrix == null) {
             throw new IllegalStateException("This node does not contain a matrix.");
         }
         return matrix;
     }
 
+    public int getRows() {
+        if (sparseMatrix != null) {
+            return sparseMatrix.rows();
+        }
+        return getSharedMatrix().rows();
+    }
+
+    public int getColumns() {
+        if (sparseMatrix != null) {
+            return sparseMatrix.columns();
+        }
+        return getSharedMatrix().columns();
+    }
+
+    /**
+     * Returns the precision requested for this matrix, or null if it follows the job's default.
+     */
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    public void setPrecision(Precision precision) {
+        this.precision = precision;
+    }
+
+    /**
+     * Returns the structure of this node's matrix, classifying it on first use (leaves are classified at load time,
+     * computed nodes are tagged by the engine from their operands' structures).
+     */
+    public MatrixStructure getStructure() {
+        if (structure == null) {
+            structure = sparseMatrix != null ? sparseMatrix.classify() : getSharedMatrix().classify();
+        }
+        return structure;
+    }
+
+    public void setStructure(MatrixStructure structure) {
+        this.structure = structure;
+    }
+
+    public boolean isSparse() {
+        return sparseMatrix != null;
+    }
+
+    public SparseMatrix getSparseMatrix() {
+        if (sparseMatrix == null) {
+            throw new IllegalStateException("This node does not contain a sparse matrix.");
+        }
+        return sparseMatrix;
+    }
+
 
 }
\ No newline at end of file
@@ -9,5 +9,8 @@ public enum ComputationNodeType {
     MULTIPLY,
     NEGATE,
     TRANSPOSE,
+    POWER, // a single operand raised to a positive integer exponent
+    SOLVE, // A^-1 B for operands A (square) and B
+    INVERSE,
     MATRIX,
 }
\ No newline at end of file
@@ -3,37 +3,174 @@ package parser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import memory.Precision;
+import memory.SharedMatrix;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.*;
 
 public class InputParser {
 
     private final ObjectMapper mapper = new ObjectMapper();
+    private final MatrixMarketReader matrixMarketReader = new MatrixMarketReader();
+    private Path baseDirectory = Path.of("."); // referenced .mtx files are resolved against the input file's directory
+    private boolean confined = false; // stream input may only reference .mtx files inside baseDirectory
+    private Map<String, ComputationNode> leaves = Map.of(); // named leaves of the parseJob file being read
+
+    /**
+     * Name under which {@link #parseJob} returns the root of a single-expression file.
+     */
+    public static final String UNNAMED = "";
 
     public ComputationNode parse(String inputPath) throws ParseException {
+        JsonNode rootJsonNode = readFile(inputPath);
+        if (rootJsonNode.has("expressions"))
+            throw new ParseException("The input holds named expressions, which parseJob reads.", 0);
+        return parseJsonNode(rootJsonNode, null);
+    }
+
+    /**
+     * Parses a file holding either one expression, returned under {@link #UNNAMED}, or several named ones that
+     * may reference shared named leaves, e.g.
+     * {"leaves": {"A": [[1, 2], [3, 4]]}, "expressions": {"square": {"operator": "*", "operands": ["A", "A"]}}}.
+     * Each leaf is read once; every reference to it is a node of its own over the same storage, so the
+     * expressions can be evaluated concurrently. A "precision" key on the top-level object applies to all of them.
+     */
+    public Map<String, ComputationNode> parseJob(String inputPath) throws ParseException {
+        return parseJob(readFile(inputPath));
+    }
+
+    /**
+     * Parses a job read from a stream, e.g. an HTTP request body, like {@link #parseJob(String)}.
+     * Referenced .mtx files are resolved against baseDirectory and must lie inside it.
+     */
+    public Map<String, ComputationNode> parseJob(InputStream input, Path baseDirectory) throws ParseException {
+        return parseJob(readStream(input, baseDirectory));
+    }
+
+    private Map<String, ComputationNode> parseJob(JsonNode rootJsonNode) throws ParseException {
+        if (!rootJsonNode.has("expressions"))
+            return Map.of(UNNAMED, parseJsonNode(rootJsonNode, null));
+        Precision precision = parsePrecision(rootJsonNode, null);
+        Map<String, ComputationNode> leaves = new HashMap<>();
+        JsonNode leafJsonNodes = rootJsonNode.path("leaves");
+        if (!leafJsonNodes.isMissingNode() && !leafJsonNodes.isObject())
+            throw new ParseException("\"leaves\" must map names to matrices: " + leafJsonNodes, 0);
+        for (Map.Entry<String, JsonNode> leaf : leafJsonNodes.properties()) {
+            ComputationNode node = parseJsonNode(leaf.getValue(), precision);
+            if (node.getNodeType() != ComputationNodeType.MATRIX)
+                throw new ParseException("Leaf " + leaf.getKey() + " is not a matrix.", 0);
+            leaves.put(leaf.getKey(), node);
+        }
+        this.leaves = leaves;
+        try {
+            JsonNode expressionJsonNodes = rootJsonNode.get("expressions");
+            if (!expressionJsonNodes.isObject() || expressionJsonNodes.isEmpty())
+                throw new ParseException("\"expressions\" must map names to at least one expression: " + expressionJsonNodes, 0);
+            Map<String, ComputationNode> expressions = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonNode> expression : expressionJsonNodes.properties()) {
+                if (expression.getKey().isEmpty())
+                    throw new ParseException("Expression names must not be empty.", 0);
+                expressions.put(expression.getKey(), parseJsonNode(expression.getValue(), precision));
+            }
+            return expressions;
+        } finally {
+            this.leaves = Map.of();
+        }
+    }
+
+    /**
+     * Parses a job read from a stream, e.g. an HTTP request body. Referenced .mtx files are resolved against
+     * baseDirectory and must lie inside it.
+     */
+    public ComputationNode parse(InputStream input, Path baseDirectory) throws ParseException {
+        JsonNode rootJsonNode = readStream(input, baseDirectory);
+        if (rootJsonNode.has("expressions"))
+            throw new ParseException("The input holds named expressions, which parseJob reads.", 0);
+        return parseJsonNode(rootJsonNode, null);
+    }
+
+    private JsonNode readStream(InputStream input, Path baseDirectory) throws ParseException {
+        this.baseDirectory = baseDirectory;
+        this.confined = true;
+        try {
+            JsonNode rootJsonNode = mapper.readTree(input);
+            if (rootJsonNode == null || rootJsonNode.isMissingNode())
+                throw new ParseException("The input JSON is empty.", 0);
+            return rootJsonNode;
+        } catch (IOException e) {
+            throw new ParseException("Failed to read the input JSON: " + e.getMessage(), 0);
+        }
+    }
+
+    private JsonNode readFile(String inputPath) throws ParseException {
         try {
             File inputFile = new File(inputPath);
-            JsonNode rootJsonNode = mapper.readTree(inputFile);
-            ComputationNode root = parseJsonNode(rootJsonNode);
-            return root;
+            File parent = inputFile.getAbsoluteFile().getParentFile();
+            baseDirectory = parent != null ? parent.toPath() : Path.of(".");
+            confined = false;
+            return mapper.readTree(inputFile);
         } catch (IOException e) {
             throw new ParseException("Failed to read the input JSON file: " + e.getMessage(), 0);
         }
     }
 
-    private ComputationNode parseJsonNode(JsonNode jsonNode) throws ParseException {
+    /**
+     * Resolves a referenced .mtx file against baseDirectory. For stream input, absolute paths and paths leaving
+     * baseDirectory are rejected, since a job server request must not read arbitrary files; input files are
+     * trusted like the command line that names them.
+     */
+    private Path resolveMtx(String mtxPath) throws ParseException {
+        Path base = baseDirectory.toAbsolutePath().normalize();
+        Path resolved = base.resolve(mtxPath).normalize();
+        if (confined && !resolved.startsWith(base))
+            throw new ParseException("Matrix file outside the input directory: " + mtxPath, 0);
+        return resolved;
+    }
+
+    /**
+     * Parses a node; {@code precision} is the precision inherited from the closest enclosing "precision" key,
+     * or null if none was given. Any object node may set it, e.g. on the root for the whole job.
+     */
+    private ComputationNode parseJsonNode(JsonNode jsonNode, Precision precision) throws ParseException {
+        precision = parsePrecision(jsonNode, precision);
+        if (jsonNode.isTextual()) {
+            // Reference to a named leaf of a parseJob file, e.g. "A"
+            ComputationNode leaf = leaves.get(jsonNode.asText());
+            if (leaf == null)
+                throw new ParseException("Unknown leaf: " + jsonNode.asText(), 0);
+            return leaf.shareStorage();
+        }
         if (jsonNode.has("operator") && jsonNode.has("operands")) {
             String operatorStr = jsonNode.get("operator").asText();
             ArrayNode operandJsonNodes = (ArrayNode) jsonNode.get("operands");
             List<ComputationNode> operands = new ArrayList<>();
             for (int i = 0; i < operandJsonNodes.size(); i++) {
-                operands.add(parseJsonNode(operandJsonNodes.get(i)));
+                operands.add(parseJsonNode(operandJsonNodes.get(i), precision));
+            }
+            if (operatorStr.equals("^")) {
+                // Matrix power, e.g. {"operator": "^", "exponent": 8, "operands": [[[1, 1], [1, 0]]]}
+                JsonNode exponent = jsonNode.get("exponent");
+                if (exponent == null || !exponent.canConvertToInt() || !exponent.isIntegralNumber() || exponent.asInt() < 1)
+                    throw new ParseException("Power needs a positive integer \"exponent\": " + jsonNode, 0);
+                if (operands.size() != 1)
+                    throw new ParseException("Power takes exactly one operand: " + jsonNode, 0);
+                return new ComputationNode(operands.getFirst(), exponent.asInt());
             }
             return new ComputationNode(operatorStr, operands);
         }
+        else if (jsonNode.isObject() && jsonNode.has("mtx")) {
+            // Matrix leaf stored in a Matrix Market file, e.g. {"mtx": "operands/a.mtx"}
+            return withPrecision(matrixMarketReader.read(resolveMtx(jsonNode.get("mtx").asText())), precision);
+        }
+        else if (jsonNode.isObject() && jsonNode.has("matrix")) {
+            // Matrix leaf with options, e.g. {"matrix": [[1, 2], [3, 4]], "precision": "float32"}
+            return parseJsonNode(jsonNode.get("matrix"), precision);
+        }
         else if (jsonNode.isArray()) {
             if (jsonNode.size() == 0) {
                 throw new ParseException("Empty array cannot be parsed as DataNode.", 0);
@@ -59,10 +196,35 @@ public class InputParser {
                         matrix[i][j] = rowJsonNode.get(j).asDouble();
                     }
                 }
-                return new ComputationNode(matrix);
+                return withPrecision(new ComputationNode(matrix), precision);
             }
         }
         else { throw new ParseException("Invalid node structure: " + jsonNode.toString(), 0); }
     }
 
+    private static Precision parsePrecision(JsonNode jsonNode, Precision inherited) throws ParseException {
+        if (!jsonNode.isObject() || !jsonNode.has("precision"))
+            return inherited;
+        try {
+            return Precision.fromName(jsonNode.get("precision").asText());
+        } catch (IllegalArgumentException e) {
+            throw new ParseException(e.getMessage(), 0);
+        }
+    }
+
+    /**
+     * Applies a requested precision to a leaf. Dense FLOAT leaves are converted right away so they take half the memory
+     * from the start; sparse leaves only record it for when they are densified.
+     */
+    private static ComputationNode withPrecision(ComputationNode leaf, Precision precision) {
+        if (precision == null)
+            return leaf;
+        if (precision == Precision.FLOAT && !leaf.isSparse()) {
+            SharedMatrix converted = leaf.getSharedMatrix().toPrecision(Precision.FLOAT);
+            return new ComputationNode(converted);
+        }
+        leaf.setPrecision(precision);
+        return leaf;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,187 @@
+package parser;
+
+import memory.SparseMatrix;
+import memory.VectorOrientation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Arrays;
+
+/**
+ * Streaming reader for Matrix Market (.mtx) files.
+ * Supports the coordinate and array formats with real, integer or pattern fields and
+ * general, symmetric or skew-symmetric layout. Coordinate files are read line by line into
+ * flat entry arrays and never expanded to a dense 2D array unless the matrix turns out to be dense.
+ */
+public class MatrixMarketReader {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final double sparseThreshold; // matrices with a lower density are returned in CSR form
+
+    public MatrixMarketReader() {
+        this(SparseMatrix.DEFAULT_DENSITY_THRESHOLD);
+    }
+
+    public MatrixMarketReader(double sparseThreshold) {
+        this.sparseThreshold = sparseThreshold;
+    }
+
+    /**
+     * Reads the file into a MATRIX leaf, stored sparsely or densely depending on its density.
+     */
+    public ComputationNode read(Path path) throws ParseException {
+        try (BufferedReader reader = new BufferedReader(
+                Files.newBufferedReader(path, StandardCharsets.US_ASCII), BUFFER_SIZE)) {
+            String[] header = tokens(reader.readLine(), path);
+            if (header.length < 5 || !header[0].equalsIgnoreCase("%%MatrixMarket") || !header[1].equalsIgnoreCase("matrix"))
+                throw new ParseException("Not a Matrix Market matrix file: " + path, 0);
+            String format = header[2].toLowerCase();
+            String field = header[3].toLowerCase();
+            String symmetry = header[4].toLowerCase();
+            if (!field.equals("real") && !field.equals("integer") && !field.equals("pattern"))
+                throw new ParseException("Unsupported Matrix Market field: " + field, 0);
+            if (!symmetry.equals("general") && !symmetry.equals("symmetric") && !symmetry.equals("skew-symmetric"))
+                throw new ParseException("Unsupported Matrix Market symmetry: " + symmetry, 0);
+
+            String line = reader.readLine();
+            while (line != null && (line.isBlank() || line.startsWith("%"))) { // skip comments before the size line
+                line = reader.readLine();
+            }
+            String[] size = tokens(line, path);
+            switch (format) {
+                case "coordinate":
+                    if (size.length != 3)
+                        throw new ParseException("Invalid coordinate size line in " + path, 0);
+                    return readCoordinate(reader, path, Integer.parseInt(size[0]), Integer.parseInt(size[1]), Integer.parseInt(size[2]),
+                            field.equals("pattern"), symmetry);
+                case "array":
+                    if (size.length != 2 || field.equals("pattern"))
+                        throw new ParseException("Invalid array size line in " + path, 0);
+                    return new ComputationNode(readArray(reader, path, Integer.parseInt(size[0]), Integer.parseInt(size[1]), symmetry));
+                default:
+                    throw new ParseException("Unsupported Matrix Market format: " + format, 0);
+            }
+        } catch (IOException e) {
+            throw new ParseException("Failed to read Matrix Market file: " + e.getMessage(), 0);
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid number in Matrix Market file " + path + ": " + e.getMessage(), 0);
+        }
+    }
+
+    private ComputationNode readCoordinate(BufferedReader reader, Path path, int rows, int columns, int entries,
+                                           boolean pattern, String symmetry) throws IOException, ParseException {
+        boolean mirrored = !symmetry.equals("general");
+        double mirrorSign = symmetry.equals("skew-symmetric") ? -1 : 1;
+        int capacity = mirrored ? 2 * entries : entries;
+        int[] rowIndices = new int[capacity];
+        int[] columnIndices = new int[capacity];
+        double[] values = new double[capacity];
+        int count = 0;
+        for (int e = 0; e < entries; e++) {
+            String[] entry = tokens(nextDataLine(reader, path), path);
+            if (entry.length < (pattern ? 2 : 3))
+                throw new ParseException("Invalid coordinate entry in " + path, e);
+            int row = Integer.parseInt(entry[0]) - 1; // Matrix Market indices are 1-based
+            int column = Integer.parseInt(entry[1]) - 1;
+            if (row < 0 || row >= rows || column < 0 || column >= columns)
+                throw new ParseException("Coordinate entry out of bounds in " + path, e);
+            double value = pattern ? 1 : Double.parseDouble(entry[2]);
+            if (value == 0)
+                continue;
+            rowIndices[count] = row;
+            columnIndices[count] = column;
+            values[count++] = value;
+            if (mirrored && row != column) { // only one triangle is stored for symmetric layouts
+                rowIndices[count] = column;
+                columnIndices[count] = row;
+                values[count++] = mirrorSign * value;
+            }
+        }
+
+        if ((double) count / ((long) rows * columns) >= sparseThreshold) {
+            double[][] dense = new double[rows][columns];
+            for (int k = 0; k < count; k++) {
+                dense[rowIndices[k]][columnIndices[k]] += values[k];
+            }
+            return new ComputationNode(dense);
+        }
+
+        // bucket the entries by column, then let the CSC -> CSR conversion sort every row by column
+        int[] pointers = new int[columns + 1];
+        for (int k = 0; k < count; k++) {
+            pointers[columnIndices[k] + 1]++;
+        }
+        for (int j = 0; j < columns; j++) {
+            pointers[j + 1] += pointers[j];
+        }
+        int[] next = pointers.clone();
+        int[] bucketRows = new int[count];
+        double[] bucketValues = new double[count];
+        for (int k = 0; k < count; k++) {
+            int destination = next[columnIndices[k]]++;
+            bucketRows[destination] = rowIndices[k];
+            bucketValues[destination] = values[k];
+        }
+        SparseMatrix csr = new SparseMatrix(rows, columns, VectorOrientation.COLUMN_MAJOR, pointers, bucketRows, bucketValues)
+                .toOrientation(VectorOrientation.ROW_MAJOR);
+        return new ComputationNode(csr.sumDuplicates());
+    }
+
+    private static double[][] readArray(BufferedReader reader, Path path, int rows, int columns, String symmetry)
+            throws IOException, ParseException {
+        boolean mirrored = !symmetry.equals("general");
+        double[][] matrix = new double[rows][columns];
+        for (int j = 0; j < columns; j++) { // array format lists values column by column
+            for (int i = mirrored ? j : 0; i < rows; i++) {
+                if (symmetry.equals("skew-symmetric") && i == j)
+                    continue; // the diagonal of a skew-symmetric matrix is zero and not stored
+                double value = Double.parseDouble(nextDataLine(reader, path).trim());
+                matrix[i][j] = value;
+                if (mirrored && i != j)
+                    matrix[j][i] = symmetry.equals("skew-symmetric") ? -value : value;
+            }
+        }
+        return matrix;
+    }
+
+    private static String nextDataLine(BufferedReader reader, Path path) throws IOException, ParseException {
+        String line = reader.readLine();
+        while (line != null && (line.isBlank() || line.startsWith("%"))) {
+            line = reader.readLine();
+        }
+        if (line == null)
+            throw new ParseException("Unexpected end of Matrix Market file " + path, 0);
+        return line;
+    }
+
+    /**
+     * Splits a line on whitespace without going through the regex engine.
+     */
+    private static String[] tokens(String line, Path path) throws ParseException {
+        if (line == null)
+            throw new ParseException("Unexpected end of Matrix Market file " + path, 0);
+        String[] result = new String[5];
+        int count = 0;
+        int i = 0;
+        while (i < line.length()) {
+            while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < line.length() && !Character.isWhitespace(line.charAt(i))) {
+                i++;
+            }
+            if (start < i) {
+                if (count == result.length)
+                    result = Arrays.copyOf(result, count * 2);
+                result[count++] = line.substring(start, i);
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
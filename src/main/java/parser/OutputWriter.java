@@ -2,6 +2,9 @@ package parser;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
@@ -14,6 +17,11 @@ public class OutputWriter {
         public ResultMatrix(double[][] result) { this.result = result; }
     }
 
+    public static class NamedResults {
+        public Map<String, double[][]> results;
+        public NamedResults(Map<String, double[][]> results) { this.results = results; }
+    }
+
     public static class ErrorMessage {
         public String error;
         public ErrorMessage(String error) { this.error = error; }
@@ -31,4 +39,37 @@ public class OutputWriter {
         mapper.writerWithDefaultPrettyPrinter().writeValue(file, new ErrorMessage(error));
     }
 
+    /**
+     * Writes the results of {@link InputParser#parseJob}'s expressions: a single unnamed result in the usual
+     * {"result": ...} format, named ones as {"results": {name: matrix, ...}} in their order.
+     */
+    public static void write(Map<String, ComputationNode> results, String filePath) throws IOException {
+        mapper.writerWithDefaultPrettyPrinter().writeValue(new File(filePath), toOutput(results));
+    }
+
+    private static Object toOutput(Map<String, ComputationNode> results) {
+        if (results.size() == 1 && results.containsKey(InputParser.UNNAMED))
+            return new ResultMatrix(results.get(InputParser.UNNAMED).getMatrix());
+        Map<String, double[][]> matrices = new LinkedHashMap<>();
+        for (Map.Entry<String, ComputationNode> result : results.entrySet()) {
+            matrices.put(result.getKey(), result.getValue().getMatrix());
+        }
+        return new NamedResults(matrices);
+    }
+
+    /**
+     * Writes the result in the same format as the file version, e.g. to an HTTP response body. Closes the stream.
+     */
+    public static void write(double[][] matrix, OutputStream output) throws IOException {
+        mapper.writerWithDefaultPrettyPrinter().writeValue(output, new ResultMatrix(matrix));
+    }
+
+    public static void write(Map<String, ComputationNode> results, OutputStream output) throws IOException {
+        mapper.writerWithDefaultPrettyPrinter().writeValue(output, toOutput(results));
+    }
+
+    public static void write(String error, OutputStream output) throws IOException {
+        mapper.writerWithDefaultPrettyPrinter().writeValue(output, new ErrorMessage(error));
+    }
+
 }
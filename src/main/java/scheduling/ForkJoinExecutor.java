@@ -0,0 +1,127 @@
+package scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Work-stealing backend on a {@link ForkJoinPool}. Loops are split in halves recursively ({@link RecursiveAction})
+ * down to a few ranges per worker, and idle workers steal the larger halves. A task may submit nested work
+ * and wait for it: the waiting worker keeps executing queued tasks instead of blocking.
+ */
+public class ForkJoinExecutor implements ParallelExecutor {
+
+    private static final int RANGES_PER_WORKER = 8; // leaf ranges per worker, enough for stealing to balance the load
+
+    private final ForkJoinPool pool;
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextWorkerId = new AtomicInteger(0);
+
+    public ForkJoinExecutor(int numThreads) {
+        pool = new ForkJoinPool(numThreads, p -> {
+            Worker worker = new Worker(p, nextWorkerId.getAndIncrement());
+            workers.add(worker);
+            return worker;
+        }, null, false);
+    }
+
+    /**
+     * Pool thread that keeps the same statistics as a {@link TiredThread}. Only the thread itself writes them.
+     */
+    private static final class Worker extends ForkJoinWorkerThread {
+        private final int id;
+        private final long startTime = System.nanoTime();
+        private volatile long timeUsed = 0;
+        private volatile long tasksRun = 0;
+
+        private Worker(ForkJoinPool pool, int id) {
+            super(pool);
+            this.id = id;
+        }
+    }
+
+    @SuppressWarnings("serial") // ForkJoinTask is Serializable, but these tasks are never serialized
+    private static final class RangeAction extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final RangeTask body;
+
+        private RangeAction(int from, int to, int leafSize, RangeTask body) {
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                long start = System.nanoTime();
+                body.run(from, to);
+                if (Thread.currentThread() instanceof Worker worker) {
+                    worker.timeUsed += System.nanoTime() - start;
+                    worker.tasksRun++;
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, middle, leafSize, body), new RangeAction(middle, to, leafSize, body));
+        }
+    }
+
+    @Override
+    public void submitAll(Iterable<Runnable> tasks) {
+        List<Runnable> list = new ArrayList<>();
+        tasks.forEach(list::add);
+        forRange(list.size(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                list.get(i).run();
+            }
+        });
+    }
+
+    @Override
+    public void forRange(int length, RangeTask body) {
+        if (length <= 0)
+            return;
+        int leafSize = Math.max(1, length / (pool.getParallelism() * RANGES_PER_WORKER));
+        RangeAction root = new RangeAction(0, length, leafSize, body);
+        if (ForkJoinTask.inForkJoinPool() && ((ForkJoinWorkerThread) Thread.currentThread()).getPool() == pool)
+            root.invoke(); // nested call from one of our tasks: fork into this pool and help while waiting
+        else
+            pool.invoke(root);
+    }
+
+    @Override
+    public boolean supportsNestedTasks() {
+        return true;
+    }
+
+    @Override
+    public void shutdown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public synchronized String getWorkerReport() {
+        StringBuilder report = new StringBuilder();
+        long now = System.nanoTime();
+        for (Worker worker : workers) {
+            long used = worker.timeUsed;
+            report.append("id: ").append(worker.id)
+            .append(" Tasks: ").append(worker.tasksRun)
+            .append(" Time Used: ").append(used)
+            .append(" Time Idle: ").append(Math.max(0, now - worker.startTime - used)).append("\n");
+        }
+        report.append("Steals: ").append(pool.getStealCount()).append("\n");
+        return report.toString();
+    }
+}
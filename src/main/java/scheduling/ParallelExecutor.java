@@ -0,0 +1,31 @@
+package scheduling;
+
+/**
+ * The parallel backend the engine runs its kernels on. Both calls block until every task has finished.
+ */
+public interface ParallelExecutor {
+
+    /**
+     * The body of a parallel loop over the index range [from, to).
+     */
+    @FunctionalInterface
+    interface RangeTask {
+        void run(int from, int to);
+    }
+
+    void submitAll(Iterable<Runnable> tasks);
+
+    /**
+     * Runs body over [0, length), split into ranges however suits the backend.
+     */
+    void forRange(int length, RangeTask body);
+
+    /**
+     * Whether a running task may itself call submitAll or forRange and wait, as divide-and-conquer kernels do.
+     */
+    boolean supportsNestedTasks();
+
+    void shutdown() throws InterruptedException;
+
+    String getWorkerReport();
+}
@@ -0,0 +1,30 @@
+package scheduling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A caller of TiredExecutor waiting for an idle worker because every worker was busy.
+ */
+@Name("lae.ExecutorQueueWait")
+@Label("Executor Queue Wait")
+@Category({ "Linear Algebra Engine", "Scheduler" })
+@Description("Time a task or range waited for an idle TiredExecutor worker")
+@Threshold("100 us")
+final class QueueWaitEvent extends Event {
+
+    @Label("Workers")
+    int workers;
+
+    @Label("Active Ranges")
+    @Description("forRange calls in progress when the wait ended, from any thread")
+    int activeRanges;
+
+    @Label("Range")
+    @Description("Whether the waiting call was a forRange, rather than a submitted task")
+    boolean range;
+}
@@ -0,0 +1,35 @@
+package scheduling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * A task (or a worker's share of a forRange call) run by a TiredThread, with the worker's fatigue after it.
+ */
+@Name("lae.TaskExecution")
+@Label("Task Execution")
+@Category({ "Linear Algebra Engine", "Scheduler" })
+@Description("A task run by a TiredExecutor worker")
+@Threshold("1 ms")
+final class TaskExecutionEvent extends Event {
+
+    @Label("Worker Id")
+    int workerId;
+
+    @Label("Fatigue Factor")
+    double fatigueFactor;
+
+    @Label("Fatigue")
+    @Description("Fatigue factor times the worker's total busy nanoseconds, after this task")
+    double fatigue;
+
+    @Label("Idle Before")
+    @Description("How long the worker waited for this task")
+    @Timespan(Timespan.NANOSECONDS)
+    long idleBefore;
+}
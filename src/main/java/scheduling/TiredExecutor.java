@@ -1,58 +1,318 @@
 package scheduling;
 
+import jdk.jfr.FlightRecorder;
+
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
-public class TiredExecutor {
+public class TiredExecutor implements ParallelExecutor {
 
     private final TiredThread[] workers;
-    private final PriorityBlockingQueue<TiredThread> idleMinHeap = new PriorityBlockingQueue<>();
+    private final IdleWorker[] idleEntries; // one reusable heap entry per worker
+    private final PriorityBlockingQueue<IdleWorker> idleMinHeap = new PriorityBlockingQueue<>();
     private final AtomicInteger inFlight = new AtomicInteger(0);
+    private final AtomicInteger activeRanges = new AtomicInteger(0); // forRange calls in progress, from any thread
+    private final ArrayDeque<RangeBatch> freeBatches = new ArrayDeque<>(); // recycled forRange descriptors, guarded by itself
 
     public TiredExecutor(int numThreads) {
         // TODO
         workers = new TiredThread[numThreads];
+        idleEntries = new IdleWorker[numThreads];
         for (int i = 0; i < numThreads; i++) {
             double randomFatigue = 0.5 + Math.random();
-            workers[i] = new TiredThread(i, randomFatigue);
+            workers[i] = new TiredThread(i, randomFatigue, this::returnToIdle);
+            idleEntries[i] = new IdleWorker(workers[i]);
             workers[i].start();
-            idleMinHeap.add(workers[i]);
+            returnToIdle(workers[i]);
         }
     }
 
+    /**
+     * Hands the task to the least fatigued idle worker, waiting for one if all are busy.
+     *
+     * @throws CancellationException if the caller is interrupted while waiting; the task was not run, and the
+     *                               caller's interrupt flag is set
+     */
     public void submit(Runnable task) {
         // TODO
         inFlight.incrementAndGet();
-        TiredThread worker;
-        try {
-            worker = idleMinHeap.take();  // take the most fresh thread
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return;
+        IdleWorker idle = idleMinHeap.poll();  // take the most fresh thread
+        if (idle == null) {
+            QueueWaitEvent wait = beginWait();
+            try {
+                idle = idleMinHeap.take();
+            } catch (InterruptedException e) {
+                inFlight.decrementAndGet();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for an idle worker");
+            }
+            commitWait(wait, false);
         }
+        TiredThread worker = idle.worker;
         Runnable wrappedTask = () -> {  // wrapper for task
             try {
                 task.run();
             } finally {
-                idleMinHeap.add(worker);
-                inFlight.decrementAndGet();
+                inFlight.decrementAndGet(); // the worker returns to the heap through returnToIdle
             }
         };
         worker.newTask(wrappedTask); // send the wrapped task to worker
 
     }
 
+    /**
+     * Called on the worker once its last task's time is accounted, so the fatigue it is queued with is current.
+     */
+    private void returnToIdle(TiredThread worker) {
+        IdleWorker entry = idleEntries[worker.getWorkerId()];
+        entry.fatigue = worker.getFatigue(); // the entry is not in the heap while its worker is busy
+        idleMinHeap.add(entry);
+    }
+
+    /**
+     * An idle worker with the fatigue it had when it became idle. The key never changes while the entry is
+     * in the heap: a worker's fatigue only grows while it runs a task, and then it is not in the heap.
+     * Ties go to the lower worker id.
+     */
+    private static final class IdleWorker implements Comparable<IdleWorker> {
+        private final TiredThread worker;
+        private double fatigue;
+
+        private IdleWorker(TiredThread worker) {
+            this.worker = worker;
+        }
+
+        @Override
+        public int compareTo(IdleWorker other) {
+            int byFatigue = Double.compare(fatigue, other.fatigue);
+            return byFatigue != 0 ? byFatigue : Integer.compare(worker.getWorkerId(), other.worker.getWorkerId());
+        }
+    }
+
+    /**
+     * Submits the tasks and waits for this batch only, so callers on several threads (e.g. one virtual thread
+     * per job) share the workers without waiting for each other's tasks. A virtual caller parks until its last
+     * task finishes instead of spinning on its carrier. If the caller is interrupted while waiting for a worker,
+     * the tasks not yet submitted are dropped, the submitted ones are waited for, and a CancellationException is thrown.
+     */
     public void submitAll(Iterable<Runnable> tasks) {
         // TODO: submit tasks one by one and wait until all finish
+        Thread caller = Thread.currentThread();
+        AtomicInteger pending = new AtomicInteger(1); // the caller holds one count until everything is submitted
+        AtomicReference<Throwable> failure = new AtomicReference<>(); // the first task that threw
+        CancellationException cancelled = null;
         for (Runnable task : tasks) { // submit all tasks for the threads
-            this.submit(task);
+            pending.incrementAndGet();
+            try {
+                this.submit(() -> {
+                    try {
+                        task.run();
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        if (pending.decrementAndGet() == 0)
+                            LockSupport.unpark(caller);
+                    }
+                });
+            } catch (CancellationException e) {
+                pending.decrementAndGet(); // never submitted
+                cancelled = e;
+                break;
+            }
+        }
+        pending.decrementAndGet();
+        while (pending.get() > 0) { // wait until all finish, so no task outlives the call
+            if (caller.isVirtual() && !caller.isInterrupted()) // park returns at once while interrupted
+                LockSupport.park(this);
+            else
+                Thread.yield();
+        }
+        if (cancelled != null)
+            throw cancelled;
+        rethrow(failure.get());
+
+    }
+
+    /**
+     * Rethrows a task's failure on the calling thread, so a kernel that throws fails its caller instead of
+     * returning as if every task had run.
+     */
+    private static void rethrow(Throwable failure) {
+        if (failure == null)
+            return;
+        if (failure instanceof RuntimeException runtimeException)
+            throw runtimeException;
+        if (failure instanceof Error error)
+            throw error;
+        throw new IllegalStateException(failure);
+    }
+
+    /**
+     * Splits [0, length) into a few chunks per worker, so per-task scratch space is amortized over many indices.
+     * Nothing is allocated per call: the chunks are described by a recycled RangeBatch that is handed to each
+     * idle worker, and every worker keeps claiming the next unclaimed chunk until none are left, so a slow worker
+     * simply takes fewer chunks. Reuse the same body across calls (e.g. a field) to keep the caller's side free too.
+     * When several threads call forRange at once (one per job), each hands its batch to at most its fair share of
+     * the workers, so one job's large kernel cannot take every worker while other jobs wait.
+     * A caller interrupted while it waits for the first worker gets a CancellationException, with no chunk run.
+     */
+    @Override
+    public void forRange(int length, RangeTask body) {
+        if (length <= 0)
+            return;
+        int chunk = Math.max(1, (length + workers.length * 4 - 1) / (workers.length * 4));
+        RangeBatch batch = acquireBatch();
+        batch.start(body, length, chunk);
+        int chunks = (length + chunk - 1) / chunk;
+        int active = activeRanges.incrementAndGet();
+        try {
+            int share = (workers.length + active - 1) / active;
+            for (int handed = 0; handed < Math.min(chunks, share); handed++) {
+                IdleWorker idle = handed == 0 ? firstIdle() : idleMinHeap.poll(); // only the first worker is waited for
+                if (idle == null)
+                    break; // the workers already handed the batch claim every chunk
+                batch.pending.incrementAndGet();
+                idle.worker.newTask(batch);
+            }
+            batch.await();
+        } finally {
+            activeRanges.decrementAndGet();
         }
-        while (inFlight.get() > 0) { // wait until all finish
+        Throwable failure = batch.failure;
+        batch.failure = null;
+        releaseBatch(batch);
+        rethrow(failure);
+    }
+
+    /**
+     * Waits for an idle worker, parking a virtual caller.
+     *
+     * @throws CancellationException if the caller is interrupted while parked; its interrupt flag is set
+     */
+    private IdleWorker firstIdle() {
+        IdleWorker idle = idleMinHeap.poll();
+        if (idle != null)
+            return idle;
+        Thread caller = Thread.currentThread();
+        QueueWaitEvent wait = beginWait();
+        while ((idle = idleMinHeap.poll()) == null) {
+            if (caller.isVirtual()) {
+                try {
+                    idle = idleMinHeap.take();
+                    break;
+                } catch (InterruptedException e) {
+                    caller.interrupt();
+                    throw new CancellationException("Interrupted while waiting for an idle worker");
+                }
+            }
             Thread.yield();
         }
+        commitWait(wait, true);
+        return idle;
+    }
+
+    /**
+     * Starts timing a wait for an idle worker, or returns null when Flight Recorder is not running.
+     */
+    private static QueueWaitEvent beginWait() {
+        if (!FlightRecorder.isInitialized())
+            return null;
+        QueueWaitEvent wait = new QueueWaitEvent();
+        wait.begin();
+        return wait;
+    }
+
+    private void commitWait(QueueWaitEvent wait, boolean range) {
+        if (wait == null)
+            return;
+        wait.end();
+        if (wait.shouldCommit()) {
+            wait.workers = workers.length;
+            wait.activeRanges = activeRanges.get();
+            wait.range = range;
+            wait.commit();
+        }
+    }
+
+    private RangeBatch acquireBatch() {
+        synchronized (freeBatches) {
+            RangeBatch batch = freeBatches.poll();
+            return batch != null ? batch : new RangeBatch();
+        }
+    }
+
+    private void releaseBatch(RangeBatch batch) {
+        synchronized (freeBatches) {
+            freeBatches.push(batch);
+        }
+    }
+
+    /**
+     * One forRange call: the body, the chunking and the progress of the workers it was handed to.
+     * Workers run it as their task; run() claims chunks until there are none left.
+     */
+    private static final class RangeBatch implements Runnable {
+        private final AtomicInteger nextChunk = new AtomicInteger();
+        private final AtomicInteger pending = new AtomicInteger(); // workers handed this batch that have not finished it
+        private RangeTask body;
+        private int length;
+        private int chunk;
+        private Thread caller;
+        private volatile Throwable failure; // the first chunk that threw, read by the caller after await
+
+        void start(RangeTask body, int length, int chunk) {
+            this.body = body;
+            this.length = length;
+            this.chunk = chunk;
+            this.caller = Thread.currentThread();
+            nextChunk.set(0);
+        }
+
+        @Override
+        public void run() {
+            try {
+                int from;
+                while ((from = nextChunk.getAndIncrement() * chunk) < length) {
+                    body.run(from, Math.min(length, from + chunk));
+                }
+            } catch (Throwable e) {
+                synchronized (this) {
+                    if (failure == null)
+                        failure = e;
+                }
+            } finally {
+                if (pending.decrementAndGet() == 0)
+                    LockSupport.unpark(caller);
+            }
+        }
+
+        /**
+         * Waits until every worker handed this batch has left it; by then all chunks have run.
+         */
+        void await() {
+            while (pending.get() > 0) {
+                if (caller.isVirtual())
+                    LockSupport.park(this);
+                else
+                    Thread.yield();
+            }
+            body = null;
+            caller = null;
+        }
+    }
 
+    /**
+     * A task waiting on submitAll would hold its own worker, which submitAll waits for: no nesting.
+     */
+    @Override
+    public boolean supportsNestedTasks() {
+        return false;
     }
 
     public void shutdown() throws InterruptedException {
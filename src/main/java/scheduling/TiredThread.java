@@ -1,21 +1,30 @@
 package scheduling;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 public class TiredThread extends Thread implements Comparable<TiredThread> {
 
-    private static final Runnable POISON_PILL = () -> {}; // Special task to signal shutdown
+    private static final int MIN_SPINS = 1 << 6; // Bounds of the adaptive spin before parking
+    private static final int MAX_SPINS = 1 << 14;
+    private static final boolean SPIN = Runtime.getRuntime().availableProcessors() > 1; // on one core a spinning worker only delays the producer
 
     private final int id; // Worker index assigned by the executor
     private final double fatigueFactor; // Multiplier for fatigue calculation
 
     private final AtomicBoolean alive = new AtomicBoolean(true); // Indicates if the worker should keep running
 
-    // Single-slot handoff queue; executor will put tasks here
-    private final BlockingQueue<Runnable> handoff = new ArrayBlockingQueue<>(1);
+    // Single-slot handoff; the executor puts tasks here and the worker clears it. There is one producer at a time,
+    // since a worker is handed out by the executor's idle heap and only returns there once its task is done.
+    private final AtomicReference<Runnable> handoff = new AtomicReference<>();
+    private volatile boolean parked = false; // the worker may be parked, so the producer has to unpark it
+    private int spins = MIN_SPINS; // current spin budget, only touched by the worker
 
     private final AtomicBoolean busy = new AtomicBoolean(false); // Indicates if the worker is currently executing a task
 
@@ -23,9 +32,23 @@ public class TiredThread extends Thread implements Comparable<TiredThread> {
     private final AtomicLong timeIdle = new AtomicLong(0); // Total time spent idle
     private final AtomicLong idleStartTime = new AtomicLong(0); // Timestamp when the worker became idle
 
+    private final Consumer<TiredThread> onIdle; // told after each task, once its time has been accounted
+
+    private static volatile EventType taskEvents; // looked up once Flight Recorder runs
+
     public TiredThread(int id, double fatigueFactor) {
+        this(id, fatigueFactor, worker -> {
+        });
+    }
+
+    /**
+     * onIdle runs on this worker after every task, once the task's time is included in getFatigue(),
+     * e.g. to hand the worker back to the executor's idle heap with an up-to-date priority.
+     */
+    public TiredThread(int id, double fatigueFactor, Consumer<TiredThread> onIdle) {
         this.id = id;
         this.fatigueFactor = fatigueFactor;
+        this.onIdle = onIdle;
         this.idleStartTime.set(System.nanoTime());
         setName(String.format("FF=%.2f", fatigueFactor));
     }
@@ -34,6 +57,10 @@ public class TiredThread extends Thread implements Comparable<TiredThread> {
         return id;
     }
 
+    public double getFatigueFactor() {
+        return fatigueFactor;
+    }
+
     public double getFatigue() {
         return fatigueFactor * timeUsed.get();
     }
@@ -59,59 +86,123 @@ public class TiredThread extends Thread implements Comparable<TiredThread> {
        // TODO
         if(!this.alive.get()  || task == null)
             throw new IllegalStateException("worker is not ready to accept a task");
-        handoff.add(task);
+        if (!handoff.compareAndSet(null, task))
+            throw new IllegalStateException("worker already has a pending task");
+        if (parked) // read after the task is published; the worker sets parked before its last check of the slot
+            LockSupport.unpark(this);
 
     }
 
     /**
      * Request this worker to stop after finishing current task.
-     * Inserts a poison pill so the worker wakes up and exits.
+     * Wakes the worker up if it is parked so it sees the flag and exits.
      */
     public void shutdown() {
        // TODO
         alive.set(false);
         busy.set(false);
-        handoff.add(POISON_PILL);
+        LockSupport.unpark(this);
     }
 
     @Override
     public void run() {
        // TODO
         while(this.alive.get()) {
-            try
-            {
-                Runnable task = handoff.take();
-                if (task == POISON_PILL) {
-                    break;
-                }
-                this.busy.set(true);
+            Runnable task = awaitTask();
+            if (task == null) {
+                break;
+            }
+            this.busy.set(true);
 
 
-                long idleEnd = System.nanoTime(); // Gets the time from the system for calculation of idle time
-                timeIdle.addAndGet(idleEnd - idleStartTime.get());
+            long idleEnd = System.nanoTime(); // Gets the time from the system for calculation of idle time
+            long idleStart = idleStartTime.get();
+            timeIdle.addAndGet(idleEnd - idleStart);
 
 
-                long workStart = System.nanoTime(); // Gets the time from the system and task has started running
+            long workStart = System.nanoTime(); // Gets the time from the system and task has started running
+            TaskExecutionEvent event = taskEventsEnabled() ? new TaskExecutionEvent() : null;
+            if (event != null)
+                event.begin();
 
+            try {
                 task.run();
+            } catch (Throwable failure) {
+                // the worker outlives a failing task, so it is accounted and returned to the executor as usual;
+                // the executor's own wrappers hand failures back to the caller before they get here
+                getUncaughtExceptionHandler().uncaughtException(this, failure);
+            }
+
 
+            long workEnd = System.nanoTime(); // Gets the time from the system and task has stopped running
+            if (event != null)
+                event.end();
 
-                long workEnd = System.nanoTime(); // Gets the time from the system and task has stopped running
 
+            timeUsed.addAndGet(workEnd - workStart); // Calculates time used (workEnd - workStart)
+            busy.set(false);
+            if (event != null && event.shouldCommit()) {
+                event.workerId = id;
+                event.fatigueFactor = fatigueFactor;
+                event.fatigue = getFatigue();
+                event.idleBefore = idleEnd - idleStart;
+                event.commit();
+            }
 
-                timeUsed.addAndGet(workEnd - workStart); // Calculates time used (workEnd - workStart)
-                busy.set(false);
 
+            idleStartTime.set(System.nanoTime());  //start timer of idle
+            onIdle.accept(this);
+        }
+    }
 
-                idleStartTime.set(System.nanoTime());  //start timer of idle
+    /**
+     * Waits for the next task: spins for a while, since row tasks tend to arrive back to back, then parks.
+     * The spin budget doubles when a task arrives while spinning and halves when the worker has to park.
+     * Returns null once the worker is shut down or interrupted with no task pending.
+     */
+    private Runnable awaitTask() {
+        for (int i = 0; SPIN && i < spins; i++) {
+            Runnable task = takeTask();
+            if (task != null) {
+                spins = Math.min(MAX_SPINS, spins * 2);
+                return task;
             }
-            catch (InterruptedException e)
-            {
-                break;
+            if (!alive.get())
+                return null;
+            Thread.onSpinWait();
+        }
+        spins = Math.max(MIN_SPINS, spins / 2);
+        while (true) {
+            parked = true;
+            Runnable task = takeTask(); // checked after publishing parked, so a task handed off meanwhile is not missed
+            if (task != null || !alive.get() || isInterrupted()) {
+                parked = false;
+                return task;
             }
+            LockSupport.park(this);
+            parked = false;
+        }
+    }
 
+    /**
+     * Whether a running recording enables TaskExecutionEvent, checked before creating one: the JIT does not
+     * reliably eliminate the allocation in this loop, and loading an event class is slow, so neither happens
+     * unless Flight Recorder runs.
+     */
+    private static boolean taskEventsEnabled() {
+        if (!FlightRecorder.isInitialized())
+            return false;
+        EventType type = taskEvents;
+        if (type == null)
+            taskEvents = type = EventType.getEventType(TaskExecutionEvent.class);
+        return type.isEnabled();
+    }
 
-        }
+    private Runnable takeTask() {
+        Runnable task = handoff.get();
+        if (task != null)
+            handoff.set(null); // single consumer: nobody else clears the slot, and the producer waits for it to be empty
+        return task;
     }
 
     @Override
@@ -0,0 +1,121 @@
+package spl.lae;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import scheduling.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a directory of job files with one engine and one executor instead of one JVM per file. Every file gets
+ * a virtual thread, so one file is being parsed while another computes and a third is written; a bound on the
+ * files in flight keeps memory flat however many files there are. Results go to the output directory under
+ * the input's file name, next to a summary with per-file timings.
+ */
+public final class BatchRunner {
+
+    public static final String SUMMARY_FILE = "batch-summary.json";
+
+    private BatchRunner() {
+    }
+
+    /**
+     * Returns the job files, sorted by name: every .json file of a directory, or, for a pattern such as
+     * inputs/job-*.json, the files of its parent directory whose name matches its last element.
+     * A {@value #SUMMARY_FILE} left by an earlier batch is not a job and is skipped.
+     */
+    public static List<Path> findInputs(String directoryOrGlob) throws IOException {
+        Path path = Path.of(directoryOrGlob);
+        Path directory = Files.isDirectory(path) ? path : path.toAbsolutePath().getParent();
+        String pattern = Files.isDirectory(path) ? "*.json" : path.getFileName().toString();
+        if (directory == null || !Files.isDirectory(directory))
+            throw new IOException("No such input directory: " + directoryOrGlob);
+        List<Path> inputs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, pattern)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file) && !file.getFileName().toString().equals(SUMMARY_FILE))
+                    inputs.add(file);
+            }
+        }
+        inputs.sort(null);
+        return inputs;
+    }
+
+    /**
+     * Runs the jobs with at most maxInFlight files between parsing and writing, writes the summary to
+     * outputDirectory/{@value #SUMMARY_FILE} and returns the per-file reports in input order. Shuts kernels down.
+     *
+     * @throws IOException if outputDirectory is an input's directory or inside one, where results would
+     *                     overwrite their inputs or be picked up as inputs by the next batch
+     */
+    public static List<ConcurrentJobRunner.JobReport> run(List<Path> inputs, Path outputDirectory, ParallelExecutor kernels,
+                                                          int maxInFlight) throws IOException, InterruptedException {
+        Path output = outputDirectory.toAbsolutePath().normalize();
+        for (Path input : inputs) {
+            Path inputDirectory = input.toAbsolutePath().normalize().getParent();
+            if (inputDirectory != null && output.startsWith(inputDirectory)) {
+                kernels.shutdown();
+                throw new IOException("The output directory must not be inside the input directory: " + outputDirectory);
+            }
+        }
+        Files.createDirectories(outputDirectory);
+        long start = System.nanoTime();
+        List<Future<ConcurrentJobRunner.JobReport>> futures = new ArrayList<>();
+        try (ConcurrentJobRunner runner = new ConcurrentJobRunner(kernels, engine -> {
+        }, maxInFlight)) {
+            for (Path input : inputs) {
+                futures.add(runner.submit(input.toString(), outputDirectory.resolve(input.getFileName()).toString()));
+            }
+        }
+        long wallNanos = System.nanoTime() - start;
+        List<ConcurrentJobRunner.JobReport> reports = new ArrayList<>();
+        for (Future<ConcurrentJobRunner.JobReport> future : futures) {
+            try {
+                reports.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IOException("Batch job failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        writeSummary(reports, wallNanos, outputDirectory.resolve(SUMMARY_FILE));
+        return reports;
+    }
+
+    private static void writeSummary(List<ConcurrentJobRunner.JobReport> reports, long wallNanos, Path file) throws IOException {
+        long succeeded = reports.stream().filter(ConcurrentJobRunner.JobReport::succeeded).count();
+        long parseNanos = 0, computeNanos = 0, writeNanos = 0;
+        List<Map<String, Object>> jobs = new ArrayList<>();
+        for (ConcurrentJobRunner.JobReport report : reports) {
+            parseNanos += report.parseNanos();
+            computeNanos += report.computeNanos();
+            writeNanos += report.writeNanos();
+            Map<String, Object> job = new LinkedHashMap<>();
+            job.put("input", report.inputPath());
+            job.put("output", report.outputPath());
+            job.put("status", report.succeeded() ? "ok" : "error");
+            if (!report.succeeded())
+                job.put("error", report.error());
+            job.put("parseMillis", report.parseNanos() / 1e6);
+            job.put("computeMillis", report.computeNanos() / 1e6);
+            job.put("writeMillis", report.writeNanos() / 1e6);
+            jobs.add(job);
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("files", reports.size());
+        summary.put("succeeded", succeeded);
+        summary.put("failed", reports.size() - succeeded);
+        summary.put("wallMillis", wallNanos / 1e6);
+        summary.put("parseMillis", parseNanos / 1e6); // summed over files, so they overlap the wall time
+        summary.put("computeMillis", computeNanos / 1e6);
+        summary.put("writeMillis", writeNanos / 1e6);
+        summary.put("jobs", jobs);
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), summary);
+    }
+}
@@ -0,0 +1,126 @@
+package spl.lae;
+
+import parser.*;
+import scheduling.*;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Runs many jobs at once, each on its own virtual thread: parsing the input and any referenced .mtx files,
+ * walking the tree and writing the output block without holding a platform thread, while the kernels of every
+ * job run on one shared, bounded executor sized to the cores. All jobs go through one engine, which keeps
+ * each job's state in its own context.
+ */
+public class ConcurrentJobRunner implements AutoCloseable {
+
+    private final LinearAlgebraEngine engine;
+    private final Semaphore inFlight; // bounds the file jobs past their wait, so thousands of queued files are not all parsed at once
+    private final ExecutorService jobs = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * The runner takes ownership of kernels and shuts it down on close.
+     */
+    public ConcurrentJobRunner(ParallelExecutor kernels) {
+        this(kernels, engine -> {
+        });
+    }
+
+    /**
+     * settings configures the shared engine before any job runs.
+     */
+    public ConcurrentJobRunner(ParallelExecutor kernels, Consumer<LinearAlgebraEngine> settings) {
+        this(kernels, settings, Integer.MAX_VALUE);
+    }
+
+    /**
+     * At most maxInFlight file jobs are between parsing and writing at any time; the others wait, unparsed,
+     * on their virtual threads.
+     */
+    public ConcurrentJobRunner(ParallelExecutor kernels, Consumer<LinearAlgebraEngine> settings, int maxInFlight) {
+        if (maxInFlight < 1)
+            throw new IllegalArgumentException("At least one job must be allowed in flight");
+        this.engine = new LinearAlgebraEngine(kernels, false);
+        this.inFlight = new Semaphore(maxInFlight);
+        settings.accept(engine);
+    }
+
+    /**
+     * What happened to one file job, with the time each stage took (0 for stages that did not run).
+     */
+    public record JobReport(String inputPath, String outputPath, boolean succeeded, String error,
+                            long parseNanos, long computeNanos, long writeNanos) {
+    }
+
+    /**
+     * Parses, evaluates and writes one job the way Main does: the result matrix, or the error message if any
+     * stage fails.
+     */
+    public Future<JobReport> submit(String inputPath, String outputPath) {
+        return jobs.submit(() -> {
+            inFlight.acquire();
+            try {
+                return runFileJob(inputPath, outputPath);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private JobReport runFileJob(String inputPath, String outputPath) throws Exception {
+        long[] nanos = new long[3]; // parse, compute, write
+        int stage = 0;
+        long start = System.nanoTime();
+        try {
+            Map<String, ComputationNode> roots = new InputParser().parseJob(inputPath);
+            for (ComputationNode root : roots.values()) {
+                root.rewritePowers();
+                root.associativeNesting();
+            }
+            nanos[stage++] = System.nanoTime() - start;
+            start = System.nanoTime();
+            Map<String, ComputationNode> results = engine.runAll(roots);
+            nanos[stage++] = System.nanoTime() - start;
+            start = System.nanoTime();
+            OutputWriter.write(results, outputPath);
+            nanos[stage] = System.nanoTime() - start;
+            return new JobReport(inputPath, outputPath, true, null, nanos[0], nanos[1], nanos[2]);
+        } catch (Exception e) {
+            nanos[stage] = System.nanoTime() - start;
+            String error = String.valueOf(e.getMessage());
+            start = System.nanoTime();
+            OutputWriter.write(error, outputPath);
+            nanos[2] += System.nanoTime() - start;
+            return new JobReport(inputPath, outputPath, false, error, nanos[0], nanos[1], nanos[2]);
+        }
+    }
+
+    /**
+     * Evaluates an already parsed and nested tree on its own virtual thread.
+     */
+    public Future<ComputationNode> submit(ComputationNode root) {
+        return jobs.submit(() -> engine.run(root));
+    }
+
+    public String getWorkerReport() {
+        return engine.getWorkerReport();
+    }
+
+    /**
+     * Waits for the submitted jobs to finish, then shuts the kernel executor down. If interrupted while the
+     * executor shuts down, returns with the thread's interrupt flag set.
+     */
+    @Override
+    public void close() {
+        jobs.close();
+        try {
+            engine.shutdown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package spl.lae;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import parser.ComputationNodeType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records where the time of every computed node goes, for jobs of an engine it is set on with
+ * {@link LinearAlgebraEngine#setProfiler}: the operand shapes, the time spent loading operands before the first
+ * kernel is dispatched, every dispatch to the executor with the span each task ran on its worker, and the time
+ * spent after the last kernel writing the result back and releasing the operands. Exports the data as Chrome
+ * trace-event JSON (chrome://tracing or ui.perfetto.dev) and as a text summary sorted by cost.
+ */
+public final class ExecutionProfiler {
+
+    /**
+     * One task, or one chunk of a parallel loop, as it ran on a worker.
+     */
+    public record TaskSpan(long threadId, String threadName, long startNanos, long endNanos) {
+    }
+
+    /**
+     * One call to the executor: from the call until it returned, with the tasks it ran.
+     */
+    public record Dispatch(long startNanos, long endNanos, List<TaskSpan> spans) {
+
+        /**
+         * Time from the call until each worker started its first task, summed over the workers.
+         */
+        public long queueWaitNanos() {
+            Map<Long, Long> firstStarts = new LinkedHashMap<>();
+            for (TaskSpan span : spans) {
+                firstStarts.merge(span.threadId(), span.startNanos(), Math::min);
+            }
+            long wait = 0;
+            for (long start : firstStarts.values()) {
+                wait += Math.max(0, start - startNanos);
+            }
+            return wait;
+        }
+    }
+
+    /**
+     * One computed node. Times are System.nanoTime values.
+     */
+    public record NodeProfile(ComputationNodeType type, String shapes, long threadId, String threadName,
+                              long startNanos, long endNanos, List<Dispatch> dispatches) {
+
+        public long totalNanos() {
+            return endNanos - startNanos;
+        }
+
+        /**
+         * Time before the first dispatch: paging in, converting and laying out operands, allocating the result.
+         * A node computed without the executor (e.g. by a sparse kernel) spends all its time here.
+         */
+        public long loadNanos() {
+            return dispatches.isEmpty() ? totalNanos() : dispatches.getFirst().startNanos() - startNanos;
+        }
+
+        /**
+         * Time from the first dispatch until the last one returned.
+         */
+        public long kernelNanos() {
+            return dispatches.isEmpty() ? 0 : lastEndNanos() - dispatches.getFirst().startNanos();
+        }
+
+        /**
+         * Time after the last dispatch: storing the result, releasing the operands, spilling to the memory budget.
+         */
+        public long readbackNanos() {
+            return dispatches.isEmpty() ? 0 : endNanos - lastEndNanos();
+        }
+
+        /**
+         * When the last dispatch returned; nested dispatches return before the one whose task made them.
+         */
+        private long lastEndNanos() {
+            long end = startNanos;
+            for (Dispatch dispatch : dispatches) {
+                end = Math.max(end, dispatch.endNanos());
+            }
+            return end;
+        }
+
+        public long queueWaitNanos() {
+            long wait = 0;
+            for (Dispatch dispatch : dispatches) {
+                wait += dispatch.queueWaitNanos();
+            }
+            return wait;
+        }
+
+        /**
+         * Time the workers spent running this node's tasks, summed over the workers.
+         */
+        public long busyNanos() {
+            long busy = 0;
+            for (Dispatch dispatch : dispatches) {
+                for (TaskSpan span : dispatch.spans()) {
+                    busy += span.endNanos() - span.startNanos();
+                }
+            }
+            return busy;
+        }
+
+        public int tasks() {
+            int tasks = 0;
+            for (Dispatch dispatch : dispatches) {
+                tasks += dispatch.spans().size();
+            }
+            return tasks;
+        }
+    }
+
+    private final long origin = System.nanoTime(); // trace timestamps are relative to it
+    private final List<NodeProfile> nodes = new ArrayList<>();
+
+    void record(ComputationNodeType type, String shapes, long startNanos, long endNanos, List<Dispatch> dispatches) {
+        Thread thread = Thread.currentThread();
+        NodeProfile node = new NodeProfile(type, shapes, thread.threadId(), thread.getName(), startNanos, endNanos, dispatches);
+        synchronized (nodes) {
+            nodes.add(node);
+        }
+    }
+
+    /**
+     * Returns the recorded nodes in the order they finished.
+     */
+    public List<NodeProfile> getNodes() {
+        synchronized (nodes) {
+            return List.copyOf(nodes);
+        }
+    }
+
+    public void clear() {
+        synchronized (nodes) {
+            nodes.clear();
+        }
+    }
+
+    /**
+     * Writes the recorded nodes as Chrome trace events: each node and its load and readback phases on the thread
+     * that ran the job, and each task on the worker that ran it.
+     */
+    public void writeChromeTrace(Path file) throws IOException {
+        List<Map<String, Object>> events = new ArrayList<>();
+        Map<Long, String> threadNames = new LinkedHashMap<>();
+        for (NodeProfile node : getNodes()) {
+            String name = node.type().name();
+            threadNames.put(node.threadId(), node.threadName().isEmpty() ? "job " + node.threadId() : node.threadName());
+            Map<String, Object> args = new LinkedHashMap<>();
+            args.put("shapes", node.shapes());
+            args.put("loadMillis", node.loadNanos() / 1e6);
+            args.put("kernelMillis", node.kernelNanos() / 1e6);
+            args.put("readbackMillis", node.readbackNanos() / 1e6);
+            args.put("queueWaitMillis", node.queueWaitNanos() / 1e6);
+            args.put("busyMillis", node.busyNanos() / 1e6);
+            args.put("tasks", node.tasks());
+            events.add(event(name, "node", node.threadId(), node.startNanos(), node.endNanos(), args));
+            if (node.dispatches().isEmpty())
+                continue;
+            events.add(event("load", "phase", node.threadId(), node.startNanos(), node.dispatches().getFirst().startNanos(), Map.of()));
+            events.add(event("readback", "phase", node.threadId(), node.endNanos() - node.readbackNanos(), node.endNanos(), Map.of()));
+            for (Dispatch dispatch : node.dispatches()) {
+                for (TaskSpan span : dispatch.spans()) {
+                    threadNames.put(span.threadId(), span.threadName());
+                    events.add(event(name + " task", "task", span.threadId(), span.startNanos(), span.endNanos(),
+                            Map.of("queueWaitMillis", (span.startNanos() - dispatch.startNanos()) / 1e6)));
+                }
+            }
+        }
+        for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+            Map<String, Object> metadata = new LinkedHashMap<>();
+            metadata.put("name", "thread_name");
+            metadata.put("ph", "M");
+            metadata.put("pid", 1);
+            metadata.put("tid", thread.getKey());
+            metadata.put("args", Map.of("name", thread.getValue()));
+            events.add(metadata);
+        }
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("traceEvents", events);
+        trace.put("displayTimeUnit", "ms");
+        new ObjectMapper().writeValue(file.toFile(), trace);
+    }
+
+    private Map<String, Object> event(String name, String category, long threadId, long startNanos, long endNanos,
+                                      Map<String, Object> args) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("name", name);
+        event.put("cat", category);
+        event.put("ph", "X");
+        event.put("ts", (startNanos - origin) / 1e3); // microseconds
+        event.put("dur", (endNanos - startNanos) / 1e3);
+        event.put("pid", 1);
+        event.put("tid", threadId);
+        event.put("args", args);
+        return event;
+    }
+
+    /**
+     * One line per node, most expensive first, with its time split into load, kernels and readback.
+     */
+    public String summary() {
+        List<NodeProfile> sorted = new ArrayList<>(getNodes());
+        sorted.sort(Comparator.comparingLong(NodeProfile::totalNanos).reversed());
+        long total = 0;
+        for (NodeProfile node : sorted) {
+            total += node.totalNanos();
+        }
+        StringBuilder summary = new StringBuilder(String.format("%d nodes, %.3f ms%n", sorted.size(), total / 1e6));
+        summary.append(String.format("%-10s %-28s %10s %10s %10s %10s %10s %10s %6s%n", "node", "shapes", "total ms",
+                "load ms", "kernel ms", "readback", "queue ms", "busy ms", "tasks"));
+        for (NodeProfile node : sorted) {
+            summary.append(String.format("%-10s %-28s %10.3f %10.3f %10.3f %10.3f %10.3f %10.3f %6d%n", node.type(),
+                    node.shapes(), node.totalNanos() / 1e6, node.loadNanos() / 1e6, node.kernelNanos() / 1e6,
+                    node.readbackNanos() / 1e6, node.queueWaitNanos() / 1e6, node.busyNanos() / 1e6, node.tasks()));
+        }
+        return summary.toString();
+    }
+}
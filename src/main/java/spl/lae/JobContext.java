@@ -0,0 +1,873 @@
+package spl.lae;
+
+import parser.*;
+import memory.*;
+import scheduling.*;
+import jdk.jfr.FlightRecorder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Everything one job needs while it runs: the operands being worked on, the buffer pool (and off-heap arena)
+ * its intermediates are recycled through, liveness and memory accounting, and verification results.
+ * The engine creates one per job, with a snapshot of its settings, so jobs running at the same time on one
+ * engine share only the executor and the scratch space.
+ */
+final class JobContext {
+
+    private final ParallelExecutor executor;
+    private final double sparseThreshold; // operands below this density use sparse kernels
+    private final Precision precision; // storage precision of leaves that do not request one
+    private final boolean doubleAccumulation; // FLOAT products accumulate in double precision
+    private final int strassenCutoff; // dense multiplies larger than this in every dimension use Strassen-Winograd, 0 disables
+    private final int verificationRounds; // Freivalds rounds per MULTIPLY node, 0 disables
+    private final long memoryBudget; // live intermediate bytes above which results are spilled
+    private final ScratchSpace scratchSpace;
+    private final ExecutionProfiler profiler; // null unless profiling
+    private final ProfilingExecutor profiling; // wraps the executor while profiling, null otherwise
+
+    private SharedMatrix leftMatrix = new SharedMatrix();
+    private SharedMatrix rightMatrix = new SharedMatrix();
+    private SharedMatrix resultMatrix = new SharedMatrix(); // preallocated output of multiplies
+    private final OffHeapArena arena; // backs bufferPool in off-heap mode, null otherwise
+    private final BufferPool bufferPool;
+    private final Map<SharedMatrix, Long> intermediates = new IdentityHashMap<>(); // dense results only their node references, by age
+    private long resultSequence = 0;
+    private final Map<ComputationNode, Integer> consumers = new IdentityHashMap<>(); // parents each node still feeds
+    private final Map<ComputationNode, Object> holders = new IdentityHashMap<>(); // live nodes -> storage they reference
+    private final Map<Object, Integer> storageReferences = new IdentityHashMap<>(); // live nodes per storage
+    private long liveBytes = 0; // matrix bytes referenced by live nodes in this job
+    private long peakBytes = 0;
+    private boolean verifying = false; // the node being computed is verified, so its operands must stay intact
+    private int verifiedMultiplies = 0;
+    private final List<String> verificationFailures = new ArrayList<>();
+    private final Random verificationRandom = new Random();
+
+    // Row-range kernels over the current operands, built once so dispatching them allocates nothing per call
+    private double[] rowFactors; // argument of scaleRows and scaleColumns
+    private boolean upperTriangular; // argument of the triangular multiplies
+    private final ParallelExecutor.RangeTask addRows = (from, to) -> {
+        for (int row = from; row < to; row++) {
+            addRow(row);
+        }
+    };
+    private final ParallelExecutor.RangeTask multiplyRows = (from, to) -> {
+        for (int row = from; row < to; row++) {
+            multiplyRow(row);
+        }
+    };
+    private final ParallelExecutor.RangeTask negateRows = (from, to) -> {
+        for (int row = from; row < to; row++) {
+            negateRow(row);
+        }
+    };
+    private final ParallelExecutor.RangeTask scaleRows = (from, to) -> {
+        for (int row = from; row < to; row++) {
+            scaleRow(row, rowFactors);
+        }
+    };
+    private final ParallelExecutor.RangeTask scaleColumns = (from, to) -> {
+        for (int row = from; row < to; row++) {
+            scaleColumnsOfRow(row, rowFactors);
+        }
+    };
+    private final ParallelExecutor.RangeTask triangularLeftMultiplyRows = (from, to) -> {
+        for (int row = from; row < to; row++) {
+            triangularLeftMultiplyRow(row, upperTriangular);
+        }
+    };
+    private final ParallelExecutor.RangeTask triangularRightMultiplyRows = (from, to) -> {
+        for (int row = from; row < to; row++) {
+            triangularRightMultiplyRow(row, upperTriangular);
+        }
+    };
+
+    JobContext(ParallelExecutor executor, LinearAlgebraEngine.Settings settings) {
+        this.profiler = settings.profiler();
+        this.profiling = profiler != null ? new ProfilingExecutor(executor) : null;
+        this.executor = profiling != null ? profiling : executor;
+        this.sparseThreshold = settings.sparseThreshold();
+        this.precision = settings.precision();
+        this.doubleAccumulation = settings.doubleAccumulation();
+        this.strassenCutoff = settings.strassenCutoff();
+        this.verificationRounds = settings.verificationRounds();
+        this.memoryBudget = settings.memoryBudget();
+        this.scratchSpace = settings.scratchSpace();
+        this.arena = settings.offHeap() ? new OffHeapArena() : null;
+        this.bufferPool = arena != null ? new BufferPool(arena) : new BufferPool();
+    }
+
+    /**
+     * Resolves the tree step by step until the root holds the final matrix.
+     */
+    ComputationNode run(ComputationNode computationRoot) {
+        beginJob(computationRoot);
+        ComputationNode resolvable = computationRoot.findResolvable();
+        try {
+            while (resolvable != null) {
+                this.loadAndCompute(resolvable);
+                resolvable = computationRoot.findResolvable();
+            }
+            if (arena != null && !computationRoot.isSparse())
+                computationRoot.getSharedMatrix().moveToHeap(); // the result must outlive the arena
+        } finally {
+            intermediates.clear(); // the root's storage belongs to the caller
+            consumers.clear();
+            holders.clear();
+            storageReferences.clear();
+            if (arena != null)
+                arena.close();
+        }
+        return computationRoot;
+    }
+
+    void loadAndCompute(ComputationNode node) {
+        if (node.getNodeType() == ComputationNodeType.POWER && node.getExponent() > 1) {
+            computePower(node);
+            return;
+        }
+        ComputationNode leftNode = node.getChildren().getFirst();
+        ComputationNode rightNode = node.getChildren().size() > 1 ? node.getChildren().get(1) : null;
+        List<ComputationNode> operands = node.getChildren(); // resolving the node drops its children
+        ComputationNodeType type = node.getNodeType();
+        long profileStart = profiling != null ? profiling.beginNode() : 0;
+        String shapes = profiler != null ? shapes(operands) : null;
+        NodeEvaluationEvent evaluation = FlightRecorder.isInitialized() ? new NodeEvaluationEvent() : null;
+        if (evaluation != null && !evaluation.isEnabled())
+            evaluation = null;
+        if (evaluation != null) { // the operands are released by the time the event is committed
+            evaluation.leftRows = leftNode.getRows();
+            evaluation.leftColumns = leftNode.getColumns();
+            evaluation.rightRows = rightNode != null ? rightNode.getRows() : 0;
+            evaluation.rightColumns = rightNode != null ? rightNode.getColumns() : 0;
+            evaluation.begin();
+        }
+        for (ComputationNode operand : operands) {
+            if (!operand.isSparse() && operand.getSharedMatrix().isSpilled()) {
+                operand.getSharedMatrix().pageIn(bufferPool);
+                liveBytes += operand.getSharedMatrix().bytes();
+            }
+        }
+        MatrixStructure resultStructure = resultStructure(node.getNodeType(), leftNode, rightNode);
+        boolean verify = verificationRounds > 0 && node.getNodeType() == ComputationNodeType.MULTIPLY;
+        verifying = verify;
+        if (!computeStructured(node, leftNode, rightNode)) {
+            computeGeneral(node);
+        }
+        verifying = false;
+        if (verify)
+            verifyMultiply(node, leftNode, rightNode);
+        node.setStructure(resultStructure); // computed nodes are tagged from their operands instead of rescanned
+        retain(node);
+        if (profiler != null)
+            shapes += " -> " + node.getRows() + "x" + node.getColumns();
+        peakBytes = Math.max(peakBytes, liveBytes); // operands and result are all live at this point
+        for (ComputationNode operand : operands) {
+            consume(operand);
+        }
+        enforceMemoryBudget();
+        if (evaluation != null) {
+            evaluation.end();
+            if (evaluation.shouldCommit()) {
+                evaluation.operation = type.name();
+                evaluation.resultRows = node.getRows();
+                evaluation.resultColumns = node.getColumns();
+                evaluation.sparse = node.isSparse();
+                evaluation.commit();
+            }
+        }
+        if (profiler != null)
+            profiler.record(type, shapes, profileStart, System.nanoTime(), profiling.endNode());
+    }
+
+    private static String shapes(List<ComputationNode> operands) {
+        StringBuilder shapes = new StringBuilder();
+        for (ComputationNode operand : operands) {
+            shapes.append(shapes.isEmpty() ? "" : ", ").append(operand.getRows()).append('x').append(operand.getColumns());
+        }
+        return shapes.toString();
+    }
+
+    /**
+     * Freivalds' check of C = A B: for random vectors r of +-1, A (B r) is compared with C r, which costs
+     * O(n^2) instead of the O(n^3) of recomputing the product. Differences are measured relative to
+     * |A| (|B| |r|), which bounds the rounding error, so only results that are actually wrong are reported.
+     */
+    private void verifyMultiply(ComputationNode node, ComputationNode leftNode, ComputationNode rightNode) {
+        int index = ++verifiedMultiplies;
+        int inner = leftNode.getColumns();
+        double[] ones = new double[rightNode.getColumns()];
+        Arrays.fill(ones, 1);
+        double[] scale = multiplyVector(leftNode, multiplyVector(rightNode, ones, true), true);
+        Precision stored = node.isSparse() ? Precision.DOUBLE : node.getSharedMatrix().getPrecision();
+        double tolerance = 64.0 * (inner + 2) * Math.ulp(stored == Precision.FLOAT ? 1.0f : 1.0);
+        double worst = 0;
+        int failedRounds = 0;
+        for (int round = 0; round < verificationRounds; round++) {
+            double[] r = new double[ones.length];
+            for (int j = 0; j < r.length; j++) {
+                r[j] = verificationRandom.nextBoolean() ? 1 : -1;
+            }
+            double[] expected = multiplyVector(leftNode, multiplyVector(rightNode, r, false), false);
+            double[] actual = multiplyVector(node, r, false);
+            double deviation = 0;
+            for (int i = 0; i < expected.length; i++) {
+                deviation = Math.max(deviation, Math.abs(expected[i] - actual[i]) / Math.max(scale[i], Double.MIN_NORMAL));
+            }
+            if (deviation > tolerance)
+                failedRounds++;
+            worst = Math.max(worst, deviation);
+        }
+        if (failedRounds > 0)
+            verificationFailures.add(String.format("multiply #%d (%dx%d): result is off by %.3g relative to the operands in %d of %d rounds",
+                    index, node.getRows(), node.getColumns(), worst, failedRounds, verificationRounds));
+    }
+
+    /**
+     * Returns the node's matrix times x (or its absolute values times x), dense rows computed in parallel.
+     */
+    private double[] multiplyVector(ComputationNode node, double[] x, boolean absolute) {
+        double[] y = new double[node.getRows()];
+        if (node.isSparse()) {
+            node.getSparseMatrix().multiplyVector(x, y, absolute);
+        } else {
+            SharedMatrix matrix = node.getSharedMatrix();
+            executor.forRange(y.length, (from, to) -> matrix.multiplyVector(x, y, absolute, from, to));
+        }
+        return y;
+    }
+
+    /**
+     * Evaluates a power that run has not expanded, when loadAndCompute is called on it directly.
+     */
+    private void computePower(ComputationNode node) {
+        countConsumers(node, Collections.newSetFromMap(new IdentityHashMap<>()));
+        for (ComputationNode step = node.findResolvable(); step != null; step = node.findResolvable()) {
+            loadAndCompute(step);
+        }
+    }
+
+    /**
+     * Resets the job's accounting, expands POWER nodes into squaring chains, counts how many parents consume
+     * every node (a node may be shared by several parents) and registers the leaves as live.
+     */
+    private void beginJob(ComputationNode root) {
+        consumers.clear();
+        holders.clear();
+        storageReferences.clear();
+        liveBytes = 0;
+        peakBytes = 0;
+        verifiedMultiplies = 0;
+        verificationFailures.clear();
+        countConsumers(root, Collections.newSetFromMap(new IdentityHashMap<>()));
+        peakBytes = liveBytes;
+    }
+
+    private void countConsumers(ComputationNode node, Set<ComputationNode> visited) {
+        if (!visited.add(node))
+            return;
+        node.expandPower();
+        if (node.getNodeType() == ComputationNodeType.MATRIX) {
+            retain(node);
+            return;
+        }
+        for (ComputationNode child : node.getChildren()) {
+            consumers.merge(child, 1, Integer::sum);
+            countConsumers(child, visited);
+        }
+    }
+
+    /**
+     * Registers a resolved node as a live reference to its storage. Storage shared with an operand
+     * (pass-through, transpose views, in-place kernels) is only counted once.
+     */
+    private void retain(ComputationNode node) {
+        Object key = storageKey(node);
+        holders.put(node, key);
+        if (storageReferences.merge(key, 1, Integer::sum) == 1)
+            liveBytes += bytes(node);
+    }
+
+    /**
+     * Called once per parent edge when the parent has been computed; the operand is released
+     * after its last consumer.
+     */
+    private void consume(ComputationNode operand) {
+        Integer remaining = consumers.remove(operand);
+        if (remaining != null && remaining > 1) {
+            consumers.put(operand, remaining - 1);
+            return;
+        }
+        Object key = holders.remove(operand);
+        if (key == null)
+            return; // not registered by run, e.g. a leaf passed straight to loadAndCompute
+        int references = storageReferences.merge(key, -1, Integer::sum);
+        if (references == 0) {
+            storageReferences.remove(key);
+            SharedMatrix matrix = operand.isSparse() ? null : operand.getSharedMatrix();
+            if (matrix == null || !matrix.isSpilled())
+                liveBytes -= bytes(operand);
+            if (matrix != null && intermediates.remove(matrix) != null)
+                matrix.recycle(bufferPool);
+        }
+        operand.release();
+    }
+
+    /**
+     * Whether the node being computed is the only one left that reads the operand's storage,
+     * so kernels may overwrite it or take ownership of it.
+     */
+    private boolean lastReader(ComputationNode operand) {
+        return consumers.getOrDefault(operand, 1) == 1 && storageReferences.getOrDefault(storageKey(operand), 1) == 1;
+    }
+
+    /**
+     * Identifies the storage behind a node: transpose views and pass-through results share it with their operand.
+     */
+    private static Object storageKey(ComputationNode node) {
+        if (node.isSparse())
+            return node.getSparseMatrix();
+        SharedMatrix matrix = node.getSharedMatrix();
+        return matrix.length() == 0 ? matrix : matrix.get(0);
+    }
+
+    private static long bytes(ComputationNode node) {
+        return node.isSparse() ? node.getSparseMatrix().bytes() : node.getSharedMatrix().bytes();
+    }
+
+    /**
+     * Spills the oldest in-memory intermediates to scratch files until the live ones fit the budget.
+     */
+    private void enforceMemoryBudget() {
+        if (scratchSpace == null)
+            return;
+        long live = 0;
+        for (SharedMatrix matrix : intermediates.keySet()) {
+            if (!matrix.isSpilled())
+                live += matrix.bytes();
+        }
+        while (live > memoryBudget) {
+            SharedMatrix oldest = null;
+            long oldestSequence = Long.MAX_VALUE;
+            for (Map.Entry<SharedMatrix, Long> entry : intermediates.entrySet()) {
+                if (!entry.getKey().isSpilled() && entry.getValue() < oldestSequence) {
+                    oldest = entry.getKey();
+                    oldestSequence = entry.getValue();
+                }
+            }
+            if (oldest == null)
+                return;
+            live -= oldest.bytes();
+            liveBytes -= oldest.bytes();
+            try {
+                oldest.spill(scratchSpace);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to spill an intermediate result to " + scratchSpace.getDirectory(), e);
+            }
+        }
+    }
+
+    /**
+     * Recycles a repacked or converted copy of an operand once a kernel is done with it.
+     */
+    private void recycleTemporary(SharedMatrix loaded, ComputationNode operand) {
+        if (loaded != operand.getSharedMatrix())
+            loaded.recycle(bufferPool);
+    }
+
+    private MatrixStructure resultStructure(ComputationNodeType type, ComputationNode leftNode, ComputationNode rightNode) {
+        switch (type) {
+            case ADD:
+                return leftNode.getStructure().add(rightNode.getStructure());
+            case MULTIPLY:
+                return leftNode.getStructure().multiply(rightNode.getStructure());
+            case NEGATE:
+                return leftNode.getStructure().negate();
+            case TRANSPOSE:
+                return leftNode.getStructure().transpose();
+            case POWER: // only A^1 is left, higher powers are expanded into multiplications
+                return leftNode.getStructure();
+            case SOLVE:
+                return leftNode.getStructure() == MatrixStructure.IDENTITY ? rightNode.getStructure() : MatrixStructure.GENERAL;
+            case INVERSE:
+                return leftNode.getStructure() == MatrixStructure.IDENTITY ? MatrixStructure.IDENTITY : MatrixStructure.GENERAL;
+            default:
+                throw new IllegalArgumentException("Unknown operation");
+        }
+    }
+
+    /**
+     * Handles operands with a known structure (zero, identity, diagonal, triangular, symmetric)
+     * by skipping the work entirely or running a cheaper kernel.
+     * Returns false when the general sparse/dense kernels should run instead.
+     */
+    private boolean computeStructured(ComputationNode node, ComputationNode leftNode, ComputationNode rightNode) {
+        MatrixStructure left = leftNode.getStructure();
+        switch (node.getNodeType()) {
+            case NEGATE:
+                if (left != MatrixStructure.ZERO)
+                    return false;
+                passThrough(node, leftNode);
+                return true;
+            case TRANSPOSE:
+                if (left == MatrixStructure.ZERO) {
+                    resolveSparse(node, SparseMatrix.zero(leftNode.getColumns(), leftNode.getRows()));
+                    return true;
+                }
+                if (!left.isSymmetric())
+                    return false;
+                passThrough(node, leftNode); // A^T == A
+                return true;
+            case ADD: {
+                MatrixStructure right = rightNode.getStructure();
+                if (left != MatrixStructure.ZERO && right != MatrixStructure.ZERO)
+                    return false;
+                if (leftNode.getRows() != rightNode.getRows() || leftNode.getColumns() != rightNode.getColumns())
+                    throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+                passThrough(node, left == MatrixStructure.ZERO ? rightNode : leftNode);
+                return true;
+            }
+            case MULTIPLY:
+                return computeStructuredMultiply(node, leftNode, rightNode);
+            case POWER:
+                passThrough(node, leftNode);
+                return true;
+            case SOLVE:
+            case INVERSE:
+                if (left != MatrixStructure.IDENTITY)
+                    return false;
+                if (rightNode != null && leftNode.getColumns() != rightNode.getRows())
+                    throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+                passThrough(node, rightNode != null ? rightNode : leftNode); // I^-1 B == B, I^-1 == I
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private boolean computeStructuredMultiply(ComputationNode node, ComputationNode leftNode, ComputationNode rightNode) {
+        MatrixStructure left = leftNode.getStructure();
+        MatrixStructure right = rightNode.getStructure();
+        if (leftNode.getColumns() != rightNode.getRows())
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        if (left == MatrixStructure.ZERO || right == MatrixStructure.ZERO) {
+            resolveSparse(node, SparseMatrix.zero(leftNode.getRows(), rightNode.getColumns()));
+            return true;
+        }
+        if (left == MatrixStructure.IDENTITY) {
+            passThrough(node, rightNode);
+            return true;
+        }
+        if (right == MatrixStructure.IDENTITY) {
+            passThrough(node, leftNode);
+            return true;
+        }
+        if (leftNode.isSparse() || rightNode.isSparse())
+            return false; // the sparse kernels already skip zeros
+        Precision resultPrecision = resultPrecision(node);
+        if (left.isDiagonal()) {
+            rowFactors = diagonal(leftNode.getSharedMatrix());
+            leftMatrix = workingCopy(rightNode, leftNode, resultPrecision);
+            executor.forRange(leftMatrix.length(), scaleRows);
+            rowFactors = null;
+            resolveDense(node, leftMatrix);
+        } else if (right.isDiagonal()) {
+            rowFactors = diagonal(rightNode.getSharedMatrix());
+            leftMatrix = workingCopy(leftNode, rightNode, resultPrecision);
+            executor.forRange(leftMatrix.length(), scaleColumns);
+            rowFactors = null;
+            resolveDense(node, leftMatrix);
+        } else if (left.isUpperTriangular() || left.isLowerTriangular()) {
+            loadMultiplyOperands(leftNode, rightNode, resultPrecision);
+            upperTriangular = left.isUpperTriangular();
+            executor.forRange(leftMatrix.length(), triangularLeftMultiplyRows);
+            finishMultiply(node, leftNode, rightNode);
+        } else if (right.isUpperTriangular() || right.isLowerTriangular()) {
+            loadMultiplyOperands(leftNode, rightNode, resultPrecision);
+            upperTriangular = right.isUpperTriangular();
+            executor.forRange(leftMatrix.length(), triangularRightMultiplyRows);
+            finishMultiply(node, leftNode, rightNode);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static double[] diagonal(SharedMatrix matrix) {
+        double[] diagonal = new double[matrix.length()];
+        for (int i = 0; i < diagonal.length; i++) {
+            diagonal[i] = matrix.get(i, i);
+        }
+        return diagonal;
+    }
+
+    /**
+     * Resolves a node to one of its operands unchanged (identity / zero / symmetric shortcuts).
+     */
+    private void passThrough(ComputationNode node, ComputationNode operand) {
+        if (operand.isSparse())
+            node.resolve(operand.getSparseMatrix());
+        else
+            node.resolve(operand.getSharedMatrix());
+        node.setPrecision(operand.getPrecision());
+    }
+
+    /**
+     * Returns the precision an operand is computed in: its own if it requested one, the job's default otherwise.
+     */
+    private Precision precisionOf(ComputationNode operand) {
+        return operand.getPrecision() != null ? operand.getPrecision() : precision;
+    }
+
+    /**
+     * A node is computed in FLOAT only when every operand is FLOAT; mixing precisions widens to DOUBLE.
+     */
+    private Precision resultPrecision(ComputationNode node) {
+        for (ComputationNode child : node.getChildren()) {
+            if (precisionOf(child) != Precision.FLOAT)
+                return Precision.DOUBLE;
+        }
+        return Precision.FLOAT;
+    }
+
+    /**
+     * Returns the operand row-major in the given precision for kernels that update it in place.
+     * An intermediate read by nothing else, not even the other operand, is used as is; anything else is copied.
+     */
+    private SharedMatrix workingCopy(ComputationNode operand, ComputationNode other, Precision precision) {
+        SharedMatrix matrix = operand.getSharedMatrix();
+        boolean exclusive = !verifying && intermediates.containsKey(matrix) && lastReader(operand)
+                && (other == null || storageKey(other) != storageKey(operand));
+        SharedMatrix working = exclusive && matrix.getOrientation() != VectorOrientation.COLUMN_MAJOR
+                && matrix.getPrecision() == precision ? matrix : matrix.copyRowMajor(precision, bufferPool);
+        working.setDoubleAccumulation(doubleAccumulation);
+        return working;
+    }
+
+    /**
+     * Loads the multiply operands read-only, the left one row-major and the right one column-major so each
+     * output element is one contiguous dot product, and takes a zeroed output matrix from the buffer pool.
+     */
+    private void loadMultiplyOperands(ComputationNode leftNode, ComputationNode rightNode, Precision precision) {
+        leftMatrix = leftNode.getSharedMatrix().toRowMajor(precision, bufferPool);
+        rightMatrix = rightNode.getSharedMatrix().toColumnMajor(precision, bufferPool);
+        if (leftMatrix.columns() != rightMatrix.rows())
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        resultMatrix = SharedMatrix.allocate(leftMatrix.rows(), rightMatrix.columns(), precision, bufferPool);
+        resultMatrix.setDoubleAccumulation(doubleAccumulation);
+    }
+
+    private void finishMultiply(ComputationNode node, ComputationNode leftNode, ComputationNode rightNode) {
+        recycleTemporary(leftMatrix, leftNode);
+        recycleTemporary(rightMatrix, rightNode);
+        resolveDense(node, resultMatrix);
+    }
+
+    private void computeGeneral(ComputationNode node) {
+        if (node.getNodeType() == ComputationNodeType.SOLVE || node.getNodeType() == ComputationNodeType.INVERSE) {
+            computeLU(node); // LU works on dense copies whatever the operands' storage
+            return;
+        }
+        SparseMatrix leftSparse = toSparse(node.getChildren().getFirst());
+        SparseMatrix rightSparse = node.getChildren().size() > 1 ? toSparse(node.getChildren().get(1)) : null;
+        if (leftSparse != null || rightSparse != null) { // any sparse operand routes the node to the sparse kernels
+            loadAndComputeSparse(node, leftSparse, rightSparse);
+            return;
+        }
+        ComputationNode leftNode = node.getChildren().getFirst();
+        ComputationNode rightNode = node.getChildren().size() > 1 ? node.getChildren().get(1) : null;
+        Precision resultPrecision = resultPrecision(node);
+        switch (node.getNodeType()) {
+            case TRANSPOSE: {
+                SharedMatrix operand = leftNode.getSharedMatrix();
+                SharedMatrix view = operand.transpose(); // a view over the operand's vectors, nothing is copied
+                Long age = intermediates.remove(operand);
+                if (age != null && lastReader(leftNode))
+                    intermediates.put(view, age); // otherwise the storage stays shared and is left to the GC
+                node.resolve(view);
+                node.setPrecision(leftNode.getPrecision());
+                return;
+            }
+            case ADD:
+                // checked before dispatching, so a mismatch is reported before any row is written
+                if (leftNode.getRows() != rightNode.getRows() || leftNode.getColumns() != rightNode.getColumns())
+                    throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+                leftMatrix = workingCopy(leftNode, rightNode, resultPrecision);
+                rightMatrix = rightNode.getSharedMatrix().toRowMajor(resultPrecision, bufferPool); // rows are added pairwise
+                executor.forRange(leftMatrix.length(), addRows);
+                recycleTemporary(rightMatrix, rightNode);
+                resolveDense(node, leftMatrix);
+                return;
+            case MULTIPLY:
+                if (strassenCutoff > 0 && Math.min(leftNode.getRows(), Math.min(leftNode.getColumns(), rightNode.getColumns())) > strassenCutoff) {
+                    multiplyStrassen(node, leftNode, rightNode, resultPrecision);
+                    return;
+                }
+                loadMultiplyOperands(leftNode, rightNode, resultPrecision);
+                executor.forRange(leftMatrix.length(), multiplyRows);
+                finishMultiply(node, leftNode, rightNode);
+                return;
+            case NEGATE:
+                leftMatrix = workingCopy(leftNode, null, resultPrecision);
+                executor.forRange(leftMatrix.length(), negateRows);
+                resolveDense(node, leftMatrix);
+                return;
+            default:
+                throw new IllegalArgumentException("Unknown operation");
+        }
+    }
+
+    /**
+     * Solves A X = B (SOLVE) or A X = I (INVERSE) with a blocked LU factorization of A. Every panel is factored
+     * on this thread, which also detects singular matrices; the updates of the columns to its right, and then
+     * the substitutions for the columns of B, run as parallel tasks over column ranges.
+     */
+    private void computeLU(ComputationNode node) {
+        ComputationNode leftNode = node.getChildren().getFirst();
+        ComputationNode rightNode = node.getNodeType() == ComputationNodeType.SOLVE ? node.getChildren().get(1) : null;
+        if (leftNode.getRows() != leftNode.getColumns())
+            throw new IllegalArgumentException("Illegal operation: matrix is not square");
+        if (rightNode != null && rightNode.getRows() != leftNode.getRows())
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        LUDecomposition lu = leftNode.isSparse() // dense operands are read in place, not copied to an array first
+                ? new LUDecomposition(leftNode.getMatrix(), LUDecomposition.DEFAULT_BLOCK_SIZE)
+                : new LUDecomposition(leftNode.getSharedMatrix(), LUDecomposition.DEFAULT_BLOCK_SIZE);
+        int n = lu.size();
+        for (int start = 0; start < n; start += LUDecomposition.DEFAULT_BLOCK_SIZE) {
+            lu.factorPanel(start);
+            final int panel = start;
+            int end = lu.panelEnd(start);
+            if (end < n)
+                executor.forRange(n - end, (from, to) -> lu.updateColumns(panel, end + from, end + to));
+        }
+        double[][] x;
+        if (rightNode == null)
+            x = lu.permute(LUDecomposition.identity(n));
+        else
+            x = rightNode.isSparse() ? lu.permute(rightNode.getMatrix()) : lu.permute(rightNode.getSharedMatrix());
+        int columns = x.length == 0 ? 0 : x[0].length;
+        executor.forRange(columns, (from, to) -> lu.solveColumns(x, from, to));
+        resolveDense(node, x, resultPrecision(node));
+    }
+
+    private void multiplyStrassen(ComputationNode node, ComputationNode leftNode, ComputationNode rightNode, Precision resultPrecision) {
+        if (leftNode.getColumns() != rightNode.getRows())
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        resolveDense(node, strassen(StrassenWinograd.split(leftNode.getSharedMatrix(), rightNode.getSharedMatrix())), resultPrecision);
+    }
+
+    /**
+     * Runs the seven products of one Strassen-Winograd level as parallel tasks. Backends that support nested
+     * tasks split every product again the same way down to the cutoff; otherwise the products recurse sequentially.
+     */
+    private double[][] strassen(double[][] a, double[][] b, boolean parallel) {
+        int size = Math.min(a.length, Math.min(b.length, b.length == 0 ? 0 : b[0].length));
+        if (!parallel || size <= strassenCutoff)
+            return StrassenWinograd.multiply(a, b, strassenCutoff);
+        return strassen(StrassenWinograd.split(a, b));
+    }
+
+    private double[][] strassen(StrassenWinograd.Split split) {
+        boolean nested = executor.supportsNestedTasks();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int p = 0; p < StrassenWinograd.PRODUCTS; p++) {
+            final int product = p;
+            tasks.add(() -> split.computeProduct(product, (x, y) -> strassen(x, y, nested)));
+        }
+        executor.submitAll(tasks);
+        return split.combine();
+    }
+
+    private void loadAndComputeSparse(ComputationNode node, SparseMatrix left, SparseMatrix right) {
+        ComputationNode leftNode = node.getChildren().getFirst();
+        Precision resultPrecision = resultPrecision(node); // sparse kernels compute in double, dense results are stored in this
+        switch (node.getNodeType()) {
+            case NEGATE:
+                resolveSparse(node, left.negate());
+                return;
+            case TRANSPOSE:
+                resolveSparse(node, left.transpose()); // CSR of A is CSC of A^T, no data is moved
+                return;
+            case ADD:
+            case MULTIPLY:
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation");
+        }
+        ComputationNode rightNode = node.getChildren().get(1);
+        if (node.getNodeType() == ComputationNodeType.ADD) {
+            if (left != null && right != null) {
+                // checked before dispatching, like the dense ADD, so the mismatch reaches the caller as such
+                if (left.rows() != right.rows() || left.columns() != right.columns())
+                    throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+                SparseMatrix rightAligned = right.toOrientation(left.getOrientation());
+                int majors = left.getOrientation() == VectorOrientation.ROW_MAJOR ? left.rows() : left.columns();
+                SparseMatrix.CompressedVector[] sum = new SparseMatrix.CompressedVector[majors];
+                executor.forRange(majors, (from, to) -> left.addVectors(rightAligned, from, to, sum));
+                resolveSparse(node, SparseMatrix.fromVectors(left.rows(), left.columns(), left.getOrientation(), sum));
+            } else {
+                SparseMatrix sparse = (left != null ? left : right).toOrientation(VectorOrientation.ROW_MAJOR);
+                SharedMatrix dense = (left != null ? rightNode : leftNode).getSharedMatrix(); // read row by row in place
+                if (dense.rows() != sparse.rows() || dense.columns() != sparse.columns())
+                    throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+                double[][] sum = new double[dense.rows()][];
+                executor.forRange(sum.length, (from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        sum[i] = new double[sparse.columns()];
+                        dense.readRow(i, sum[i]);
+                        sparse.addRowTo(i, sum[i]);
+                    }
+                });
+                resolveDense(node, sum, resultPrecision);
+            }
+            return;
+        }
+        int leftColumns = left != null ? left.columns() : leftNode.getColumns();
+        int rightLength = right != null ? right.rows() : rightNode.getRows();
+        if (leftColumns != rightLength)
+            throw new IllegalArgumentException("Illegal operation: dimensions mismatch");
+        if (left != null && right != null) {
+            SparseMatrix leftCsr = left.toOrientation(VectorOrientation.ROW_MAJOR);
+            SparseMatrix rightCsr = right.toOrientation(VectorOrientation.ROW_MAJOR);
+            SparseMatrix.CompressedVector[] product = new SparseMatrix.CompressedVector[leftCsr.rows()];
+            executor.forRange(leftCsr.rows(), (from, to) -> leftCsr.multiplyRows(rightCsr, from, to, product));
+            resolveSparse(node, SparseMatrix.fromVectors(leftCsr.rows(), rightCsr.columns(), VectorOrientation.ROW_MAJOR, product));
+        } else if (left != null) {
+            SparseMatrix leftCsr = left.toOrientation(VectorOrientation.ROW_MAJOR);
+            SharedMatrix dense = rightNode.getSharedMatrix();
+            double[][] product = new double[leftCsr.rows()][dense.columns()];
+            executor.forRange(leftCsr.rows(), (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    leftCsr.multiplyRow(i, dense, product[i]);
+                }
+            });
+            resolveDense(node, product, resultPrecision);
+        } else {
+            SharedMatrix dense = leftNode.getSharedMatrix();
+            double[][] product = new double[dense.rows()][right.columns()];
+            executor.forRange(product.length, (from, to) -> {
+                double[] row = new double[dense.columns()];
+                for (int i = from; i < to; i++) {
+                    dense.readRow(i, row);
+                    right.multiplyDenseRow(row, product[i]);
+                }
+            });
+            resolveDense(node, product, resultPrecision);
+        }
+    }
+
+    /**
+     * Returns the operand in sparse form, or null when it should be processed densely.
+     * Dense leaves below the density threshold are compressed here, at load time.
+     */
+    private SparseMatrix toSparse(ComputationNode operand) {
+        if (operand.isSparse())
+            return operand.getSparseMatrix();
+        SharedMatrix matrix = operand.getSharedMatrix();
+        if (SparseMatrix.isSparseEnough(matrix, sparseThreshold))
+            return SparseMatrix.fromDense(matrix.readRowMajor(), VectorOrientation.ROW_MAJOR);
+        return null;
+    }
+
+    private void resolveDense(ComputationNode node, double[][] result, Precision resultPrecision) {
+        if (SparseMatrix.isSparseEnough(result, sparseThreshold))
+            node.resolve(SparseMatrix.fromDense(result, VectorOrientation.ROW_MAJOR));
+        else
+            track(node, denseResult(result, resultPrecision));
+    }
+
+    /**
+     * Stores a result computed into a double[][], adopting the array itself when it already has the right form.
+     */
+    private SharedMatrix denseResult(double[][] result, Precision resultPrecision) {
+        if (resultPrecision == Precision.DOUBLE && !bufferPool.isOffHeap())
+            return SharedMatrix.wrapRowMajor(result);
+        SharedMatrix matrix = new SharedMatrix();
+        matrix.loadRowMajor(result, resultPrecision, bufferPool);
+        return matrix;
+    }
+
+    private void resolveDense(ComputationNode node, SharedMatrix result) {
+        if (SparseMatrix.isSparseEnough(result, sparseThreshold))
+            node.resolve(SparseMatrix.fromDense(result.readRowMajor(), VectorOrientation.ROW_MAJOR));
+        else
+            track(node, result);
+    }
+
+    /**
+     * Resolves a node to freshly computed dense storage, which may be recycled once the parent consumed it.
+     */
+    private void track(ComputationNode node, SharedMatrix result) {
+        node.resolve(result);
+        intermediates.put(result, resultSequence++);
+    }
+
+    private void resolveSparse(ComputationNode node, SparseMatrix result) {
+        if (result.density() >= sparseThreshold) {
+            track(node, denseResult(result.toDense(), precision));
+            node.setPrecision(null); // computed in double by the sparse kernels, stored in the job's default from here on
+        } else {
+            node.resolve(result);
+        }
+    }
+
+    private void addRow(int row) {
+        leftMatrix.get(row).add(rightMatrix.get(row));
+    }
+
+    private void multiplyRow(int row) {
+        leftMatrix.get(row).vecMatMul(rightMatrix, resultMatrix.get(row));
+    }
+
+    private void negateRow(int row) {
+        leftMatrix.get(row).negate();
+    }
+
+    private void scaleRow(int row, double[] factors) {
+        // diagonal × matrix: row i of leftMatrix is scaled by the i-th diagonal entry
+        leftMatrix.get(row).scale(factors[row]);
+    }
+
+    private void scaleColumnsOfRow(int row, double[] factors) {
+        // matrix × diagonal: column j of leftMatrix is scaled by the j-th diagonal entry
+        leftMatrix.get(row).scale(factors);
+    }
+
+    private void triangularLeftMultiplyRow(int row, boolean upper) {
+        // row i of a triangular leftMatrix is zero before (upper) or after (lower) column i
+        SharedVector leftRow = leftMatrix.get(row);
+        if (upper)
+            leftRow.vecMatMul(rightMatrix, row, rightMatrix.rows(), resultMatrix.get(row));
+        else
+            leftRow.vecMatMul(rightMatrix, 0, row + 1, resultMatrix.get(row));
+    }
+
+    private void triangularRightMultiplyRow(int row, boolean upper) {
+        leftMatrix.get(row).vecTriangularMatMul(rightMatrix, upper, resultMatrix.get(row));
+    }
+
+    BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    List<String> getVerificationFailures() {
+        return List.copyOf(verificationFailures);
+    }
+
+    long getCurrentMatrixBytes() {
+        return liveBytes;
+    }
+
+    long getPeakMatrixBytes() {
+        return peakBytes;
+    }
+}
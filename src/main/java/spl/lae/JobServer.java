@@ -0,0 +1,196 @@
+package spl.lae;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import parser.*;
+import scheduling.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * A long-running HTTP front end for one warm engine, so small jobs do not pay for JVM startup, class loading
+ * and a cold JIT every time. Endpoints:
+ * <ul>
+ *   <li>POST /jobs with a job in InputParser's format, one expression or several named ones: 200 with the
+ *   output the command line writes for it, or 400 with its error</li>
+ *   <li>GET /health: {"status": "ok"}</li>
+ *   <li>GET /metrics: job counts and latencies, plus the executor's worker report</li>
+ * </ul>
+ * Each request is handled on its own virtual thread and all jobs share the engine's executor.
+ */
+public class JobServer implements AutoCloseable {
+
+    private static final int WARM_UP_SIZE = 96;
+
+    private final HttpServer server;
+    private final LinearAlgebraEngine engine;
+    private final ExecutorService handlers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Path baseDirectory; // referenced .mtx files are resolved against it
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final long startTime = System.nanoTime();
+    private final AtomicLong activeJobs = new AtomicLong();
+    private final AtomicLong completedJobs = new AtomicLong();
+    private final AtomicLong failedJobs = new AtomicLong();
+    private final AtomicLong totalJobNanos = new AtomicLong();
+    private final LongAccumulator maxJobNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLong warmUpJobs = new AtomicLong();
+
+    /**
+     * Binds the server (port 0 picks a free one) with an engine running on kernels, which the server shuts
+     * down on close. Call {@link #start()} to accept requests.
+     */
+    public JobServer(InetSocketAddress address, ParallelExecutor kernels, Path baseDirectory) throws IOException {
+        this.engine = new LinearAlgebraEngine(kernels, false);
+        this.baseDirectory = baseDirectory;
+        this.server = HttpServer.create(address, 0);
+        server.createContext("/jobs", this::handleJob);
+        server.createContext("/health", this::handleHealth);
+        server.createContext("/metrics", this::handleMetrics);
+        server.setExecutor(handlers);
+    }
+
+    public LinearAlgebraEngine getEngine() {
+        return engine;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Runs the given number of synthetic jobs covering the dense kernels (multiply, add, negate, transpose,
+     * solve), so the JIT has compiled them before the first real request arrives.
+     */
+    public void warmUp(int jobs) {
+        Random random = new Random(jobs);
+        for (int job = 0; job < jobs; job++) {
+            double[][] a = randomMatrix(random, WARM_UP_SIZE);
+            double[][] b = randomMatrix(random, WARM_UP_SIZE);
+            double[][] shifted = randomMatrix(random, WARM_UP_SIZE);
+            for (int i = 0; i < WARM_UP_SIZE; i++) {
+                shifted[i][i] += WARM_UP_SIZE; // diagonally dominant, so never singular
+            }
+            ComputationNode product = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(new ComputationNode(a), new ComputationNode(b)));
+            ComputationNode sum = new ComputationNode(ComputationNodeType.ADD, List.of(product,
+                    new ComputationNode(ComputationNodeType.NEGATE, List.of(new ComputationNode(b)))));
+            ComputationNode transposed = new ComputationNode(ComputationNodeType.TRANSPOSE, List.of(sum));
+            engine.run(new ComputationNode(ComputationNodeType.SOLVE, List.of(new ComputationNode(shifted), transposed)));
+            warmUpJobs.incrementAndGet();
+        }
+    }
+
+    private void handleJob(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            sendError(exchange, 405, "Jobs are submitted with POST");
+            return;
+        }
+        activeJobs.incrementAndGet();
+        long start = System.nanoTime();
+        Map<String, ComputationNode> results = null;
+        String error = null;
+        int status = 200;
+        try {
+            Map<String, ComputationNode> roots = new InputParser().parseJob(exchange.getRequestBody(), baseDirectory);
+            for (ComputationNode root : roots.values()) {
+                root.rewritePowers();
+                root.associativeNesting();
+            }
+            results = engine.runAll(roots);
+        } catch (ParseException | IllegalArgumentException e) {
+            status = 400;
+            error = String.valueOf(e.getMessage());
+        } catch (Throwable e) { // an Error too, e.g. OutOfMemoryError, is answered and counted as a failed job
+            status = 500;
+            error = String.valueOf(e.getMessage());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            activeJobs.decrementAndGet();
+            totalJobNanos.addAndGet(elapsed);
+            maxJobNanos.accumulate(elapsed);
+            (error == null ? completedJobs : failedJobs).incrementAndGet();
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, 0);
+        if (error == null)
+            OutputWriter.write(results, exchange.getResponseBody());
+        else
+            OutputWriter.write(error, exchange.getResponseBody());
+        exchange.close();
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        sendJson(exchange, 200, Map.of("status", "ok"));
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        long jobs = completedJobs.get() + failedJobs.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("uptimeSeconds", (System.nanoTime() - startTime) / 1e9);
+        metrics.put("warmUpJobs", warmUpJobs.get());
+        metrics.put("activeJobs", activeJobs.get());
+        metrics.put("completedJobs", completedJobs.get());
+        metrics.put("failedJobs", failedJobs.get());
+        metrics.put("meanJobMillis", jobs == 0 ? 0 : totalJobNanos.get() / 1e6 / jobs);
+        metrics.put("maxJobMillis", maxJobNanos.get() / 1e6);
+        metrics.put("workers", engine.getWorkerReport().lines().toList());
+        sendJson(exchange, 200, metrics);
+    }
+
+    private void sendError(HttpExchange exchange, int status, String error) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, 0);
+        OutputWriter.write(error, exchange.getResponseBody());
+        exchange.close();
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static double[][] randomMatrix(Random random, int size) {
+        double[][] matrix = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                matrix[i][j] = random.nextDouble() - 0.5;
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Stops accepting requests, lets the ones in progress finish, then shuts the executor down. If interrupted
+     * while the executor shuts down, returns with the thread's interrupt flag set.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        handlers.close();
+        try {
+            engine.shutdown();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,122 +4,286 @@ import parser.*;
 import memory.*;
 import scheduling.*;
 
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+/**
+ * Evaluates computation trees on a parallel executor. The engine itself only holds settings: every run
+ * gets its own {@link JobContext}, so several threads may run jobs on one engine at the same time, sharing
+ * its executor and keeping the thread pool warm between jobs. Settings are read when a job starts.
+ */
 public class LinearAlgebraEngine {
 
-    private SharedMatrix leftMatrix = new SharedMatrix();
-    private SharedMatrix rightMatrix = new SharedMatrix();
-    private TiredExecutor executor;
+    private final ParallelExecutor executor;
+    private final boolean ownsExecutor; // run shuts the executor down when it ends
+    private volatile double sparseThreshold = SparseMatrix.DEFAULT_DENSITY_THRESHOLD; // operands below this density use sparse kernels
+    private volatile Precision precision = Precision.DOUBLE; // storage precision of leaves that do not request one
+    private volatile boolean doubleAccumulation = false; // FLOAT products accumulate in double precision
+    private volatile int strassenCutoff = 0; // dense multiplies larger than this in every dimension use Strassen-Winograd, 0 disables
+    private volatile int verificationRounds = 0; // Freivalds rounds per MULTIPLY node, 0 disables
+    private volatile boolean offHeap = false; // each job keeps its results in its own off-heap arena
+    private volatile long memoryBudget = Long.MAX_VALUE; // live intermediate bytes above which results are spilled
+    private volatile ScratchSpace scratchSpace = null;
+    private volatile ExecutionProfiler profiler = null; // records every computed node when set
+    private final ThreadLocal<JobStatistics> lastStatistics = ThreadLocal.withInitial(() -> JobStatistics.NONE);
+
+    /**
+     * The settings a job runs with, copied when it starts.
+     */
+    record Settings(double sparseThreshold, Precision precision, boolean doubleAccumulation, int strassenCutoff,
+                    int verificationRounds, boolean offHeap, long memoryBudget, ScratchSpace scratchSpace,
+                    ExecutionProfiler profiler) {
+    }
+
+    /**
+     * What a finished job reports, copied out of its {@link JobContext} so nothing of the job stays reachable.
+     */
+    private record JobStatistics(List<String> verificationFailures, long currentMatrixBytes, long peakMatrixBytes,
+                                 long bufferPoolHits) {
+        static final JobStatistics NONE = new JobStatistics(List.of(), 0, 0, 0);
+
+        static JobStatistics of(JobContext job) {
+            return new JobStatistics(job.getVerificationFailures(), job.getCurrentMatrixBytes(),
+                    job.getPeakMatrixBytes(), job.getBufferPool().hits());
+        }
+    }
 
     public LinearAlgebraEngine(int numThreads) {
         // TODO: create executor with given thread count
-        executor = new TiredExecutor(numThreads);
+        this(new TiredExecutor(numThreads));
+    }
+
+    /**
+     * Runs the kernels on the given backend, e.g. a {@link ForkJoinExecutor}. The engine shuts it down when run ends.
+     */
+    public LinearAlgebraEngine(ParallelExecutor executor) {
+        this(executor, true);
+    }
+
+    /**
+     * Runs the kernels on the given backend; with ownsExecutor false the backend outlives each job, so the engine
+     * can run many jobs, also concurrently (see {@link ConcurrentJobRunner}), until {@link #shutdown()}.
+     */
+    public LinearAlgebraEngine(ParallelExecutor executor, boolean ownsExecutor) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Sets the density (fraction of nonzeros) under which operands and results are stored sparsely.
+     * A threshold of 0 disables sparse storage.
+     */
+    public void setSparseThreshold(double sparseThreshold) {
+        if (sparseThreshold < 0 || sparseThreshold > 1)
+            throw new IllegalArgumentException("Sparse threshold must be between 0 and 1");
+        this.sparseThreshold = sparseThreshold;
+    }
+
+    /**
+     * Sets the job's default storage precision. Leaves that request a precision keep it; a node is computed
+     * in FLOAT only when all of its operands are FLOAT, otherwise in DOUBLE.
+     */
+    public void setPrecision(Precision precision) {
+        this.precision = precision;
+    }
+
+    /**
+     * Makes FLOAT dot products accumulate in double precision, trading a little speed for accuracy on long rows.
+     */
+    public void setDoubleAccumulation(boolean doubleAccumulation) {
+        this.doubleAccumulation = doubleAccumulation;
+    }
+
+    /**
+     * Enables Strassen-Winograd for general dense multiplies whose dimensions all exceed cutoff; the recursion
+     * switches to the classical kernel once a block gets that small. Its seven top-level products run in
+     * parallel on the executor. A cutoff of 0 disables it. See StrassenBenchmark for the crossover on a machine.
+     */
+    public void setStrassenCutoff(int cutoff) {
+        if (cutoff < 0)
+            throw new IllegalArgumentException("Strassen cutoff must not be negative");
+        this.strassenCutoff = cutoff;
+    }
+
+    /**
+     * Checks every MULTIPLY result with the given number of rounds of Freivalds' algorithm, each costing
+     * a few parallel matrix-vector products. A wrong result passes a round with probability at most 1/2.
+     * Mismatches are listed by getVerificationFailures. 0 disables verification.
+     */
+    public void setVerificationRounds(int rounds) {
+        if (rounds < 0)
+            throw new IllegalArgumentException("Verification rounds must not be negative");
+        this.verificationRounds = rounds;
+    }
+
+    /**
+     * One line per MULTIPLY node, of the last job run on the calling thread, whose result failed verification.
+     */
+    public List<String> getVerificationFailures() {
+        return lastStatistics.get().verificationFailures();
+    }
+
+    /**
+     * Keeps computed matrices outside the Java heap, in an {@link OffHeapArena}, so large jobs do not
+     * drive GC pauses or heap sizing. Leaves stay where the parser put them; everything the engine allocates
+     * (results, converted or repacked operands) goes off-heap and is recycled through the buffer pool as soon
+     * as it is consumed. Every job gets its own arena, closed when the job ends; the result is copied to the heap
+     * first. The arena's direct buffers count against {@code -XX:MaxDirectMemorySize}, which defaults to the
+     * maximum heap size, so raise it for jobs whose live intermediates exceed that.
+     */
+    public void setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Bounds the memory held by intermediate results. Whenever the live intermediates exceed maxLiveBytes,
+     * the oldest ones are spilled to memory-mapped files in scratchDirectory, and paged back in
+     * when their parent node runs. Leaves are not counted: they are the job's input.
+     */
+    public void setMemoryBudget(long maxLiveBytes, Path scratchDirectory) {
+        if (maxLiveBytes < 0)
+            throw new IllegalArgumentException("Memory budget must not be negative");
+        this.memoryBudget = maxLiveBytes;
+        this.scratchSpace = new ScratchSpace(scratchDirectory);
+    }
+
+    /**
+     * Records every node of the jobs started from now on into profiler, or stops profiling if it is null
+     * (the default). Profiled jobs time every task, so they allocate per kernel dispatch.
+     */
+    public void setProfiler(ExecutionProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Bytes of intermediate results written to scratch files so far.
+     */
+    public long getSpilledBytes() {
+        return scratchSpace == null ? 0 : scratchSpace.spilledBytes();
+    }
+
+    /**
+     * Matrix bytes (leaves and results, excluding spilled ones) still referenced when the last job run on
+     * the calling thread ended: the size of its result.
+     */
+    public long getCurrentMatrixBytes() {
+        return lastStatistics.get().currentMatrixBytes();
+    }
+
+    /**
+     * Largest value the live matrix bytes reached during the last job run on the calling thread: every live
+     * matrix plus the result being computed. Scratch copies made by the kernels are not counted.
+     */
+    public long getPeakMatrixBytes() {
+        return lastStatistics.get().peakMatrixBytes();
     }
 
     public ComputationNode run(ComputationNode computationRoot) {
         // TODO: resolve computation tree step by step until final matrix is produced
-        ComputationNode resolvable = computationRoot.findResolvable();
-        while (resolvable != null) {
-            this.loadAndCompute(resolvable);
-            resolvable = computationRoot.findResolvable();
+        try {
+            runJob(computationRoot);
+        } finally {
+            shutdownIfOwned(); // also when the job fails, or the workers would keep the JVM alive
         }
+        return computationRoot;
+
+    }
+
+    /**
+     * Evaluates several named trees, each as its own job on a virtual thread, so their kernels share the
+     * executor. Trees may read the same leaf storage (see {@link InputParser#parseJob}) but not the same nodes.
+     * Returns the results in the order of roots; if any tree fails, the first failure in that order is thrown
+     * once all of them have finished. Jobs run on their own threads do not update the calling thread's statistics.
+     */
+    public Map<String, ComputationNode> runAll(Map<String, ComputationNode> roots) {
+        Map<String, ComputationNode> results = new LinkedHashMap<>();
+        if (roots.size() == 1) {
+            Map.Entry<String, ComputationNode> root = roots.entrySet().iterator().next();
+            results.put(root.getKey(), run(root.getValue()));
+            return results;
+        }
+        Map<String, Future<ComputationNode>> futures = new LinkedHashMap<>();
+        try {
+            try (ExecutorService jobs = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (Map.Entry<String, ComputationNode> root : roots.entrySet()) {
+                    futures.put(root.getKey(), jobs.submit(() -> newJob().run(root.getValue())));
+                }
+            }
+            for (Map.Entry<String, Future<ComputationNode>> future : futures.entrySet()) {
+                try {
+                    results.put(future.getKey(), future.getValue().get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException runtimeException)
+                        throw runtimeException;
+                    if (e.getCause() instanceof Error error)
+                        throw error;
+                    throw new IllegalStateException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for " + future.getKey(), e);
+                }
+            }
+        } finally {
+            shutdownIfOwned();
+        }
+        return results;
+    }
+
+    private void shutdownIfOwned() {
+        if (!ownsExecutor)
+            return;
         try {
             executor.shutdown();
         } catch (InterruptedException e) {
-            return null;
+            Thread.currentThread().interrupt();
         }
-        return computationRoot;
+    }
 
+    private JobContext newJob() {
+        return new JobContext(executor, new Settings(sparseThreshold, precision, doubleAccumulation, strassenCutoff,
+                verificationRounds, offHeap, memoryBudget, scratchSpace, profiler));
     }
 
+    /**
+     * Runs the tree as a job of its own and records its statistics for the calling thread.
+     */
+    private void runJob(ComputationNode computationRoot) {
+        JobContext job = newJob();
+        try {
+            job.run(computationRoot);
+        } finally {
+            lastStatistics.set(JobStatistics.of(job)); // drops the previous job's statistics, not the job itself
+        }
+    }
+
+    /**
+     * Resolves a single node whose operands are all matrices, as a job of its own. The executor stays up.
+     */
     public void loadAndCompute(ComputationNode node) {
         // TODO: load operand matrices
         // TODO: create compute tasks & submit tasks to executor
-        if(!(node.getNodeType() == ComputationNodeType.TRANSPOSE))
-            leftMatrix.loadRowMajor(node.getChildren().getFirst().getMatrix());
+        runJob(node);
+    }
 
-        if (node.getChildren().size() > 1) {
-            rightMatrix.loadRowMajor(node.getChildren().get(1).getMatrix());
-        }
-        List<Runnable> tasks;
-        switch (node.getNodeType()) {
-            case ADD:
-                tasks = createAddTasks();
-                break;
-            case MULTIPLY:
-                tasks = createMultiplyTasks();
-                break;
-            case NEGATE:
-                tasks = createNegateTasks();
-                break;
-            case TRANSPOSE:
-                leftMatrix.loadColumnMajor(node.getChildren().getFirst().getMatrix());
-                tasks = createTransposeTasks();
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown operation");
-        }
-        executor.submitAll(tasks);
-        node.resolve(leftMatrix.readRowMajor());
-    }
-
-    public List<Runnable> createAddTasks() {
-        // TODO: return tasks that perform row-wise addition
-        List<Runnable> tasks = new ArrayList<>();
-        for (int i = 0; i < leftMatrix.length(); i++) {
-            final int row = i;
-            Runnable addTask = () -> {
-                SharedVector leftRow = leftMatrix.get(row);
-                SharedVector rightRow = rightMatrix.get(row);
-                leftRow.add(rightRow);
-            };
-            tasks.add(addTask);
-        }
-        return tasks;
-    }
-
-    public List<Runnable> createMultiplyTasks() {
-        // TODO: return tasks that perform row × matrix multiplication
-        List<Runnable> tasks = new ArrayList<>();
-        for (int i = 0; i < leftMatrix.length(); i++) {
-            final int row = i;
-            Runnable addTask = () -> {
-                SharedVector leftRow = leftMatrix.get(row);
-                leftRow.vecMatMul(rightMatrix);
-            };
-            tasks.add(addTask);
-        }
-        return tasks;
-    }
-
-    public List<Runnable> createNegateTasks() {
-        // TODO: return tasks that negate rows
-        List<Runnable> tasks = new ArrayList<>();
-        for (int i = 0; i < leftMatrix.length(); i++) {
-            final int row = i;
-            Runnable addTask = () -> {
-                SharedVector leftRow = leftMatrix.get(row);
-                leftRow.negate();
-            };
-            tasks.add(addTask);
-        }
-        return tasks;
-    }
-
-    public List<Runnable> createTransposeTasks() {
-        // TODO: return tasks that transpose rows
-        List<Runnable> tasks = new ArrayList<>();
-        for (int i = 0; i < leftMatrix.length(); i++) {
-            final int row = i;
-            Runnable addTask = () -> {
-                SharedVector leftRow = leftMatrix.get(row);
-                leftRow.transpose();
-            };
-            tasks.add(addTask);
-        }
-        return tasks;
+    /**
+     * Storage requests of the last job run on the calling thread that were served by recycling storage
+     * of its consumed intermediate results.
+     */
+    public long getBufferPoolHits() {
+        return lastStatistics.get().bufferPoolHits();
+    }
+
+    /**
+     * Shuts the executor down, for engines created with ownsExecutor false once they have run their last job.
+     */
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
     }
 
     public String getWorkerReport() {
@@ -1,28 +1,53 @@
 package spl.lae;
 
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 
 import parser.*;
+import scheduling.*;
 
 public class Main {
     public static void main(String[] args) throws IOException {
         // TODO: main
+        if (args.length > 0 && args[0].equals("serve")) {
+            serve(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("batch")) {
+            batch(args);
+            return;
+        }
         long startTime = System.nanoTime();
         int numThreads = Integer.parseInt(args[0]);
         String inputPath = args[1];
         String outputPath = args[2];
+        String backend = args.length > 3 ? args[3] : "tired"; // optional: tired or forkjoin
+        String tracePath = args.length > 4 ? args[4] : null; // optional: profile every node into this Chrome trace
 
         try {
             InputParser parser = new InputParser();
-            LinearAlgebraEngine engine = new LinearAlgebraEngine(numThreads);
+            LinearAlgebraEngine engine = new LinearAlgebraEngine(createExecutor(backend, numThreads));
+            ExecutionProfiler profiler = tracePath != null ? new ExecutionProfiler() : null;
+            engine.setProfiler(profiler);
 
-            ComputationNode root = parser.parse(inputPath);
-            root.associativeNesting(); // Convert n-ary operations to binary (left-associative)
+            Map<String, ComputationNode> roots = parser.parseJob(inputPath); // one expression, or several named ones
+            for (ComputationNode root : roots.values()) {
+                root.rewritePowers(); // A * A * A becomes A^3, evaluated by repeated squaring
+                root.associativeNesting(); // Convert n-ary operations to binary (left-associative)
+            }
 
-            ComputationNode resultNode = engine.run(root);
+            Map<String, ComputationNode> results = engine.runAll(roots);
 
-            OutputWriter.write(resultNode.getMatrix(), outputPath);
+            OutputWriter.write(results, outputPath);
             System.out.println(engine.getWorkerReport());
+            if (profiler != null) {
+                profiler.writeChromeTrace(Path.of(tracePath));
+                System.out.print(profiler.summary());
+            }
 
             long endTime = System.nanoTime();
             double seconds = (endTime - startTime) / 1_000_000_000.0;
@@ -37,4 +62,57 @@ public class Main {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * serve <number_of_threads> <port> [warm_up_jobs] [tired|forkjoin]: runs a JobServer on the loopback interface until
+     * the JVM is stopped.
+     */
+    private static void serve(String[] args) throws IOException {
+        int numThreads = Integer.parseInt(args[1]);
+        int port = Integer.parseInt(args[2]);
+        int warmUpJobs = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        String backend = args.length > 4 ? args[4] : "tired";
+
+        JobServer server = new JobServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), createExecutor(backend, numThreads), Path.of("."));
+        long startTime = System.nanoTime();
+        server.warmUp(warmUpJobs);
+        System.out.printf("Warmed up with %d jobs in %.2f seconds%n", warmUpJobs, (System.nanoTime() - startTime) / 1e9);
+        server.start();
+        System.out.println("Listening on port " + server.getPort());
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+    }
+
+    /**
+     * batch <number_of_threads> <input_dir_or_glob> <output_dir> [tired|forkjoin]: runs every job file with one
+     * engine and writes BatchRunner's summary next to the results.
+     */
+    private static void batch(String[] args) throws IOException {
+        int numThreads = Integer.parseInt(args[1]);
+        String backend = args.length > 4 ? args[4] : "tired";
+        List<Path> inputs = BatchRunner.findInputs(args[2]);
+        Path outputDirectory = Path.of(args[3]);
+
+        long startTime = System.nanoTime();
+        try {
+            // enough files in flight to keep the kernels busy while others parse and write
+            List<ConcurrentJobRunner.JobReport> reports = BatchRunner.run(inputs, outputDirectory,
+                    createExecutor(backend, numThreads), Math.max(16, 4 * numThreads));
+            long failed = reports.stream().filter(report -> !report.succeeded()).count();
+            System.out.printf("%d files, %d failed, in %.2f seconds (see %s)%n", reports.size(), failed,
+                    (System.nanoTime() - startTime) / 1e9, outputDirectory.resolve(BatchRunner.SUMMARY_FILE));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ParallelExecutor createExecutor(String backend, int numThreads) {
+        switch (backend) {
+            case "tired":
+                return new TiredExecutor(numThreads);
+            case "forkjoin":
+                return new ForkJoinExecutor(numThreads);
+            default:
+                throw new IllegalArgumentException("Unknown executor backend: " + backend);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package spl.lae;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * One node of a job computed by the engine, from loading its operands to releasing them.
+ */
+@Name("lae.NodeEvaluation")
+@Label("Node Evaluation")
+@Category({ "Linear Algebra Engine", "Engine" })
+@Description("A computation node evaluated by LinearAlgebraEngine")
+@Threshold("1 ms")
+final class NodeEvaluationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Left Rows")
+    int leftRows;
+
+    @Label("Left Columns")
+    int leftColumns;
+
+    @Label("Right Rows")
+    @Description("0 for unary operations")
+    int rightRows;
+
+    @Label("Right Columns")
+    int rightColumns;
+
+    @Label("Result Rows")
+    int resultRows;
+
+    @Label("Result Columns")
+    int resultColumns;
+
+    @Label("Sparse")
+    @Description("Whether the result is kept in compressed form")
+    boolean sparse;
+}
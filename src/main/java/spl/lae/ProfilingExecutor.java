@@ -0,0 +1,100 @@
+package spl.lae;
+
+import scheduling.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Wraps a job's executor to time every dispatch and every task of the node being computed, for
+ * {@link ExecutionProfiler}. Each task is wrapped, so unlike the plain executors this allocates per call.
+ */
+final class ProfilingExecutor implements ParallelExecutor {
+
+    private final ParallelExecutor delegate;
+    private volatile Queue<ExecutionProfiler.Dispatch> dispatches = new ConcurrentLinkedQueue<>(); // nested tasks dispatch too
+
+    ProfilingExecutor(ParallelExecutor delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Starts collecting the dispatches of a new node and returns its start time.
+     */
+    long beginNode() {
+        dispatches = new ConcurrentLinkedQueue<>();
+        return System.nanoTime();
+    }
+
+    /**
+     * Returns the dispatches made since {@link #beginNode()}, in the order they started.
+     */
+    List<ExecutionProfiler.Dispatch> endNode() {
+        List<ExecutionProfiler.Dispatch> made = new ArrayList<>(dispatches);
+        made.sort(Comparator.comparingLong(ExecutionProfiler.Dispatch::startNanos));
+        return made;
+    }
+
+    @Override
+    public void submitAll(Iterable<Runnable> tasks) {
+        long start = System.nanoTime();
+        Queue<ExecutionProfiler.TaskSpan> spans = new ConcurrentLinkedQueue<>();
+        List<Runnable> timed = new ArrayList<>();
+        for (Runnable task : tasks) {
+            timed.add(() -> {
+                long taskStart = System.nanoTime();
+                try {
+                    task.run();
+                } finally {
+                    spans.add(span(taskStart));
+                }
+            });
+        }
+        delegate.submitAll(timed);
+        finish(start, spans);
+    }
+
+    @Override
+    public void forRange(int length, RangeTask body) {
+        long start = System.nanoTime();
+        Queue<ExecutionProfiler.TaskSpan> spans = new ConcurrentLinkedQueue<>();
+        delegate.forRange(length, (from, to) -> {
+            long taskStart = System.nanoTime();
+            try {
+                body.run(from, to);
+            } finally {
+                spans.add(span(taskStart));
+            }
+        });
+        finish(start, spans);
+    }
+
+    private static ExecutionProfiler.TaskSpan span(long start) {
+        Thread thread = Thread.currentThread();
+        return new ExecutionProfiler.TaskSpan(thread.threadId(), thread.getName(), start, System.nanoTime());
+    }
+
+    private void finish(long start, Queue<ExecutionProfiler.TaskSpan> spans) {
+        List<ExecutionProfiler.TaskSpan> ran = new ArrayList<>(spans);
+        ran.sort(Comparator.comparingLong(ExecutionProfiler.TaskSpan::startNanos));
+        dispatches.add(new ExecutionProfiler.Dispatch(start, System.nanoTime(), List.copyOf(ran)));
+    }
+
+    @Override
+    public boolean supportsNestedTasks() {
+        return delegate.supportsNestedTasks();
+    }
+
+    @Override
+    public void shutdown() throws InterruptedException {
+        delegate.shutdown();
+    }
+
+    @Override
+    public String getWorkerReport() {
+        return delegate.getWorkerReport();
+    }
+}
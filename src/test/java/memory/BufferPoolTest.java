@@ -0,0 +1,48 @@
+package memory;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BufferPool class.
+ * Tests storage reuse, zeroing of recycled storage and the retained-bytes budget
+ */
+public class BufferPoolTest {
+
+    @Test
+    void testAcquire_ReusesReleasedStorageZeroed() {
+        BufferPool pool = new BufferPool();
+        SharedMatrix matrix = SharedMatrix.allocate(2, 3, Precision.DOUBLE, pool);
+        matrix.get(1).add(new SharedVector(new double[] { 1.0, 2.0, 3.0 }, VectorOrientation.ROW_MAJOR));
+        assertEquals(2, pool.misses());
+
+        matrix.recycle(pool);
+        assertEquals(0, matrix.length());
+        assertEquals(2 * 3 * Double.BYTES, pool.retainedBytes());
+
+        SharedMatrix reused = SharedMatrix.allocate(2, 3, Precision.DOUBLE, pool);
+        assertEquals(2, pool.hits());
+        assertEquals(0, pool.retainedBytes());
+        assertArrayEquals(new double[] { 0.0, 0.0, 0.0 }, reused.readRowMajor()[1]);
+    }
+
+    @Test
+    void testAcquire_KeysByPrecisionAndLength() {
+        BufferPool pool = new BufferPool();
+        SharedMatrix.allocate(1, 4, Precision.FLOAT, pool).recycle(pool);
+
+        SharedMatrix.allocate(1, 4, Precision.DOUBLE, pool);
+        SharedMatrix.allocate(1, 5, Precision.FLOAT, pool);
+        assertEquals(0, pool.hits());
+        SharedMatrix floats = SharedMatrix.allocate(1, 4, Precision.FLOAT, pool);
+        assertEquals(1, pool.hits());
+        assertEquals(Precision.FLOAT, floats.getPrecision());
+    }
+
+    @Test
+    void testRelease_BeyondBudget_IsDropped() {
+        BufferPool pool = new BufferPool(3 * Double.BYTES);
+        SharedMatrix.allocate(2, 3, Precision.DOUBLE, pool).recycle(pool);
+        assertEquals(3 * Double.BYTES, pool.retainedBytes());
+    }
+}
@@ -0,0 +1,128 @@
+package memory;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * Unit tests for LUDecomposition class.
+ * Tests blocked factorization with partial pivoting, solving, inversion and singular matrices
+ */
+public class LUDecompositionTest {
+
+    // ==================== Factorization Tests ====================
+
+    @Test
+    void testSolve_ZeroLeadingPivot_SwapsRows() {
+        double[][] a = { { 0.0, 1.0 }, { 2.0, 3.0 } };
+        double[][] b = { { 4.0 }, { 13.0 } };
+
+        double[][] x = new LUDecomposition(a, 1).factor().solve(b);
+
+        // 0x + y = 4, 2x + 3y = 13 -> x = 0.5, y = 4
+        assertEquals(0.5, x[0][0], 1e-12);
+        assertEquals(4.0, x[1][0], 1e-12);
+    }
+
+    @Test
+    void testFactor_BlockSizes_AgreeWithUnblocked() {
+        double[][] a = randomMatrix(23, 1);
+        double[][] b = randomMatrix(23, 2);
+
+        double[][] unblocked = new LUDecomposition(a, 23).factor().solve(b);
+        double[][] blocked = new LUDecomposition(a, 4).factor().solve(b);
+
+        for (int i = 0; i < 23; i++) {
+            assertArrayEquals(unblocked[i], blocked[i], 1e-9);
+        }
+    }
+
+    @Test
+    void testUpdateColumns_SplitRanges_AgreeWithFullRange() {
+        double[][] a = randomMatrix(12, 3);
+        LUDecomposition split = new LUDecomposition(a, 5);
+        for (int start = 0; start < 12; start += 5) {
+            split.factorPanel(start);
+            int end = split.panelEnd(start);
+            for (int from = end; from < 12; from += 2) { // as the engine's tasks would
+                split.updateColumns(start, from, Math.min(12, from + 2));
+            }
+        }
+        double[][] identity = LUDecomposition.identity(12);
+
+        double[][] expected = new LUDecomposition(a, 5).factor().solve(identity);
+        double[][] actual = split.solve(identity);
+
+        for (int i = 0; i < 12; i++) {
+            assertArrayEquals(expected[i], actual[i], 1e-12);
+        }
+    }
+
+    // ==================== Solve / Inverse Tests ====================
+
+    @Test
+    void testSolve_Identity_ReturnsInverse() {
+        double[][] a = randomMatrix(17, 4);
+
+        double[][] inverse = new LUDecomposition(a, 4).factor().solve(LUDecomposition.identity(17));
+
+        double[][] product = new double[17][17];
+        StrassenWinograd.multiplyClassical(a, inverse, product);
+        double[][] identity = LUDecomposition.identity(17);
+        for (int i = 0; i < 17; i++) {
+            assertArrayEquals(identity[i], product[i], 1e-9);
+        }
+    }
+
+    @Test
+    void testSharedMatrixOperands_AgreeWithArrays() {
+        double[][] a = randomMatrix(9, 6);
+        double[][] b = randomMatrix(9, 7);
+        SharedMatrix columns = new SharedMatrix();
+        columns.loadColumnMajor(a);
+
+        double[][] expected = new LUDecomposition(a, 4).factor().solve(b);
+        LUDecomposition lu = new LUDecomposition(columns, 4).factor();
+        double[][] x = lu.permute(new SharedMatrix(b));
+        lu.solveColumns(x, 0, x[0].length);
+
+        for (int i = 0; i < 9; i++) {
+            assertArrayEquals(expected[i], x[i]);
+        }
+    }
+
+    @Test
+    void testSolve_DimensionMismatch_Throws() {
+        LUDecomposition lu = new LUDecomposition(randomMatrix(3, 5), 2).factor();
+        assertThrows(IllegalArgumentException.class, () -> lu.solve(new double[2][1]));
+    }
+
+    // ==================== Error Tests ====================
+
+    @Test
+    void testFactor_Singular_Throws() {
+        double[][] a = { { 1.0, 2.0 }, { 2.0, 4.0 } };
+        assertThrows(IllegalArgumentException.class, () -> new LUDecomposition(a, 2).factor());
+    }
+
+    @Test
+    void testConstructor_NotSquare_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new LUDecomposition(new double[2][3], 2));
+    }
+
+    /**
+     * A random matrix made diagonally dominant, so it is comfortably invertible.
+     */
+    private static double[][] randomMatrix(int size, long seed) {
+        Random random = new Random(seed);
+        double[][] matrix = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                matrix[i][j] = random.nextDouble() - 0.5;
+            }
+            matrix[i][i] += size;
+        }
+        return matrix;
+    }
+}
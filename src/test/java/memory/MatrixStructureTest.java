@@ -0,0 +1,107 @@
+package memory;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MatrixStructure enum.
+ * Tests structure classification of dense and sparse matrices and propagation through operations
+ */
+public class MatrixStructureTest {
+
+    // ==================== Classification Tests ====================
+
+    @Test
+    void testClassify_Zero() {
+        assertEquals(MatrixStructure.ZERO, MatrixStructure.classify(new double[][] { { 0.0, 0.0 }, { 0.0, 0.0 } }));
+        assertEquals(MatrixStructure.ZERO, MatrixStructure.classify(new double[][] { { 0.0, 0.0, 0.0 } }));
+    }
+
+    @Test
+    void testClassify_IdentityAndDiagonal() {
+        assertEquals(MatrixStructure.IDENTITY, MatrixStructure.classify(new double[][] { { 1.0, 0.0 }, { 0.0, 1.0 } }));
+        assertEquals(MatrixStructure.DIAGONAL, MatrixStructure.classify(new double[][] { { 2.0, 0.0 }, { 0.0, 1.0 } }));
+    }
+
+    @Test
+    void testClassify_Triangular() {
+        assertEquals(MatrixStructure.UPPER_TRIANGULAR, MatrixStructure.classify(new double[][] { { 1.0, 2.0 }, { 0.0, 3.0 } }));
+        assertEquals(MatrixStructure.LOWER_TRIANGULAR, MatrixStructure.classify(new double[][] { { 1.0, 0.0 }, { 2.0, 3.0 } }));
+    }
+
+    @Test
+    void testClassify_SymmetricAndGeneral() {
+        assertEquals(MatrixStructure.SYMMETRIC, MatrixStructure.classify(new double[][] { { 1.0, 2.0 }, { 2.0, 3.0 } }));
+        assertEquals(MatrixStructure.GENERAL, MatrixStructure.classify(new double[][] { { 1.0, 2.0 }, { 4.0, 3.0 } }));
+        assertEquals(MatrixStructure.GENERAL, MatrixStructure.classify(new double[][] { { 1.0, 0.0, 0.0 } }));
+    }
+
+    @Test
+    void testClassify_SparseMatchesDense() {
+        double[][][] samples = {
+                { { 0.0, 0.0 }, { 0.0, 0.0 } },
+                { { 1.0, 0.0 }, { 0.0, 1.0 } },
+                { { 5.0, 0.0 }, { 0.0, 1.0 } },
+                { { 1.0, 2.0 }, { 0.0, 3.0 } },
+                { { 1.0, 0.0 }, { 2.0, 3.0 } },
+                { { 1.0, 2.0 }, { 2.0, 3.0 } },
+                { { 1.0, 2.0 }, { 4.0, 3.0 } },
+        };
+        for (double[][] sample : samples) {
+            MatrixStructure expected = MatrixStructure.classify(sample);
+            assertEquals(expected, SparseMatrix.fromDense(sample, VectorOrientation.ROW_MAJOR).classify());
+            assertEquals(expected, SparseMatrix.fromDense(sample, VectorOrientation.COLUMN_MAJOR).classify());
+        }
+    }
+
+    @Test
+    void testClassify_SharedMatrixInPlaceMatchesDense() {
+        double[][][] samples = {
+                { { 0.0, 0.0 }, { 0.0, 0.0 } },
+                { { 1.0, 0.0 }, { 0.0, 1.0 } },
+                { { 1.0, 2.0 }, { 0.0, 3.0 } },
+                { { 1.0, 0.0 }, { 2.0, 3.0 } },
+                { { 1.0, 2.0 }, { 2.0, 3.0 } },
+                { { 1.0, 2.0 }, { 4.0, 3.0 } },
+                { { 0.0, 0.0, 1.0 } },
+        };
+        for (double[][] sample : samples) {
+            MatrixStructure expected = MatrixStructure.classify(sample);
+            SharedMatrix columns = new SharedMatrix();
+            columns.loadColumnMajor(sample);
+            assertEquals(expected, new SharedMatrix(sample).classify());
+            assertEquals(expected, columns.classify());
+        }
+    }
+
+    // ==================== Propagation Tests ====================
+
+    @Test
+    void testTranspose_SwapsTriangles() {
+        assertEquals(MatrixStructure.LOWER_TRIANGULAR, MatrixStructure.UPPER_TRIANGULAR.transpose());
+        assertEquals(MatrixStructure.SYMMETRIC, MatrixStructure.SYMMETRIC.transpose());
+    }
+
+    @Test
+    void testNegate_IdentityBecomesDiagonal() {
+        assertEquals(MatrixStructure.DIAGONAL, MatrixStructure.IDENTITY.negate());
+        assertEquals(MatrixStructure.ZERO, MatrixStructure.ZERO.negate());
+    }
+
+    @Test
+    void testAdd_KeepsCommonStructure() {
+        assertEquals(MatrixStructure.GENERAL, MatrixStructure.ZERO.add(MatrixStructure.GENERAL));
+        assertEquals(MatrixStructure.DIAGONAL, MatrixStructure.IDENTITY.add(MatrixStructure.IDENTITY));
+        assertEquals(MatrixStructure.UPPER_TRIANGULAR, MatrixStructure.DIAGONAL.add(MatrixStructure.UPPER_TRIANGULAR));
+        assertEquals(MatrixStructure.SYMMETRIC, MatrixStructure.SYMMETRIC.add(MatrixStructure.DIAGONAL));
+        assertEquals(MatrixStructure.GENERAL, MatrixStructure.UPPER_TRIANGULAR.add(MatrixStructure.LOWER_TRIANGULAR));
+    }
+
+    @Test
+    void testMultiply_KeepsCommonStructure() {
+        assertEquals(MatrixStructure.ZERO, MatrixStructure.GENERAL.multiply(MatrixStructure.ZERO));
+        assertEquals(MatrixStructure.SYMMETRIC, MatrixStructure.IDENTITY.multiply(MatrixStructure.SYMMETRIC));
+        assertEquals(MatrixStructure.LOWER_TRIANGULAR, MatrixStructure.LOWER_TRIANGULAR.multiply(MatrixStructure.DIAGONAL));
+        assertEquals(MatrixStructure.GENERAL, MatrixStructure.SYMMETRIC.multiply(MatrixStructure.SYMMETRIC));
+    }
+}
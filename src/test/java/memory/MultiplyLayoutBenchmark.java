@@ -0,0 +1,71 @@
+package memory;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * Compares row × matrix products against a row-major right operand (each column gathered element by element
+ * across rows) and a column-major one (each output element is one contiguous dot product).
+ * Run with: mvn test -Pbenchmark [-Dbenchmark.size=512]
+ */
+public class MultiplyLayoutBenchmark {
+
+    private static final int SIZE = Integer.getInteger("benchmark.size", 384);
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void benchmarkRowMajorVersusColumnMajorRightOperand() {
+        double[][] left = randomMatrix(SIZE, 1);
+        double[][] right = randomMatrix(SIZE, 2);
+        SharedMatrix rowMajor = new SharedMatrix(right);
+        SharedMatrix columnMajor = rowMajor.toColumnMajor(Precision.DOUBLE);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            multiply(left, rowMajor);
+            multiply(left, columnMajor);
+        }
+        long rowNanos = Long.MAX_VALUE, columnNanos = Long.MAX_VALUE;
+        double[][] rowResult = null, columnResult = null;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            rowResult = multiply(left, rowMajor);
+            rowNanos = Math.min(rowNanos, System.nanoTime() - start);
+            start = System.nanoTime();
+            columnResult = multiply(left, columnMajor);
+            columnNanos = Math.min(columnNanos, System.nanoTime() - start);
+        }
+
+        for (int i = 0; i < SIZE; i++) {
+            assertArrayEquals(rowResult[i], columnResult[i], 1e-9);
+        }
+        System.out.printf("multiply %dx%d: row-major right %.1f ms, column-major right %.1f ms (%.1fx)%n",
+                SIZE, SIZE, rowNanos / 1e6, columnNanos / 1e6, (double) rowNanos / columnNanos);
+    }
+
+    private static double[][] multiply(double[][] left, SharedMatrix right) {
+        double[][] result = new double[left.length][];
+        for (int i = 0; i < left.length; i++) {
+            SharedVector row = new SharedVector(left[i].clone(), VectorOrientation.ROW_MAJOR);
+            row.vecMatMul(right);
+            result[i] = new double[row.length()];
+            for (int j = 0; j < result[i].length; j++) {
+                result[i][j] = row.get(j);
+            }
+        }
+        return result;
+    }
+
+    private static double[][] randomMatrix(int size, long seed) {
+        Random random = new Random(seed);
+        double[][] matrix = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                matrix[i][j] = random.nextDouble() - 0.5;
+            }
+        }
+        return matrix;
+    }
+}
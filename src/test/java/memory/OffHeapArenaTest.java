@@ -0,0 +1,91 @@
+package memory;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Unit tests for OffHeapArena class.
+ * Tests aligned slab allocation, off-heap vector kernels, moving results to the heap and closing the arena
+ */
+public class OffHeapArenaTest {
+
+    @Test
+    void testAllocateAligned_SlicesAreAlignedAndDirect() {
+        try (OffHeapArena arena = new OffHeapArena(1024)) {
+            ByteBuffer first = arena.allocateAligned(24);
+            ByteBuffer second = arena.allocateAligned(8);
+            ByteBuffer large = arena.allocateAligned(4096); // larger than a slab, gets its own
+            ByteBuffer third = arena.allocateAligned(16); // still fits the shared slab
+
+            for (ByteBuffer slice : new ByteBuffer[] { first, second, large, third }) {
+                assertTrue(slice.isDirect());
+                assertEquals(0, slice.alignmentOffset(0, OffHeapArena.ALIGNMENT));
+            }
+            assertEquals(24 + 8 + 4096 + 16, arena.allocatedBytes());
+            assertEquals(1024 + 4096 + OffHeapArena.ALIGNMENT, arena.reservedBytes());
+        }
+    }
+
+    @Test
+    void testOffHeapVectors_RunKernels() {
+        try (OffHeapArena arena = new OffHeapArena()) {
+            BufferPool pool = new BufferPool(arena);
+            SharedMatrix left = new SharedMatrix();
+            left.loadRowMajor(new double[][] { { 1.0, 2.0 }, { 3.0, 4.0 } }, Precision.DOUBLE, pool);
+            SharedMatrix right = new SharedMatrix(new double[][] { { 5.0, 6.0 }, { 7.0, 8.0 } })
+                    .toColumnMajor(Precision.DOUBLE, pool);
+            SharedMatrix product = SharedMatrix.allocate(2, 2, Precision.DOUBLE, pool);
+
+            left.get(0).vecMatMul(right, product.get(0));
+            left.get(1).vecMatMul(right, product.get(1));
+            product.get(1).add(left.get(1));
+            product.get(0).negate();
+
+            assertArrayEquals(new double[] { -19.0, -22.0 }, product.readRowMajor()[0]);
+            assertArrayEquals(new double[] { 46.0, 54.0 }, product.readRowMajor()[1]);
+            assertTrue(pool.isOffHeap());
+        }
+    }
+
+    @Test
+    void testOffHeapFloatVectors_ConvertAndCopy() {
+        try (OffHeapArena arena = new OffHeapArena()) {
+            BufferPool pool = new BufferPool(arena);
+            SharedMatrix floats = new SharedMatrix(new double[][] { { 0.1, 2.0 } }).copy(Precision.FLOAT, pool);
+
+            assertEquals(Precision.FLOAT, floats.getPrecision());
+            assertEquals((double) 0.1f, floats.get(0, 0));
+            SharedMatrix copy = floats.copy(Precision.FLOAT, pool);
+            copy.get(0).scale(2.0);
+            assertEquals(2.0, floats.get(0, 1));
+            assertEquals(4.0, copy.get(0, 1));
+        }
+    }
+
+    @Test
+    void testMoveToHeap_OutlivesArena() {
+        SharedMatrix matrix;
+        try (OffHeapArena arena = new OffHeapArena()) {
+            BufferPool pool = new BufferPool(arena);
+            matrix = new SharedMatrix(new double[][] { { 1.0, 2.0 }, { 3.0, 4.0 } }).copy(Precision.FLOAT, pool);
+            matrix.moveToHeap();
+        }
+
+        for (int i = 0; i < matrix.length(); i++) {
+            assertFalse(matrix.get(i).storage() instanceof DirectFloatStorage);
+        }
+        assertEquals(Precision.FLOAT, matrix.getPrecision());
+        assertArrayEquals(new double[] { 3.0, 4.0 }, matrix.readRowMajor()[1]);
+    }
+
+    @Test
+    void testClose_RejectsFurtherAllocation() {
+        OffHeapArena arena = new OffHeapArena();
+        arena.allocateAligned(16);
+        arena.close();
+        assertEquals(0, arena.reservedBytes());
+        assertThrows(IllegalStateException.class, () -> arena.allocateAligned(16));
+    }
+}
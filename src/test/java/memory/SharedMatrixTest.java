@@ -2,8 +2,11 @@ package memory;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Path;
+
 /**
  * Unit tests for SharedMatrix class.
  * Tests matrix operations: loadRowMajor, loadColumnMajor, readRowMajor
@@ -173,4 +176,114 @@ public class SharedMatrixTest {
         assertEquals(1, matrix.length());
         assertEquals(5.0, matrix.get(0).get(0));
     }
+
+    // ==================== Transpose View Tests ====================
+
+    @Test
+    void testTranspose_IsViewOverSameVectors() {
+        double[][] data = { { 1.0, 2.0, 3.0 }, { 4.0, 5.0, 6.0 } };
+        matrix.loadRowMajor(data);
+        SharedMatrix transposed = matrix.transpose();
+
+        assertSame(matrix.get(0), transposed.get(0));
+        assertEquals(VectorOrientation.COLUMN_MAJOR, transposed.getOrientation());
+        assertEquals(3, transposed.rows());
+        assertEquals(2, transposed.columns());
+        assertEquals(4.0, transposed.get(0, 1));
+        assertArrayEquals(new double[] { 3.0, 6.0 }, transposed.readRowMajor()[2]);
+    }
+
+    @Test
+    void testCopyRowMajor_GathersColumns() {
+        double[][] data = { { 1.0, 2.0 }, { 3.0, 4.0 }, { 5.0, 6.0 } };
+        matrix.loadColumnMajor(data);
+        SharedMatrix rows = matrix.copyRowMajor(Precision.DOUBLE);
+
+        assertEquals(VectorOrientation.ROW_MAJOR, rows.getOrientation());
+        assertEquals(3, rows.length());
+        assertEquals(6.0, rows.get(2).get(1));
+        assertSame(rows, rows.toRowMajor(Precision.DOUBLE));
+
+        SharedMatrix columns = rows.toColumnMajor(Precision.DOUBLE);
+        assertEquals(VectorOrientation.COLUMN_MAJOR, columns.getOrientation());
+        assertEquals(2, columns.length());
+        assertEquals(5.0, columns.get(0).get(2));
+    }
+
+    @Test
+    void testMultiplyVector_BothLayoutsAndAbsolute() {
+        double[][] data = { { 1.0, -2.0 }, { 3.0, 4.0 }, { -5.0, 6.0 } };
+        matrix.loadRowMajor(data);
+        SharedMatrix columns = matrix.toColumnMajor(Precision.DOUBLE);
+        double[] x = { 1.0, -1.0 };
+        double[] fromRows = new double[3];
+        double[] fromColumns = new double[3];
+        double[] absolute = new double[3];
+
+        matrix.multiplyVector(x, fromRows, false, 0, 3);
+        columns.multiplyVector(x, fromColumns, false, 0, 2);
+        columns.multiplyVector(x, fromColumns, false, 2, 3);
+        matrix.multiplyVector(new double[] { 1.0, 1.0 }, absolute, true, 0, 3);
+
+        assertArrayEquals(new double[] { 3.0, -1.0, -11.0 }, fromRows);
+        assertArrayEquals(fromRows, fromColumns);
+        assertArrayEquals(new double[] { 3.0, 7.0, 11.0 }, absolute);
+    }
+
+    @Test
+    void testReadRowAndContentEquals_BothLayouts() {
+        double[][] data = { { 1.0, 2.0, 3.0 }, { 4.0, 5.0, 6.0 } };
+        matrix.loadColumnMajor(data);
+        SharedMatrix rows = new SharedMatrix(data);
+        double[] row = new double[2];
+
+        matrix.readRow(1, 1, 3, row);
+        assertArrayEquals(new double[] { 5.0, 6.0 }, row);
+        rows.readRow(0, 0, 2, row);
+        assertArrayEquals(new double[] { 1.0, 2.0 }, row);
+        assertTrue(matrix.contentEquals(rows));
+        assertFalse(rows.contentEquals(new SharedMatrix(new double[][] { { 1.0, 2.0, 3.0 }, { 4.0, 5.0, 7.0 } })));
+        assertFalse(rows.contentEquals(rows.transpose()));
+    }
+
+    // ==================== Spill Tests ====================
+
+    @Test
+    void testSpill_KeepsContentsAndPagesBackIn(@TempDir Path directory) throws Exception {
+        double[][] data = { { 1.0, 2.0, 3.0 }, { 4.0, 5.0, 6.0 } };
+        matrix.loadRowMajor(data);
+        SharedMatrix floats = new SharedMatrix(data, Precision.FLOAT);
+        ScratchSpace scratch = new ScratchSpace(directory);
+
+        matrix.spill(scratch);
+        floats.spill(scratch);
+        assertTrue(matrix.isSpilled());
+        assertEquals(6 * Double.BYTES + 6 * Float.BYTES, scratch.spilledBytes());
+        assertEquals(5.0, matrix.get(1, 1)); // readable straight from the mapping
+
+        matrix.pageIn(null);
+        floats.pageIn(new BufferPool());
+        assertFalse(matrix.isSpilled());
+        assertArrayEquals(data[1], matrix.readRowMajor()[1]);
+        assertEquals(Precision.FLOAT, floats.getPrecision());
+        assertArrayEquals(data[0], floats.readRowMajor()[0]);
+    }
+
+    // ==================== Precision Tests ====================
+
+    @Test
+    void testFloatMatrix_ConvertsAndCopies() {
+        double[][] data = { { 0.1, 2.0 }, { 3.0, 4.0 } };
+        SharedMatrix floats = new SharedMatrix(data, Precision.FLOAT);
+
+        assertEquals(Precision.FLOAT, floats.getPrecision());
+        assertEquals((double) 0.1f, floats.readRowMajor()[0][0]);
+        assertSame(floats, floats.toPrecision(Precision.FLOAT));
+
+        SharedMatrix doubles = floats.toPrecision(Precision.DOUBLE);
+        assertEquals(Precision.DOUBLE, doubles.getPrecision());
+        SharedMatrix copy = doubles.copy(Precision.DOUBLE);
+        copy.get(0).negate();
+        assertEquals(2.0, doubles.get(0).get(1));
+    }
 }
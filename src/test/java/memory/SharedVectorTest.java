@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Unit tests for SharedVector class.
  * Tests vector operations: add, negate, dot, transpose, vecMatMul
@@ -180,6 +182,124 @@ public class SharedVectorTest {
         assertThrows(IllegalArgumentException.class, () -> row.vecMatMul(matrix));
     }
 
+    @Test
+    void testVecMatMul_ColumnMajorMatrix_UsesColumnDots() {
+        // Same product as above with the matrix stored column by column
+        SharedVector row = new SharedVector(new double[] { 1.0, 2.0 }, VectorOrientation.ROW_MAJOR);
+        SharedMatrix matrix = new SharedMatrix();
+        matrix.loadColumnMajor(new double[][] {
+                { 1.0, 2.0, 3.0 },
+                { 4.0, 5.0, 6.0 }
+        });
+        row.vecMatMul(matrix);
+        assertEquals(9.0, row.get(0));
+        assertEquals(12.0, row.get(1));
+        assertEquals(15.0, row.get(2));
+    }
+
+    @Test
+    void testVecMatMul_IntoResult_LeavesOperandUnchanged() {
+        SharedVector row = new SharedVector(new double[] { 1.0, 2.0 }, VectorOrientation.ROW_MAJOR);
+        SharedVector result = new SharedVector(new double[3], VectorOrientation.ROW_MAJOR);
+        SharedMatrix matrix = new SharedMatrix(new double[][] {
+                { 1.0, 2.0, 3.0 },
+                { 4.0, 5.0, 6.0 }
+        });
+        row.vecMatMul(matrix, result);
+        assertEquals(2, row.length());
+        assertEquals(1.0, row.get(0));
+        assertEquals(9.0, result.get(0));
+        assertEquals(15.0, result.get(2));
+        assertThrows(IllegalArgumentException.class, () -> row.vecMatMul(matrix, row));
+    }
+
+    @Test
+    void testVecMatMul_Band_SkipsZeroPrefix() {
+        // Row [0, 2] only has a nonzero from index 1 on, so the band [1, 2) gives the full product
+        SharedVector row = new SharedVector(new double[] { 0.0, 2.0 }, VectorOrientation.ROW_MAJOR);
+        SharedMatrix matrix = new SharedMatrix(new double[][] {
+                { 1.0, 2.0 },
+                { 3.0, 4.0 }
+        });
+        row.vecMatMul(matrix, 1, 2);
+        assertEquals(6.0, row.get(0));
+        assertEquals(8.0, row.get(1));
+    }
+
+    @Test
+    void testVecTriangularMatMul_UpperAndLower() {
+        double[][] upper = { { 1.0, 2.0, 3.0 }, { 0.0, 4.0, 5.0 }, { 0.0, 0.0, 6.0 } };
+        double[][] lower = { { 1.0, 0.0, 0.0 }, { 2.0, 3.0, 0.0 }, { 4.0, 5.0, 6.0 } };
+        SharedVector fromUpper = new SharedVector(new double[] { 1.0, 1.0, 1.0 }, VectorOrientation.ROW_MAJOR);
+        SharedVector fromLower = new SharedVector(new double[] { 1.0, 1.0, 1.0 }, VectorOrientation.ROW_MAJOR);
+
+        fromUpper.vecTriangularMatMul(new SharedMatrix(upper), true);
+        fromLower.vecTriangularMatMul(new SharedMatrix(lower), false);
+
+        assertEquals(1.0, fromUpper.get(0));
+        assertEquals(6.0, fromUpper.get(1));
+        assertEquals(14.0, fromUpper.get(2));
+        assertEquals(7.0, fromLower.get(0));
+        assertEquals(8.0, fromLower.get(1));
+        assertEquals(6.0, fromLower.get(2));
+    }
+
+    // ==================== Scale ====================
+
+    @Test
+    void testScale_ByFactor() {
+        rowVector.scale(2.0);
+        assertEquals(2.0, rowVector.get(0));
+        assertEquals(6.0, rowVector.get(2));
+    }
+
+    @Test
+    void testScale_ByFactors() {
+        rowVector.scale(new double[] { 3.0, 0.0, -1.0 });
+        assertEquals(3.0, rowVector.get(0));
+        assertEquals(0.0, rowVector.get(1));
+        assertEquals(-3.0, rowVector.get(2));
+    }
+
+    @Test
+    void testScale_DimensionMismatch_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> rowVector.scale(new double[] { 1.0 }));
+    }
+
+    // ==================== Precision ====================
+
+    @Test
+    void testFloatVector_RoundsToFloat() {
+        SharedVector vec = new SharedVector(new double[] { 0.1, 1.0 }, VectorOrientation.ROW_MAJOR).withPrecision(Precision.FLOAT);
+        assertEquals(Precision.FLOAT, vec.getPrecision());
+        assertEquals((double) 0.1f, vec.get(0));
+        assertEquals(1.0, vec.get(1));
+    }
+
+    @Test
+    void testWithPrecision_SamePrecision_ReturnsThis() {
+        assertSame(rowVector, rowVector.withPrecision(Precision.DOUBLE));
+        assertNotSame(rowVector, rowVector.copy(Precision.DOUBLE));
+    }
+
+    @Test
+    void testFloatDot_AccumulationModes() {
+        float[] thirds = new float[1000];
+        float[] ones = new float[1000];
+        java.util.Arrays.fill(thirds, 1.0f / 3);
+        java.util.Arrays.fill(ones, 1.0f);
+        SharedVector row = new SharedVector(thirds, VectorOrientation.ROW_MAJOR);
+        SharedVector column = new SharedVector(ones, VectorOrientation.COLUMN_MAJOR);
+
+        float floatSum = 0;
+        for (int i = 0; i < thirds.length; i++) {
+            floatSum += thirds[i];
+        }
+        assertEquals(floatSum, row.dot(column));
+        row.setDoubleAccumulation(true);
+        assertEquals(1000 * (double) (1.0f / 3), row.dot(column), 1e-9);
+    }
+
     // ==================== Locking Tests ====================
 
     @Test
@@ -212,4 +332,33 @@ public class SharedVectorTest {
         t1.join();
         t2.join();
     }
+
+    @Test
+    void testReadLock_QueuesBehindWaitingWriter() throws InterruptedException {
+        SharedVector vec = new SharedVector(new double[] { 1.0, 2.0, 3.0 }, VectorOrientation.ROW_MAJOR);
+        AtomicBoolean readerIn = new AtomicBoolean();
+        vec.readLock();
+
+        Thread writer = new Thread(() -> {
+            vec.writeLock();
+            vec.writeUnlock();
+        });
+        writer.start();
+        while (writer.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        Thread reader = new Thread(() -> {
+            vec.readLock();
+            readerIn.set(true);
+            vec.readUnlock();
+        });
+        reader.start();
+        reader.join(100);
+
+        assertFalse(readerIn.get()); // a new reader does not barge past the queued writer
+        vec.readUnlock();
+        writer.join();
+        reader.join();
+        assertTrue(readerIn.get());
+    }
 }
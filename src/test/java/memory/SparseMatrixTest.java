@@ -0,0 +1,187 @@
+package memory;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SparseMatrix class.
+ * Tests compressed storage: conversion, transpose, add, negate and the multiply kernels
+ */
+public class SparseMatrixTest {
+
+    private static final double[][] A = {
+            { 1.0, 0.0, 0.0 },
+            { 0.0, 0.0, 2.0 },
+            { 0.0, 3.0, 0.0 }
+    };
+
+    private static final double[][] B = {
+            { 0.0, 4.0 },
+            { 5.0, 0.0 },
+            { 0.0, 6.0 }
+    };
+
+    // ==================== Conversion Tests ====================
+
+    @Test
+    void testFromDense_RowMajor_RoundTrips() {
+        SparseMatrix csr = SparseMatrix.fromDense(A, VectorOrientation.ROW_MAJOR);
+        assertEquals(3, csr.nonZeros());
+        assertEquals(VectorOrientation.ROW_MAJOR, csr.getOrientation());
+        assertMatrixEquals(A, csr.toDense());
+    }
+
+    @Test
+    void testFromDense_ColumnMajor_RoundTrips() {
+        SparseMatrix csc = SparseMatrix.fromDense(B, VectorOrientation.COLUMN_MAJOR);
+        assertEquals(3, csc.nonZeros());
+        assertEquals(VectorOrientation.COLUMN_MAJOR, csc.getOrientation());
+        assertMatrixEquals(B, csc.toDense());
+    }
+
+    @Test
+    void testToOrientation_PreservesEntries() {
+        SparseMatrix csr = SparseMatrix.fromDense(B, VectorOrientation.ROW_MAJOR);
+        SparseMatrix csc = csr.toOrientation(VectorOrientation.COLUMN_MAJOR);
+        assertEquals(VectorOrientation.COLUMN_MAJOR, csc.getOrientation());
+        assertMatrixEquals(B, csc.toDense());
+        assertMatrixEquals(B, csc.toOrientation(VectorOrientation.ROW_MAJOR).toDense());
+    }
+
+    @Test
+    void testGet_ReturnsStoredAndImplicitZeros() {
+        SparseMatrix csr = SparseMatrix.fromDense(A, VectorOrientation.ROW_MAJOR);
+        assertEquals(2.0, csr.get(1, 2));
+        assertEquals(0.0, csr.get(1, 1));
+    }
+
+    @Test
+    void testIsSparseEnough_RespectsThreshold() {
+        assertTrue(SparseMatrix.isSparseEnough(A, 0.5));
+        assertFalse(SparseMatrix.isSparseEnough(A, 0.2));
+        assertFalse(SparseMatrix.isSparseEnough(new double[][] { { 0.0 } }, 0.0));
+    }
+
+    // ==================== Transpose / Negate Tests ====================
+
+    @Test
+    void testTranspose_SwapsShapeWithoutCopying() {
+        SparseMatrix csr = SparseMatrix.fromDense(B, VectorOrientation.ROW_MAJOR);
+        SparseMatrix transposed = csr.transpose();
+        assertEquals(2, transposed.rows());
+        assertEquals(3, transposed.columns());
+        assertEquals(VectorOrientation.COLUMN_MAJOR, transposed.getOrientation());
+        assertMatrixEquals(new double[][] { { 0.0, 5.0, 0.0 }, { 4.0, 0.0, 6.0 } }, transposed.toDense());
+    }
+
+    @Test
+    void testNegate_NegatesStoredValues() {
+        SparseMatrix negated = SparseMatrix.fromDense(A, VectorOrientation.ROW_MAJOR).negate();
+        assertEquals(-3.0, negated.get(2, 1));
+        assertEquals(3, negated.nonZeros());
+    }
+
+    // ==================== Add Tests ====================
+
+    @Test
+    void testAddVectors_MergesAndDropsCancelledEntries() {
+        SparseMatrix csr = SparseMatrix.fromDense(A, VectorOrientation.ROW_MAJOR);
+        SparseMatrix other = SparseMatrix.fromDense(new double[][] {
+                { -1.0, 1.0, 0.0 },
+                { 0.0, 0.0, 0.0 },
+                { 0.0, 0.0, 7.0 }
+        }, VectorOrientation.ROW_MAJOR);
+        SparseMatrix.CompressedVector[] rows = new SparseMatrix.CompressedVector[3];
+        csr.addVectors(other, 0, 3, rows);
+        SparseMatrix sum = SparseMatrix.fromVectors(3, 3, VectorOrientation.ROW_MAJOR, rows);
+
+        assertMatrixEquals(new double[][] { { 0.0, 1.0, 0.0 }, { 0.0, 0.0, 2.0 }, { 0.0, 3.0, 7.0 } }, sum.toDense());
+        assertEquals(4, sum.nonZeros());
+    }
+
+    @Test
+    void testAddRowTo_AddsIntoDenseRow() {
+        SparseMatrix csr = SparseMatrix.fromDense(A, VectorOrientation.ROW_MAJOR);
+        double[] row = { 1.0, 1.0, 1.0 };
+        csr.addRowTo(1, row);
+        assertArrayEquals(new double[] { 1.0, 1.0, 3.0 }, row);
+    }
+
+    @Test
+    void testAddVectors_DimensionMismatch_Throws() {
+        SparseMatrix a = SparseMatrix.fromDense(A, VectorOrientation.ROW_MAJOR);
+        SparseMatrix b = SparseMatrix.fromDense(B, VectorOrientation.ROW_MAJOR);
+        assertThrows(IllegalArgumentException.class, () -> a.addVectors(b, 0, 3, new SparseMatrix.CompressedVector[3]));
+    }
+
+    // ==================== Multiply Tests ====================
+
+    @Test
+    void testMultiplyRow_SparseTimesDense() {
+        SparseMatrix csr = SparseMatrix.fromDense(A, VectorOrientation.ROW_MAJOR);
+        double[] out = new double[2];
+        csr.multiplyRow(1, B, out);
+        assertArrayEquals(new double[] { 0.0, 12.0 }, out);
+    }
+
+    @Test
+    void testMultiplyRow_SparseTimesSharedMatrix_BothLayouts() {
+        SparseMatrix csr = SparseMatrix.fromDense(A, VectorOrientation.ROW_MAJOR);
+        SharedMatrix columns = new SharedMatrix();
+        columns.loadColumnMajor(B);
+        double[] fromRows = new double[2];
+        double[] fromColumns = new double[2];
+
+        csr.multiplyRow(1, new SharedMatrix(B), fromRows);
+        csr.multiplyRow(1, columns, fromColumns);
+
+        assertArrayEquals(new double[] { 0.0, 12.0 }, fromRows);
+        assertArrayEquals(fromRows, fromColumns);
+    }
+
+    @Test
+    void testMultiplyDenseRow_BothOrientations() {
+        double[] row = { 1.0, 2.0, 3.0 };
+        double[] fromCsr = new double[2];
+        double[] fromCsc = new double[2];
+        SparseMatrix.fromDense(B, VectorOrientation.ROW_MAJOR).multiplyDenseRow(row, fromCsr);
+        SparseMatrix.fromDense(B, VectorOrientation.COLUMN_MAJOR).multiplyDenseRow(row, fromCsc);
+        assertArrayEquals(new double[] { 10.0, 22.0 }, fromCsr);
+        assertArrayEquals(fromCsr, fromCsc);
+    }
+
+    @Test
+    void testMultiplyRows_SparseTimesSparse() {
+        SparseMatrix left = SparseMatrix.fromDense(A, VectorOrientation.ROW_MAJOR);
+        SparseMatrix right = SparseMatrix.fromDense(B, VectorOrientation.ROW_MAJOR);
+        SparseMatrix.CompressedVector[] rows = new SparseMatrix.CompressedVector[3];
+        left.multiplyRows(right, 0, 3, rows);
+        SparseMatrix product = SparseMatrix.fromVectors(3, 2, VectorOrientation.ROW_MAJOR, rows);
+
+        assertMatrixEquals(new double[][] { { 0.0, 4.0 }, { 0.0, 12.0 }, { 15.0, 0.0 } }, product.toDense());
+    }
+
+    @Test
+    void testMultiplyVector_BothOrientations() {
+        double[] x = { 1.0, -1.0 };
+        double[] fromCsr = new double[3];
+        double[] fromCsc = new double[3];
+        SparseMatrix.fromDense(B, VectorOrientation.ROW_MAJOR).multiplyVector(x, fromCsr, false);
+        SparseMatrix.fromDense(B, VectorOrientation.COLUMN_MAJOR).multiplyVector(x, fromCsc, false);
+        assertArrayEquals(new double[] { -4.0, 5.0, -6.0 }, fromCsr);
+        assertArrayEquals(fromCsr, fromCsc);
+    }
+
+    @Test
+    void testMultiplyRow_RequiresRowMajor() {
+        SparseMatrix csc = SparseMatrix.fromDense(A, VectorOrientation.COLUMN_MAJOR);
+        assertThrows(IllegalStateException.class, () -> csc.multiplyRow(0, B, new double[2]));
+    }
+
+    private static void assertMatrixEquals(double[][] expected, double[][] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], actual[i]);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package memory;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * Finds the size from which one level of Strassen-Winograd beats the classical kernel, single-threaded.
+ * Sizes double from 64 up to benchmark.maxSize; the engine cutoff belongs between the last size where
+ * the classical kernel wins and the first size where Strassen does.
+ * Run with: mvn test -Pbenchmark [-Dbenchmark.maxSize=2048]
+ */
+public class StrassenBenchmark {
+
+    private static final int MAX_SIZE = Integer.getInteger("benchmark.maxSize", 1024);
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void benchmarkStrassenCrossover() {
+        int crossover = -1;
+        for (int size = 64; size <= MAX_SIZE; size *= 2) {
+            double[][] left = randomMatrix(size, 1);
+            double[][] right = randomMatrix(size, 2);
+            int oneLevel = size / 2; // recurse once, then the classical kernel
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                classical(left, right);
+                StrassenWinograd.multiply(left, right, oneLevel);
+            }
+            long classicalNanos = Long.MAX_VALUE, strassenNanos = Long.MAX_VALUE;
+            double[][] classicalResult = null, strassenResult = null;
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = System.nanoTime();
+                classicalResult = classical(left, right);
+                classicalNanos = Math.min(classicalNanos, System.nanoTime() - start);
+                start = System.nanoTime();
+                strassenResult = StrassenWinograd.multiply(left, right, oneLevel);
+                strassenNanos = Math.min(strassenNanos, System.nanoTime() - start);
+            }
+
+            for (int i = 0; i < size; i++) {
+                assertArrayEquals(classicalResult[i], strassenResult[i], 1e-8);
+            }
+            if (crossover < 0 && strassenNanos < classicalNanos)
+                crossover = size;
+            System.out.printf("multiply %dx%d: classical %.1f ms, strassen-winograd %.1f ms (%.2fx)%n",
+                    size, size, classicalNanos / 1e6, strassenNanos / 1e6, (double) classicalNanos / strassenNanos);
+        }
+        System.out.println(crossover < 0
+                ? "strassen-winograd did not win up to " + MAX_SIZE
+                : "crossover between " + crossover / 2 + " and " + crossover + ": set the Strassen cutoff in that range");
+    }
+
+    private static double[][] classical(double[][] left, double[][] right) {
+        double[][] result = new double[left.length][right[0].length];
+        StrassenWinograd.multiplyClassical(left, right, result);
+        return result;
+    }
+
+    private static double[][] randomMatrix(int size, long seed) {
+        Random random = new Random(seed);
+        double[][] matrix = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                matrix[i][j] = random.nextDouble() - 0.5;
+            }
+        }
+        return matrix;
+    }
+}
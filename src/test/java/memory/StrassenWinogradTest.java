@@ -0,0 +1,113 @@
+package memory;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+/**
+ * Unit tests for StrassenWinograd class.
+ * Tests the recursive multiply against the classical kernel: odd and rectangular shapes, cutoffs and split products
+ */
+public class StrassenWinogradTest {
+
+    // ==================== Classical Kernel Tests ====================
+
+    @Test
+    void testMultiplyClassical_AccumulatesIntoResult() {
+        double[][] a = { { 1.0, 2.0 }, { 3.0, 4.0 } };
+        double[][] b = { { 5.0, 6.0 }, { 7.0, 8.0 } };
+        double[][] c = { { 1.0, 1.0 }, { 1.0, 1.0 } };
+
+        StrassenWinograd.multiplyClassical(a, b, c);
+
+        assertArrayEquals(new double[] { 20.0, 23.0 }, c[0]);
+        assertArrayEquals(new double[] { 44.0, 51.0 }, c[1]);
+    }
+
+    // ==================== Recursive Multiply Tests ====================
+
+    @Test
+    void testMultiply_PowerOfTwo_MatchesClassical() {
+        double[][] a = randomMatrix(64, 64, 1);
+        double[][] b = randomMatrix(64, 64, 2);
+        assertMatrixEquals(classical(a, b), StrassenWinograd.multiply(a, b, 4));
+    }
+
+    @Test
+    void testMultiply_OddRectangular_PadsAndMatchesClassical() {
+        double[][] a = randomMatrix(37, 41, 3);
+        double[][] b = randomMatrix(41, 29, 4);
+
+        double[][] product = StrassenWinograd.multiply(a, b, 3);
+
+        assertEquals(37, product.length);
+        assertEquals(29, product[0].length);
+        assertMatrixEquals(classical(a, b), product);
+    }
+
+    @Test
+    void testMultiply_BelowCutoff_UsesClassical() {
+        double[][] a = randomMatrix(5, 7, 5);
+        double[][] b = randomMatrix(7, 3, 6);
+        assertMatrixEquals(classical(a, b), StrassenWinograd.multiply(a, b, 16));
+    }
+
+    @Test
+    void testMultiply_DimensionMismatch_Throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> StrassenWinograd.multiply(randomMatrix(4, 3, 7), randomMatrix(4, 3, 8), 1));
+    }
+
+    @Test
+    void testSplit_ProductsComputedInAnyOrder_CombineToProduct() {
+        double[][] a = randomMatrix(10, 9, 9);
+        double[][] b = randomMatrix(9, 11, 10);
+
+        StrassenWinograd.Split split = StrassenWinograd.split(a, b);
+        for (int p = StrassenWinograd.PRODUCTS - 1; p >= 0; p--) {
+            split.computeProduct(p, 2);
+        }
+
+        assertMatrixEquals(classical(a, b), split.combine());
+    }
+
+    @Test
+    void testSplit_SharedMatrixOperands_CombineToProduct() {
+        double[][] a = randomMatrix(7, 10, 11);
+        double[][] b = randomMatrix(10, 5, 12);
+        SharedMatrix columns = new SharedMatrix();
+        columns.loadColumnMajor(b);
+
+        StrassenWinograd.Split split = StrassenWinograd.split(new SharedMatrix(a), columns);
+        for (int p = 0; p < StrassenWinograd.PRODUCTS; p++) {
+            split.computeProduct(p, 2);
+        }
+
+        assertMatrixEquals(classical(a, b), split.combine());
+    }
+
+    private static double[][] classical(double[][] a, double[][] b) {
+        double[][] c = new double[a.length][b[0].length];
+        StrassenWinograd.multiplyClassical(a, b, c);
+        return c;
+    }
+
+    private static double[][] randomMatrix(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        double[][] matrix = new double[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                matrix[i][j] = random.nextDouble() - 0.5;
+            }
+        }
+        return matrix;
+    }
+
+    private static void assertMatrixEquals(double[][] expected, double[][] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], actual[i], 1e-9);
+        }
+    }
+}
@@ -3,6 +3,9 @@ package parser;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import memory.SparseMatrix;
+import memory.VectorOrientation;
+
 import java.util.List;
 
 /**
@@ -36,6 +39,12 @@ public class ComputationNodeTest {
 
         ComputationNode transNode = new ComputationNode("T", List.of(child));
         assertEquals(ComputationNodeType.TRANSPOSE, transNode.getNodeType());
+
+        ComputationNode solveNode = new ComputationNode("solve", List.of(child, child));
+        assertEquals(ComputationNodeType.SOLVE, solveNode.getNodeType());
+
+        ComputationNode inverseNode = new ComputationNode("inverse", List.of(child));
+        assertEquals(ComputationNodeType.INVERSE, inverseNode.getNodeType());
     }
 
     @Test
@@ -147,6 +156,77 @@ public class ComputationNodeTest {
         assertEquals(2, mulNode.getChildren().size());
     }
 
+    // ==================== Power Tests ====================
+
+    @Test
+    void testPowerConstructor_NonPositiveExponent_Throws() {
+        ComputationNode base = new ComputationNode(new double[][] { { 1.0 } });
+        assertThrows(IllegalArgumentException.class, () -> new ComputationNode(base, 0));
+    }
+
+    @Test
+    void testRewritePowers_IdenticalRun_BecomesPower() {
+        double[][] a = { { 1.0, 2.0 }, { 3.0, 4.0 } };
+        double[][] b = { { 0.0, 1.0 }, { 1.0, 0.0 } };
+        ComputationNode leafA = new ComputationNode(a);
+        ComputationNode mulNode = new ComputationNode("*", new java.util.ArrayList<>(List.of(
+                leafA, new ComputationNode(b), new ComputationNode(b), new ComputationNode(b), leafA)));
+
+        mulNode.rewritePowers();
+
+        // A * B * B * B * A becomes A * B^3 * A
+        assertEquals(3, mulNode.getChildren().size());
+        ComputationNode power = mulNode.getChildren().get(1);
+        assertEquals(ComputationNodeType.POWER, power.getNodeType());
+        assertEquals(3, power.getExponent());
+        assertSame(leafA, mulNode.getChildren().get(0));
+    }
+
+    @Test
+    void testRewritePowers_WholeChain_TurnsNodeIntoPower() {
+        ComputationNode leaf = new ComputationNode(new double[][] { { 2.0 } });
+        ComputationNode negated = new ComputationNode("-", List.of(leaf));
+        ComputationNode mulNode = new ComputationNode("*", new java.util.ArrayList<>(List.of(negated, negated, negated, negated)));
+
+        mulNode.rewritePowers();
+
+        assertEquals(ComputationNodeType.POWER, mulNode.getNodeType());
+        assertEquals(4, mulNode.getExponent());
+        assertSame(negated, mulNode.getChildren().getFirst());
+    }
+
+    @Test
+    void testRewritePowers_LargeSparseChain_ComparedWithoutExpanding() {
+        int n = 40_000; // dense copies would take 12.8 GB each
+        ComputationNode a = new ComputationNode(diagonal(n, 1.0));
+        ComputationNode mulNode = new ComputationNode("*", new java.util.ArrayList<>(List.of(
+                a, new ComputationNode(diagonal(n, 2.0)), new ComputationNode(diagonal(n, 2.0)), new ComputationNode(diagonal(n, 1.0)))));
+
+        mulNode.rewritePowers();
+
+        // A * B * B * A becomes A * B^2 * A
+        assertEquals(3, mulNode.getChildren().size());
+        assertEquals(ComputationNodeType.POWER, mulNode.getChildren().get(1).getNodeType());
+        assertEquals(2, mulNode.getChildren().get(1).getExponent());
+        assertSame(a, mulNode.getChildren().get(0));
+    }
+
+    @Test
+    void testExpandPower_UsesRepeatedSquaring() {
+        ComputationNode base = new ComputationNode(new double[][] { { 2.0 } });
+        ComputationNode power = new ComputationNode(base, 6);
+
+        power.expandPower();
+
+        // A^6 = A^2 * A^4, with A^4 = (A^2)^2 sharing the A^2 node
+        assertEquals(ComputationNodeType.MULTIPLY, power.getNodeType());
+        ComputationNode square = power.getChildren().get(0);
+        ComputationNode fourth = power.getChildren().get(1);
+        assertSame(square, fourth.getChildren().get(0));
+        assertSame(square, fourth.getChildren().get(1));
+        assertSame(base, square.getChildren().get(0));
+    }
+
     // ==================== resolve Tests ====================
 
     @Test
@@ -164,4 +244,16 @@ public class ComputationNodeTest {
         assertNull(addNode.getChildren());
         assertArrayEquals(result[0], addNode.getMatrix()[0]);
     }
+
+    private static SparseMatrix diagonal(int n, double value) {
+        int[] pointers = new int[n + 1];
+        int[] indices = new int[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            pointers[i + 1] = i + 1;
+            indices[i] = i;
+            values[i] = value;
+        }
+        return new SparseMatrix(n, n, VectorOrientation.ROW_MAJOR, pointers, indices, values);
+    }
 }
@@ -0,0 +1,100 @@
+package parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for InputParser class.
+ * Tests JSON parsing of operator nodes and of named expressions with shared leaves
+ */
+public class InputParserTest {
+
+    @TempDir
+    Path directory;
+
+    // ==================== Power Tests ====================
+
+    @Test
+    void testParse_PowerOperator_CreatesPowerNode() throws Exception {
+        Path input = write("{\"operator\": \"^\", \"exponent\": 5, \"operands\": [ [[1, 1], [1, 0]] ]}");
+
+        ComputationNode root = new InputParser().parse(input.toString());
+
+        assertEquals(ComputationNodeType.POWER, root.getNodeType());
+        assertEquals(5, root.getExponent());
+        assertEquals(ComputationNodeType.MATRIX, root.getChildren().getFirst().getNodeType());
+    }
+
+    @Test
+    void testParse_PowerWithoutExponent_Throws() throws Exception {
+        Path input = write("{\"operator\": \"^\", \"operands\": [ [[1]] ]}");
+        assertThrows(ParseException.class, () -> new InputParser().parse(input.toString()));
+    }
+
+    @Test
+    void testParse_PowerWithFractionalExponent_Throws() throws Exception {
+        Path input = write("{\"operator\": \"^\", \"exponent\": 1.5, \"operands\": [ [[1]] ]}");
+        assertThrows(ParseException.class, () -> new InputParser().parse(input.toString()));
+    }
+
+    @Test
+    void testParse_PowerWithTwoOperands_Throws() throws Exception {
+        Path input = write("{\"operator\": \"^\", \"exponent\": 2, \"operands\": [ [[1]], [[2]] ]}");
+        assertThrows(ParseException.class, () -> new InputParser().parse(input.toString()));
+    }
+
+    // ==================== Named Expression Tests ====================
+
+    @Test
+    void testParseJob_SingleExpression_ReturnedUnnamed() throws Exception {
+        Path input = write("{\"operator\": \"-\", \"operands\": [ [[1, 2]] ]}");
+
+        Map<String, ComputationNode> roots = new InputParser().parseJob(input.toString());
+
+        assertEquals(List.of(InputParser.UNNAMED), List.copyOf(roots.keySet()));
+        assertEquals(ComputationNodeType.NEGATE, roots.get(InputParser.UNNAMED).getNodeType());
+    }
+
+    @Test
+    void testParseJob_NamedExpressions_ShareLeafStorage() throws Exception {
+        Path input = write("{\"leaves\": {\"A\": [[1, 2], [3, 4]]}, \"expressions\": {"
+                + "\"square\": {\"operator\": \"*\", \"operands\": [\"A\", \"A\"]},"
+                + "\"shifted\": {\"operator\": \"+\", \"operands\": [\"A\", [[1, 0], [0, 1]]]}}}");
+
+        Map<String, ComputationNode> roots = new InputParser().parseJob(input.toString());
+
+        assertEquals(List.of("square", "shifted"), List.copyOf(roots.keySet()));
+        ComputationNode first = roots.get("square").getChildren().get(0);
+        ComputationNode second = roots.get("square").getChildren().get(1);
+        ComputationNode third = roots.get("shifted").getChildren().get(0);
+        assertNotSame(first, third); // each tree holds its own nodes...
+        assertSame(first.getSharedMatrix(), second.getSharedMatrix()); // ...over one parsed matrix
+        assertSame(first.getSharedMatrix(), third.getSharedMatrix());
+    }
+
+    @Test
+    void testParseJob_UnknownLeaf_Throws() throws Exception {
+        Path input = write("{\"expressions\": {\"x\": {\"operator\": \"T\", \"operands\": [\"B\"]}}}");
+        assertThrows(ParseException.class, () -> new InputParser().parseJob(input.toString()));
+    }
+
+    @Test
+    void testParse_NamedExpressions_Throws() throws Exception {
+        Path input = write("{\"expressions\": {\"x\": [[1]]}}");
+        assertThrows(ParseException.class, () -> new InputParser().parse(input.toString()));
+    }
+
+    private Path write(String json) throws IOException {
+        Path file = directory.resolve("input.json");
+        Files.writeString(file, json);
+        return file;
+    }
+}
@@ -0,0 +1,213 @@
+package parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * Unit tests for MatrixMarketReader class.
+ * Tests .mtx parsing: coordinate and array formats, symmetry, storage selection and JSON leaves
+ */
+public class MatrixMarketReaderTest {
+
+    @TempDir
+    Path directory;
+
+    private final MatrixMarketReader reader = new MatrixMarketReader();
+
+    // ==================== Coordinate Format Tests ====================
+
+    @Test
+    void testRead_SparseCoordinate_ReturnsSparseLeaf() throws Exception {
+        Path file = write("sparse.mtx",
+                "%%MatrixMarket matrix coordinate real general",
+                "% a comment",
+                "20 20 3",
+                "1 1 1.5",
+                "20 3 -2",
+                "5 5 4e0");
+
+        ComputationNode node = reader.read(file);
+
+        assertEquals(ComputationNodeType.MATRIX, node.getNodeType());
+        assertTrue(node.isSparse());
+        assertEquals(3, node.getSparseMatrix().nonZeros());
+        double[][] matrix = node.getMatrix();
+        assertEquals(1.5, matrix[0][0]);
+        assertEquals(-2.0, matrix[19][2]);
+        assertEquals(4.0, matrix[4][4]);
+    }
+
+    @Test
+    void testRead_DenseCoordinate_ReturnsDenseLeaf() throws Exception {
+        Path file = write("dense.mtx",
+                "%%MatrixMarket matrix coordinate integer general",
+                "2 2 3",
+                "1 1 1",
+                "1 2 2",
+                "2 2 3");
+
+        ComputationNode node = reader.read(file);
+
+        assertFalse(node.isSparse());
+        assertArrayEquals(new double[] { 1.0, 2.0 }, node.getMatrix()[0]);
+        assertArrayEquals(new double[] { 0.0, 3.0 }, node.getMatrix()[1]);
+    }
+
+    @Test
+    void testRead_SymmetricPattern_MirrorsEntries() throws Exception {
+        Path file = write("symmetric.mtx",
+                "%%MatrixMarket matrix coordinate pattern symmetric",
+                "20 20 2",
+                "3 1",
+                "7 7");
+
+        double[][] matrix = reader.read(file).getMatrix();
+
+        assertEquals(1.0, matrix[2][0]);
+        assertEquals(1.0, matrix[0][2]);
+        assertEquals(1.0, matrix[6][6]);
+    }
+
+    @Test
+    void testRead_UnsortedAndDuplicateEntries_AreSortedAndSummed() throws Exception {
+        Path file = write("unsorted.mtx",
+                "%%MatrixMarket matrix coordinate real general",
+                "20 20 3",
+                "2 9 1.0",
+                "2 1 2.0",
+                "2 9 0.5");
+
+        ComputationNode node = reader.read(file);
+
+        assertEquals(2, node.getSparseMatrix().nonZeros());
+        assertEquals(1.5, node.getSparseMatrix().get(1, 8));
+        assertEquals(2.0, node.getSparseMatrix().get(1, 0));
+    }
+
+    // ==================== Array Format Tests ====================
+
+    @Test
+    void testRead_ArrayFormat_IsColumnMajor() throws Exception {
+        Path file = write("array.mtx",
+                "%%MatrixMarket matrix array real general",
+                "2 2",
+                "1", "3", "2", "4");
+
+        double[][] matrix = reader.read(file).getMatrix();
+
+        assertArrayEquals(new double[] { 1.0, 2.0 }, matrix[0]);
+        assertArrayEquals(new double[] { 3.0, 4.0 }, matrix[1]);
+    }
+
+    // ==================== Error Tests ====================
+
+    @Test
+    void testRead_MissingHeader_Throws() throws Exception {
+        Path file = write("bad.mtx", "2 2 1", "1 1 1");
+        assertThrows(ParseException.class, () -> reader.read(file));
+    }
+
+    @Test
+    void testRead_TruncatedFile_Throws() throws Exception {
+        Path file = write("short.mtx",
+                "%%MatrixMarket matrix coordinate real general",
+                "3 3 2",
+                "1 1 1");
+        assertThrows(ParseException.class, () -> reader.read(file));
+    }
+
+    @Test
+    void testRead_OutOfBoundsEntry_Throws() throws Exception {
+        Path file = write("bounds.mtx",
+                "%%MatrixMarket matrix coordinate real general",
+                "3 3 1",
+                "4 1 1");
+        assertThrows(ParseException.class, () -> reader.read(file));
+    }
+
+    // ==================== InputParser Integration Tests ====================
+
+    @Test
+    void testInputParser_MtxLeaf_ResolvedRelativeToInputFile() throws Exception {
+        write("a.mtx",
+                "%%MatrixMarket matrix coordinate real general",
+                "2 2 2",
+                "1 1 2",
+                "2 2 3");
+        Path input = write("input.json", "{\"operator\": \"-\", \"operands\": [ {\"mtx\": \"a.mtx\"} ]}");
+
+        ComputationNode root = new InputParser().parse(input.toString());
+        ComputationNode leaf = root.getChildren().getFirst();
+
+        assertEquals(ComputationNodeType.MATRIX, leaf.getNodeType());
+        assertEquals(3.0, leaf.getMatrix()[1][1]);
+    }
+
+    @Test
+    void testInputParser_StreamMtxLeafOutsideBaseDirectory_Throws() throws Exception {
+        Path base = Files.createDirectory(directory.resolve("jobs"));
+        write("a.mtx",
+                "%%MatrixMarket matrix array real general",
+                "1 1",
+                "2");
+        String escape = "{\"operator\": \"-\", \"operands\": [ {\"mtx\": \"../a.mtx\"} ]}";
+        String absolute = "{\"operator\": \"-\", \"operands\": [ {\"mtx\": \"" + directory.resolve("a.mtx") + "\"} ]}";
+
+        assertThrows(ParseException.class, () -> new InputParser().parse(stream(escape), base));
+        assertThrows(ParseException.class, () -> new InputParser().parseJob(stream(absolute), base));
+    }
+
+    @Test
+    void testInputParser_FileMtxLeafOutsideInputDirectory_Read() throws Exception {
+        Files.createDirectory(directory.resolve("jobs"));
+        Path data = Files.createDirectory(directory.resolve("data"));
+        write("data/a.mtx",
+                "%%MatrixMarket matrix array real general",
+                "1 1",
+                "2");
+        Path relative = write("jobs/relative.json", "{\"operator\": \"-\", \"operands\": [ {\"mtx\": \"../data/a.mtx\"} ]}");
+        Path absolute = write("jobs/absolute.json",
+                "{\"operator\": \"-\", \"operands\": [ {\"mtx\": \"" + data.resolve("a.mtx") + "\"} ]}");
+
+        assertEquals(2.0, new InputParser().parse(relative.toString()).getChildren().getFirst().getMatrix()[0][0]);
+        assertEquals(2.0, new InputParser().parseJob(absolute.toString()).get(InputParser.UNNAMED)
+                .getChildren().getFirst().getMatrix()[0][0]);
+    }
+
+    @Test
+    void testInputParser_Precision_InheritedByLeaves() throws Exception {
+        write("b.mtx",
+                "%%MatrixMarket matrix array real general",
+                "1 1",
+                "0.1");
+        Path input = write("precision.json", "{\"operator\": \"+\", \"precision\": \"float32\", \"operands\": ["
+                + " {\"mtx\": \"b.mtx\"}, {\"matrix\": [[0.1]], \"precision\": \"float64\"} ]}");
+
+        ComputationNode root = new InputParser().parse(input.toString());
+
+        assertEquals(memory.Precision.FLOAT, root.getChildren().get(0).getPrecision());
+        assertEquals((double) 0.1f, root.getChildren().get(0).getMatrix()[0][0]);
+        assertEquals(memory.Precision.DOUBLE, root.getChildren().get(1).getPrecision());
+        assertEquals(0.1, root.getChildren().get(1).getMatrix()[0][0]);
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, List.of(lines));
+        return file;
+    }
+}
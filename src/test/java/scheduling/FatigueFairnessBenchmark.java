@@ -0,0 +1,66 @@
+package scheduling;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * How evenly TiredExecutor spreads fatigue when its workers have different fatigue factors. Dispatching to the
+ * least fatigued idle worker should leave every worker with about the same fatigue, i.e. each worker's share of
+ * the work inversely proportional to its factor. Prints each worker's factor, busy time and fatigue, the ideal
+ * busy time for its factor, and Jain's fairness index of the fatigues (1 means perfectly even).
+ * Run with: mvn test -Pbenchmark -Dtest=FatigueFairnessBenchmark [-Dbenchmark.threads=8] [-Dbenchmark.tasks=20000]
+ */
+public class FatigueFairnessBenchmark {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 8);
+    private static final int TASKS = Integer.getInteger("benchmark.tasks", 20000);
+    private static final long TASK_NANOS = 20_000;
+    private static final Pattern REPORT_LINE = Pattern.compile("Fatigue: (\\S+) Time Used: (\\d+)");
+
+    @Test
+    void benchmarkFatigueSpread() throws InterruptedException {
+        TiredExecutor executor = new TiredExecutor(THREADS);
+        int batch = THREADS * 4;
+        for (int submitted = 0; submitted < TASKS; submitted += batch) {
+            executor.forRange(Math.min(batch, TASKS - submitted), (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    long end = System.nanoTime() + TASK_NANOS;
+                    while (System.nanoTime() < end) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        String report = executor.getWorkerReport();
+        executor.shutdown();
+
+        List<double[]> workers = new ArrayList<>(); // factor, time used, fatigue
+        Matcher matcher = REPORT_LINE.matcher(report);
+        while (matcher.find()) {
+            double fatigue = Double.parseDouble(matcher.group(1));
+            double timeUsed = Double.parseDouble(matcher.group(2));
+            workers.add(new double[] { timeUsed == 0 ? Double.NaN : fatigue / timeUsed, timeUsed, fatigue });
+        }
+        assertEquals(THREADS, workers.size());
+
+        double totalTime = 0, inverseFactors = 0, sum = 0, sumOfSquares = 0;
+        for (double[] worker : workers) {
+            totalTime += worker[1];
+            inverseFactors += Double.isNaN(worker[0]) ? 0 : 1 / worker[0];
+            sum += worker[2];
+            sumOfSquares += worker[2] * worker[2];
+        }
+        System.out.printf("%d workers, %d tasks of %d us%n", THREADS, TASKS, TASK_NANOS / 1000);
+        for (double[] worker : workers) {
+            double ideal = Double.isNaN(worker[0]) ? 0 : totalTime / (worker[0] * inverseFactors);
+            System.out.printf("  factor %.2f  busy %8.1f ms (ideal %8.1f ms)  fatigue %10.3g%n",
+                    worker[0], worker[1] / 1e6, ideal / 1e6, worker[2]);
+        }
+        System.out.printf("  Jain's fairness index of fatigue: %.4f%n", sum * sum / (workers.size() * sumOfSquares));
+    }
+}
@@ -0,0 +1,103 @@
+package scheduling;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for ForkJoinExecutor class.
+ * Tests recursive splitting, nested tasks, error propagation and the worker report
+ */
+public class ForkJoinExecutorTest {
+
+    private ForkJoinExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ForkJoinExecutor(4);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdown();
+    }
+
+    // ==================== submitAll / forRange Tests ====================
+
+    @Test
+    void testSubmitAll_ExecutesAllTasks() {
+        AtomicInteger counter = new AtomicInteger(0);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tasks.add(counter::incrementAndGet);
+        }
+
+        executor.submitAll(tasks);
+
+        assertEquals(100, counter.get());
+    }
+
+    @Test
+    void testForRange_CoversEveryIndexOnce() {
+        int[] visits = new int[1001];
+        executor.forRange(visits.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                visits[i]++;
+            }
+        });
+        for (int count : visits) {
+            assertEquals(1, count);
+        }
+    }
+
+    @Test
+    void testForRange_EmptyRange_DoesNothing() {
+        executor.forRange(0, (from, to) -> fail("no range expected"));
+    }
+
+    // ==================== Nested Task Tests ====================
+
+    @Test
+    void testForRange_NestedCallsFromTasks_Complete() {
+        AtomicInteger counter = new AtomicInteger(0);
+
+        // every outer index runs an inner parallel loop and waits for it, as recursive kernels do
+        executor.forRange(16, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                executor.forRange(50, (innerFrom, innerTo) -> counter.addAndGet(innerTo - innerFrom));
+            }
+        });
+
+        assertEquals(16 * 50, counter.get());
+        assertTrue(executor.supportsNestedTasks());
+    }
+
+    @Test
+    void testForRange_TaskException_PropagatesToCaller() {
+        assertThrows(IllegalStateException.class, () -> executor.forRange(10, (from, to) -> {
+            throw new IllegalStateException("task failed");
+        }));
+        // the pool survives a failed task
+        AtomicInteger counter = new AtomicInteger(0);
+        executor.forRange(10, (from, to) -> counter.addAndGet(to - from));
+        assertEquals(10, counter.get());
+    }
+
+    // ==================== getWorkerReport Tests ====================
+
+    @Test
+    void testGetWorkerReport_ListsWorkersAndSteals() {
+        executor.forRange(1000, (from, to) -> { });
+
+        String report = executor.getWorkerReport();
+
+        assertTrue(report.contains("id: "));
+        assertTrue(report.contains("Tasks: "));
+        assertTrue(report.contains("Steals: "));
+    }
+}
@@ -0,0 +1,117 @@
+package scheduling;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Round-trip latency of handing one task to a worker and seeing it run: TiredThread's spin-then-park slot
+ * against a worker blocked in ArrayBlockingQueue.take(), the handoff TiredThread used before.
+ * "back to back" hands tasks over as soon as the previous one ran, as the row tasks of a kernel do;
+ * "after a pause" waits long enough between handoffs for the worker to park first.
+ * Run with: mvn test -Pbenchmark -Dtest=HandoffBenchmark [-Dbenchmark.handoffs=100000]
+ */
+public class HandoffBenchmark {
+
+    private static final int HANDOFFS = Integer.getInteger("benchmark.handoffs", 100000);
+    private static final int PAUSED_HANDOFFS = HANDOFFS / 50;
+    private static final long PAUSE_NANOS = 200_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void benchmarkSpinThenParkVersusBlockingQueue() throws InterruptedException {
+        AtomicLong done = new AtomicLong();
+        Runnable task = done::incrementAndGet;
+
+        TiredThread tired = new TiredThread(0, 1.0);
+        tired.start();
+        QueueWorker queue = new QueueWorker();
+        queue.start();
+
+        long[] tiredHot = null, queueHot = null, tiredCold = null, queueCold = null;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long[] a = measure(tired::newTask, task, done, HANDOFFS, 0);
+            long[] b = measure(queue::newTask, task, done, HANDOFFS, 0);
+            long[] c = measure(tired::newTask, task, done, PAUSED_HANDOFFS, PAUSE_NANOS);
+            long[] d = measure(queue::newTask, task, done, PAUSED_HANDOFFS, PAUSE_NANOS);
+            if (round >= WARMUP_ROUNDS && (tiredHot == null || median(a) < median(tiredHot)))
+                tiredHot = a;
+            if (round >= WARMUP_ROUNDS && (queueHot == null || median(b) < median(queueHot)))
+                queueHot = b;
+            if (round >= WARMUP_ROUNDS && (tiredCold == null || median(c) < median(tiredCold)))
+                tiredCold = c;
+            if (round >= WARMUP_ROUNDS && (queueCold == null || median(d) < median(queueCold)))
+                queueCold = d;
+        }
+        tired.shutdown();
+        queue.interrupt();
+        tired.join();
+        queue.join();
+
+        assertTrue(tired.getTimeUsed() > 0); // the worker still accounts the time its tasks ran
+        print("back to back", tiredHot, queueHot);
+        print("after a pause", tiredCold, queueCold);
+    }
+
+    private interface Handoff {
+        void hand(Runnable task) throws InterruptedException;
+    }
+
+    /**
+     * Returns the sorted round-trip times, in nanoseconds, of handing count tasks over one at a time.
+     */
+    private static long[] measure(Handoff handoff, Runnable task, AtomicLong done, int count, long pauseNanos)
+            throws InterruptedException {
+        long[] times = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (pauseNanos > 0)
+                LockSupport.parkNanos(pauseNanos);
+            long expected = done.get() + 1;
+            long start = System.nanoTime();
+            handoff.hand(task);
+            while (done.get() < expected) {
+                Thread.onSpinWait();
+            }
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times;
+    }
+
+    private static long median(long[] times) {
+        return times[times.length / 2];
+    }
+
+    private static void print(String name, long[] tired, long[] queue) {
+        System.out.printf("%-14s TiredThread p50 %6d ns p99 %7d ns | ArrayBlockingQueue p50 %6d ns p99 %7d ns%n", name,
+                median(tired), tired[tired.length * 99 / 100], median(queue), queue[queue.length * 99 / 100]);
+    }
+
+    /**
+     * The baseline: a worker blocked in take() on a one-slot queue.
+     */
+    private static final class QueueWorker extends Thread {
+        private final BlockingQueue<Runnable> handoff = new ArrayBlockingQueue<>(1);
+
+        void newTask(Runnable task) throws InterruptedException {
+            handoff.put(task);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    handoff.take().run();
+                }
+            } catch (InterruptedException e) {
+                // shut down
+            }
+        }
+    }
+}
@@ -5,9 +5,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Unit tests for TiredExecutor class.
@@ -163,6 +167,159 @@ public class TiredExecutorTest {
         assertEquals(50, counter.get());
     }
 
+    @Test
+    void testForRange_CoversEveryIndexOnce() {
+        int[] visits = new int[103];
+        executor.forRange(visits.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                visits[i]++;
+            }
+        });
+        for (int count : visits) {
+            assertEquals(1, count);
+        }
+        assertFalse(executor.supportsNestedTasks());
+    }
+
+    @Test
+    void testSubmitAll_SendsEachTaskToTheLeastFatiguedWorker() {
+        List<Thread> workers = new ArrayList<>();
+        for (int batch = 0; batch < 4; batch++) {
+            executor.submitAll(List.of(() -> {
+                workers.add(Thread.currentThread());
+                long end = System.nanoTime() + 2_000_000;
+                while (System.nanoTime() < end) {
+                    Thread.onSpinWait();
+                }
+            }));
+        }
+
+        // a worker that has run a task is queued with its new fatigue, behind the three that are still fresh
+        assertEquals(4, workers.stream().distinct().count());
+    }
+
+    @Test
+    void testForRange_SteadyStateDispatchAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] sums = new long[64];
+        ParallelExecutor.RangeTask body = (from, to) -> { // reused across calls, as the engine's row kernels are
+            for (int i = from; i < to; i++) {
+                sums[i] += i;
+            }
+        };
+        for (int call = 0; call < 20000; call++) { // warm up: JIT, the recycled batch, the heap's array
+            executor.forRange(sums.length, body);
+        }
+        long[] ids = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread == Thread.currentThread() || thread instanceof TiredThread)
+                .mapToLong(Thread::threadId).toArray();
+
+        long before = sum(threads.getThreadAllocatedBytes(ids));
+        for (int call = 0; call < 10000; call++) {
+            executor.forRange(sums.length, body);
+        }
+        long allocated = sum(threads.getThreadAllocatedBytes(ids)) - before;
+
+        // submit -> run -> complete allocates nothing per call; leave room for rare lock-queue nodes under contention
+        assertTrue(allocated < 10000 * 8, "allocated " + allocated + " bytes over 10000 calls");
+        assertEquals(30000L * 63 * 64 / 2, java.util.Arrays.stream(sums).sum());
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    // ==================== Failure Tests ====================
+
+    @Test
+    void testForRange_FailingChunkIsRethrownAndWorkersSurvive() {
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> executor.forRange(64, (from, to) -> {
+            if (from == 0)
+                throw new IllegalArgumentException("chunk failed");
+        }));
+        assertEquals("chunk failed", thrown.getMessage());
+
+        AtomicInteger covered = new AtomicInteger();
+        for (int call = 0; call < 100; call++) { // every worker is still there to take chunks
+            executor.forRange(64, (from, to) -> covered.addAndGet(to - from));
+        }
+        assertEquals(6400, covered.get());
+    }
+
+    @Test
+    void testSubmitAll_FailingTaskIsRethrownAndWorkersSurvive() {
+        List<Runnable> tasks = new ArrayList<>();
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 8; i++) {
+            final int index = i;
+            tasks.add(() -> {
+                ran.incrementAndGet();
+                if (index == 3)
+                    throw new IllegalStateException("task failed");
+            });
+        }
+        assertThrows(IllegalStateException.class, () -> executor.submitAll(tasks));
+        assertEquals(8, ran.get()); // the other tasks still ran and were waited for
+
+        ran.set(0);
+        List<Runnable> more = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            more.add(ran::incrementAndGet);
+        }
+        executor.submitAll(more);
+        assertEquals(20, ran.get());
+    }
+
+    @Test
+    void testForRangeAndSubmitAll_InterruptedWhileWaitingForWorker_Cancel() throws InterruptedException {
+        TiredExecutor single = new TiredExecutor(1);
+        CountDownLatch release = new CountDownLatch(1);
+        single.submit(() -> { // keeps the only worker busy
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        AtomicInteger ran = new AtomicInteger();
+        AtomicReference<Throwable> rangeFailure = new AtomicReference<>();
+        AtomicReference<Throwable> submitFailure = new AtomicReference<>();
+
+        Thread ranger = Thread.ofVirtual().start(() -> {
+            try {
+                single.forRange(8, (from, to) -> ran.addAndGet(to - from));
+            } catch (Throwable e) {
+                rangeFailure.set(e);
+            }
+        });
+        Thread submitter = Thread.ofVirtual().start(() -> {
+            try {
+                single.submitAll(List.of(ran::incrementAndGet));
+            } catch (Throwable e) {
+                submitFailure.set(e);
+            }
+        });
+        while (ranger.getState() != Thread.State.WAITING || submitter.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+        ranger.interrupt();
+        submitter.interrupt();
+        ranger.join();
+        submitter.join();
+        release.countDown();
+
+        assertInstanceOf(CancellationException.class, rangeFailure.get());
+        assertInstanceOf(CancellationException.class, submitFailure.get());
+        assertEquals(0, ran.get()); // neither call returned as if its work had run
+        single.submitAll(List.of(ran::incrementAndGet)); // and the executor still works
+        assertEquals(1, ran.get());
+        single.shutdown();
+    }
+
     // ==================== Concurrency Tests ====================
 
     @Test
@@ -185,4 +342,32 @@ public class TiredExecutorTest {
             assertEquals(i * 2, array[i]);
         }
     }
+
+    @Test
+    void testSubmitAll_ConcurrentVirtualCallersWaitForTheirOwnBatch() throws InterruptedException {
+        int callers = 50;
+        int[][] results = new int[callers][20];
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < callers; c++) {
+            final int[] result = results[c];
+            threads.add(Thread.ofVirtual().start(() -> {
+                List<Runnable> tasks = new ArrayList<>();
+                for (int i = 0; i < result.length; i++) {
+                    final int index = i;
+                    tasks.add(() -> result[index] = index + 1);
+                }
+                executor.submitAll(tasks);
+                // every task of this caller's batch has finished once submitAll returns
+                for (int i = 0; i < result.length; i++) {
+                    assertEquals(i + 1, result[i]);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int[] result : results) {
+            assertEquals(20, result[19]);
+        }
+    }
 }
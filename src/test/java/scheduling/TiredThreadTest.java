@@ -3,6 +3,8 @@ package scheduling;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Unit tests for TiredThread class.
  * Tests worker thread operations: newTask, shutdown, fatigue calculation
@@ -133,6 +135,66 @@ public class TiredThreadTest {
         }));
     }
 
+    @Test
+    void testNewTask_ThrowsWhileATaskIsPending() {
+        TiredThread thread = new TiredThread(0, 1.0); // not started, so the first task stays in the slot
+
+        thread.newTask(() -> {
+        });
+
+        assertThrows(IllegalStateException.class, () -> thread.newTask(() -> {
+        }));
+        thread.shutdown();
+    }
+
+    @Test
+    void testNewTask_BackToBackHandoffsAllRun() throws InterruptedException {
+        TiredThread thread = new TiredThread(0, 1.0);
+        thread.start();
+        AtomicInteger done = new AtomicInteger();
+
+        for (int i = 0; i < 10000; i++) {
+            thread.newTask(done::incrementAndGet);
+            while (done.get() <= i) { // the slot is free again once the worker has taken the task
+                Thread.onSpinWait();
+            }
+            if (i % 1000 == 0)
+                Thread.sleep(2); // long enough for the worker to give up spinning and park
+        }
+
+        assertEquals(10000, done.get());
+        thread.shutdown();
+        thread.join(1000);
+        assertFalse(thread.isAlive());
+    }
+
+    @Test
+    void testNewTask_FailingTaskDoesNotKillWorker() throws InterruptedException {
+        AtomicInteger idle = new AtomicInteger();
+        TiredThread thread = new TiredThread(0, 1.0, worker -> idle.incrementAndGet());
+        thread.setUncaughtExceptionHandler((worker, failure) -> { }); // keep the expected failure out of the log
+        thread.start();
+
+        thread.newTask(() -> {
+            throw new IllegalStateException("task failed");
+        });
+        long deadline = System.currentTimeMillis() + 5000;
+        while (idle.get() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        AtomicInteger ran = new AtomicInteger();
+        thread.newTask(ran::incrementAndGet);
+        while (idle.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+
+        assertTrue(thread.isAlive());
+        assertEquals(1, ran.get());
+        assertEquals(2, idle.get());
+        thread.shutdown();
+        thread.join();
+    }
+
     // ==================== Shutdown Tests ====================
 
     @Test
@@ -147,4 +209,16 @@ public class TiredThreadTest {
 
         assertFalse(thread.isAlive());
     }
+
+    @Test
+    void testShutdown_WakesParkedWorker() throws InterruptedException {
+        TiredThread thread = new TiredThread(0, 1.0);
+        thread.start();
+        Thread.sleep(50); // past the spin phase
+
+        thread.shutdown();
+        thread.join(1000);
+
+        assertFalse(thread.isAlive());
+    }
 }
@@ -0,0 +1,105 @@
+package spl.lae;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import scheduling.TiredExecutor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Unit tests for BatchRunner class.
+ * Tests finding inputs by directory and glob, per-file outputs, the summary report and output directory checks
+ */
+public class BatchRunnerTest {
+
+    // ==================== Find Inputs Tests ====================
+
+    @Test
+    void testFindInputs_DirectoryListsJsonFilesSorted(@TempDir Path directory) throws IOException {
+        Files.writeString(directory.resolve("b.json"), "{}");
+        Files.writeString(directory.resolve("a.json"), "{}");
+        Files.writeString(directory.resolve("notes.txt"), "");
+        Files.createDirectory(directory.resolve("nested.json"));
+
+        assertEquals(List.of(directory.resolve("a.json"), directory.resolve("b.json")),
+                BatchRunner.findInputs(directory.toString()));
+    }
+
+    @Test
+    void testFindInputs_GlobMatchesFileNames(@TempDir Path directory) throws IOException {
+        Files.writeString(directory.resolve("job-1.json"), "{}");
+        Files.writeString(directory.resolve("job-2.json"), "{}");
+        Files.writeString(directory.resolve("other.json"), "{}");
+
+        assertEquals(List.of(directory.resolve("job-1.json"), directory.resolve("job-2.json")),
+                BatchRunner.findInputs(directory.resolve("job-*.json").toString()));
+    }
+
+    @Test
+    void testFindInputs_SkipsSummaryOfEarlierBatch(@TempDir Path directory) throws IOException {
+        Files.writeString(directory.resolve("a.json"), "{}");
+        Files.writeString(directory.resolve(BatchRunner.SUMMARY_FILE), "{}");
+
+        assertEquals(List.of(directory.resolve("a.json")), BatchRunner.findInputs(directory.toString()));
+    }
+
+    @Test
+    void testFindInputs_MissingDirectoryThrows(@TempDir Path directory) {
+        assertThrows(IOException.class, () -> BatchRunner.findInputs(directory.resolve("missing/*.json").toString()));
+    }
+
+    // ==================== Run Tests ====================
+
+    @Test
+    void testRun_WritesResultsErrorsAndSummary(@TempDir Path directory) throws Exception {
+        Path inputs = Files.createDirectory(directory.resolve("in"));
+        Path outputs = directory.resolve("out");
+        for (int job = 0; job < 20; job++) {
+            Files.writeString(inputs.resolve("job" + job + ".json"),
+                    "{\"operator\": \"+\", \"operands\": [[[" + job + ", 1]], [[1, 1]]]}");
+        }
+        Files.writeString(inputs.resolve("bad.json"), "{\"operator\": \"+\", \"operands\": [[[1, 2]], [[3], [4]]]}");
+
+        List<ConcurrentJobRunner.JobReport> reports = BatchRunner.run(BatchRunner.findInputs(inputs.toString()), outputs,
+                new TiredExecutor(2), 4);
+
+        assertEquals(21, reports.size());
+        assertEquals(1, reports.stream().filter(report -> !report.succeeded()).count());
+        ObjectMapper mapper = new ObjectMapper();
+        for (int job = 0; job < 20; job++) {
+            JsonNode written = mapper.readTree(outputs.resolve("job" + job + ".json").toFile());
+            assertEquals(job + 1.0, written.get("result").get(0).get(0).asDouble());
+        }
+        assertTrue(mapper.readTree(outputs.resolve("bad.json").toFile()).has("error"));
+
+        JsonNode summary = mapper.readTree(outputs.resolve(BatchRunner.SUMMARY_FILE).toFile());
+        assertEquals(21, summary.get("files").asInt());
+        assertEquals(20, summary.get("succeeded").asInt());
+        assertEquals(1, summary.get("failed").asInt());
+        assertEquals(21, summary.get("jobs").size());
+        JsonNode bad = summary.get("jobs").get(0); // bad.json sorts first
+        assertEquals("error", bad.get("status").asText());
+        assertTrue(bad.has("error"));
+        assertTrue(summary.get("jobs").get(1).get("computeMillis").asDouble() >= 0);
+    }
+
+    @Test
+    void testRun_OutputInsideInputDirectoryThrows(@TempDir Path directory) throws Exception {
+        Path inputs = Files.createDirectory(directory.resolve("in"));
+        Files.writeString(inputs.resolve("job.json"), "{\"operator\": \"-\", \"operands\": [[[1]]]}");
+        List<Path> files = BatchRunner.findInputs(inputs.toString());
+
+        assertThrows(IOException.class, () -> BatchRunner.run(files, inputs, new TiredExecutor(1), 1));
+        assertThrows(IOException.class, () -> BatchRunner.run(files, inputs.resolve("out/.."), new TiredExecutor(1), 1));
+        assertThrows(IOException.class, () -> BatchRunner.run(files, inputs.resolve("out"), new TiredExecutor(1), 1));
+        assertFalse(Files.exists(inputs.resolve("out")));
+        assertEquals("{\"operator\": \"-\", \"operands\": [[[1]]]}", Files.readString(inputs.resolve("job.json")));
+    }
+}
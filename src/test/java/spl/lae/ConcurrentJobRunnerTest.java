@@ -0,0 +1,105 @@
+package spl.lae;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import parser.ComputationNode;
+import parser.ComputationNodeType;
+import scheduling.ForkJoinExecutor;
+import scheduling.TiredExecutor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+/**
+ * Unit tests for ConcurrentJobRunner class.
+ * Tests many jobs in flight on one shared kernel executor, file jobs and error outputs
+ */
+public class ConcurrentJobRunnerTest {
+
+    // ==================== Tree Job Tests ====================
+
+    @Test
+    void testSubmit_ManyJobsShareOneTiredExecutor() throws Exception {
+        List<Future<ComputationNode>> results = new ArrayList<>();
+        try (ConcurrentJobRunner runner = new ConcurrentJobRunner(new TiredExecutor(4))) {
+            for (int job = 0; job < 200; job++) {
+                results.add(runner.submit(job(job)));
+            }
+        }
+        for (int job = 0; job < 200; job++) {
+            // [[job, 1], [0, 1]] * [[1, 2], [3, 4]] + I
+            double[][] expected = { { job + 4, 2 * job + 4 }, { 3, 5 } };
+            assertArrayEquals(expected, results.get(job).get().getMatrix());
+        }
+    }
+
+    @Test
+    void testSubmit_ManyJobsShareOneForkJoinExecutor() throws Exception {
+        List<Future<ComputationNode>> results = new ArrayList<>();
+        try (ConcurrentJobRunner runner = new ConcurrentJobRunner(new ForkJoinExecutor(4))) {
+            for (int job = 0; job < 100; job++) {
+                results.add(runner.submit(job(job)));
+            }
+        }
+        for (int job = 0; job < 100; job++) {
+            assertEquals(job + 4, results.get(job).get().getMatrix()[0][0]);
+        }
+    }
+
+    // ==================== File Job Tests ====================
+
+    @Test
+    void testSubmit_FileJobsWriteResultsAndErrors(@TempDir Path directory) throws Exception {
+        Path good = directory.resolve("good.json");
+        Path bad = directory.resolve("bad.json");
+        Files.writeString(good, "{\"operator\": \"+\", \"operands\": [[[1, 2]], [[3, 4]]]}");
+        Files.writeString(bad, "{\"operator\": \"+\", \"operands\": [[[1, 2]], [[3], [4]]]}");
+
+        Future<ConcurrentJobRunner.JobReport> goodResult;
+        Future<ConcurrentJobRunner.JobReport> badResult;
+        try (ConcurrentJobRunner runner = new ConcurrentJobRunner(new TiredExecutor(2))) {
+            goodResult = runner.submit(good.toString(), directory.resolve("good.out.json").toString());
+            badResult = runner.submit(bad.toString(), directory.resolve("bad.out.json").toString());
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        assertTrue(goodResult.get().succeeded());
+        JsonNode written = mapper.readTree(directory.resolve("good.out.json").toFile());
+        assertEquals(4.0, written.get("result").get(0).get(0).asDouble());
+        assertEquals(6.0, written.get("result").get(0).get(1).asDouble());
+        assertFalse(badResult.get().succeeded());
+        assertTrue(mapper.readTree(directory.resolve("bad.out.json").toFile()).has("error"));
+    }
+
+    // ==================== Close Tests ====================
+
+    @Test
+    void testClose_InterruptedShutdown_RestoresInterruptFlag() {
+        ConcurrentJobRunner runner = new ConcurrentJobRunner(new TiredExecutor(2) {
+            @Override
+            public void shutdown() throws InterruptedException {
+                super.shutdown();
+                throw new InterruptedException();
+            }
+        });
+
+        runner.close();
+
+        assertTrue(Thread.interrupted()); // also clears the flag for the next test
+    }
+
+    private static ComputationNode job(int job) {
+        ComputationNode product = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(
+                new ComputationNode(new double[][] { { job, 1 }, { 0, 1 } }),
+                new ComputationNode(new double[][] { { 1, 2 }, { 3, 4 } })));
+        return new ComputationNode(ComputationNodeType.ADD, List.of(product,
+                new ComputationNode(new double[][] { { 1, 0 }, { 0, 1 } })));
+    }
+}
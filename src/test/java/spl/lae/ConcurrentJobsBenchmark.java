@@ -0,0 +1,101 @@
+package spl.lae;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import parser.ComputationNode;
+import parser.InputParser;
+import parser.OutputWriter;
+import scheduling.TiredExecutor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Future;
+
+/**
+ * Throughput of many small file jobs: one after another on a single thread, as a loop over Main would run them,
+ * against ConcurrentJobRunner with one virtual thread per job. Both use one TiredExecutor sized to the cores.
+ * Run with: mvn test -Pbenchmark -Dtest=ConcurrentJobsBenchmark [-Dbenchmark.jobs=400] [-Dbenchmark.size=32]
+ */
+public class ConcurrentJobsBenchmark {
+
+    private static final int JOBS = Integer.getInteger("benchmark.jobs", 400);
+    private static final int SIZE = Integer.getInteger("benchmark.size", 32);
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void benchmarkSequentialVersusVirtualThreads() throws Exception {
+        List<String> inputs = new ArrayList<>();
+        Random random = new Random(1);
+        for (int job = 0; job < JOBS; job++) {
+            Path input = directory.resolve("job" + job + ".json");
+            Files.writeString(input, "{\"operator\": \"*\", \"operands\": [" + randomMatrix(random) + ", {\"operator\": \"+\", \"operands\": ["
+                    + randomMatrix(random) + ", " + randomMatrix(random) + "]}]}");
+            inputs.add(input.toString());
+        }
+
+        long sequential = Long.MAX_VALUE;
+        long concurrent = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            runSequentially(inputs);
+            long sequentialTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            runConcurrently(inputs);
+            long concurrentTime = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) {
+                sequential = Math.min(sequential, sequentialTime);
+                concurrent = Math.min(concurrent, concurrentTime);
+            }
+        }
+        System.out.printf("%d jobs of %dx%d, %d kernel threads%n", JOBS, SIZE, SIZE, THREADS);
+        System.out.printf("  sequential:      %8.1f ms  %8.0f jobs/s%n", sequential / 1e6, JOBS / (sequential / 1e9));
+        System.out.printf("  virtual threads: %8.1f ms  %8.0f jobs/s  (%.2fx)%n", concurrent / 1e6, JOBS / (concurrent / 1e9),
+                (double) sequential / concurrent);
+    }
+
+    private void runSequentially(List<String> inputs) throws Exception {
+        TiredExecutor kernels = new TiredExecutor(THREADS);
+        for (String input : inputs) {
+            ComputationNode root = new InputParser().parse(input);
+            root.rewritePowers();
+            root.associativeNesting();
+            OutputWriter.write(new LinearAlgebraEngine(kernels, false).run(root).getMatrix(), input + ".out");
+        }
+        kernels.shutdown();
+    }
+
+    private void runConcurrently(List<String> inputs) throws Exception {
+        List<Future<ConcurrentJobRunner.JobReport>> results = new ArrayList<>();
+        try (ConcurrentJobRunner runner = new ConcurrentJobRunner(new TiredExecutor(THREADS))) {
+            for (String input : inputs) {
+                results.add(runner.submit(input, input + ".out"));
+            }
+        }
+        for (Future<ConcurrentJobRunner.JobReport> result : results) {
+            assertTrue(result.get().succeeded());
+        }
+    }
+
+    private static String randomMatrix(Random random) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < SIZE; i++) {
+            json.append(i == 0 ? "[" : ", [");
+            for (int j = 0; j < SIZE; j++) {
+                json.append(j == 0 ? "" : ", ").append(random.nextInt(19) - 9);
+            }
+            json.append(']');
+        }
+        return json.append(']').toString();
+    }
+}
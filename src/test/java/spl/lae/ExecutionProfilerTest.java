@@ -0,0 +1,121 @@
+package spl.lae;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import parser.ComputationNode;
+import parser.ComputationNodeType;
+import scheduling.TiredExecutor;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Unit tests for ExecutionProfiler class.
+ * Tests per-node records, task spans, the Chrome trace export and the summary
+ */
+public class ExecutionProfilerTest {
+
+    // ==================== Recording Tests ====================
+
+    @Test
+    void testProfiler_RecordsEveryNodeWithShapesAndTasks() throws Exception {
+        ExecutionProfiler profiler = new ExecutionProfiler();
+        LinearAlgebraEngine engine = new LinearAlgebraEngine(new TiredExecutor(3), false);
+        engine.setProfiler(profiler);
+
+        engine.run(negatedProduct(40, 30, 20));
+        engine.shutdown();
+
+        List<ExecutionProfiler.NodeProfile> nodes = profiler.getNodes();
+        assertEquals(2, nodes.size());
+        ExecutionProfiler.NodeProfile multiply = nodes.get(0);
+        assertEquals(ComputationNodeType.MULTIPLY, multiply.type());
+        assertEquals("40x30, 30x20 -> 40x20", multiply.shapes());
+        assertFalse(multiply.dispatches().isEmpty());
+        assertTrue(multiply.tasks() > 0);
+        assertTrue(multiply.busyNanos() > 0);
+        assertEquals(multiply.totalNanos(), multiply.loadNanos() + multiply.kernelNanos() + multiply.readbackNanos());
+        assertEquals(ComputationNodeType.NEGATE, nodes.get(1).type());
+        assertEquals("40x20 -> 40x20", nodes.get(1).shapes());
+    }
+
+    @Test
+    void testProfiler_DisabledByDefault() throws Exception {
+        ExecutionProfiler profiler = new ExecutionProfiler();
+        LinearAlgebraEngine engine = new LinearAlgebraEngine(new TiredExecutor(2), false);
+        engine.setProfiler(profiler);
+        engine.setProfiler(null);
+
+        engine.run(negatedProduct(4, 4, 4));
+        engine.shutdown();
+
+        assertTrue(profiler.getNodes().isEmpty());
+    }
+
+    // ==================== Export Tests ====================
+
+    @Test
+    void testWriteChromeTrace_HasNodeAndTaskEvents(@TempDir Path directory) throws Exception {
+        ExecutionProfiler profiler = new ExecutionProfiler();
+        LinearAlgebraEngine engine = new LinearAlgebraEngine(new TiredExecutor(2), false);
+        engine.setProfiler(profiler);
+        engine.run(negatedProduct(16, 16, 16));
+        engine.shutdown();
+
+        Path trace = directory.resolve("trace.json");
+        profiler.writeChromeTrace(trace);
+
+        JsonNode events = new ObjectMapper().readTree(trace.toFile()).get("traceEvents");
+        int nodes = 0, tasks = 0, threadNames = 0;
+        for (JsonNode event : events) {
+            if (event.get("ph").asText().equals("M"))
+                threadNames++;
+            else if (event.get("cat").asText().equals("node"))
+                nodes++;
+            else if (event.get("cat").asText().equals("task"))
+                tasks++;
+        }
+        assertEquals(2, nodes);
+        assertTrue(tasks > 0);
+        assertTrue(threadNames >= 2); // the job thread and at least one worker
+    }
+
+    @Test
+    void testSummary_SortedByCost() throws Exception {
+        ExecutionProfiler profiler = new ExecutionProfiler();
+        LinearAlgebraEngine engine = new LinearAlgebraEngine(new TiredExecutor(2), false);
+        engine.setProfiler(profiler);
+        engine.run(negatedProduct(64, 64, 64));
+        engine.shutdown();
+
+        String summary = profiler.summary();
+
+        assertTrue(summary.startsWith("2 nodes"));
+        List<String> lines = summary.lines().toList();
+        assertEquals(4, lines.size());
+        ExecutionProfiler.NodeProfile first = profiler.getNodes().stream()
+                .max((a, b) -> Long.compare(a.totalNanos(), b.totalNanos())).orElseThrow();
+        assertTrue(lines.get(2).startsWith(first.type().name()));
+    }
+
+    private static ComputationNode negatedProduct(int rows, int inner, int columns) {
+        double[][] a = new double[rows][inner];
+        double[][] b = new double[inner][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int k = 0; k < inner; k++) {
+                a[i][k] = i - k;
+            }
+        }
+        for (int k = 0; k < inner; k++) {
+            for (int j = 0; j < columns; j++) {
+                b[k][j] = k + 2.0 * j;
+            }
+        }
+        ComputationNode product = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(new ComputationNode(a), new ComputationNode(b)));
+        return new ComputationNode(ComputationNodeType.NEGATE, List.of(product));
+    }
+}
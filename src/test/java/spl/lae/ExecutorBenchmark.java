@@ -0,0 +1,79 @@
+package spl.lae;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import parser.ComputationNode;
+import parser.ComputationNodeType;
+import scheduling.ForkJoinExecutor;
+import scheduling.ParallelExecutor;
+import scheduling.TiredExecutor;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Runs the same job, ((A * B) + C) * A^T, on the TiredExecutor and on the ForkJoin backend and prints
+ * the best wall time of each along with its worker report.
+ * Run with: mvn test -Pbenchmark -Dtest=ExecutorBenchmark [-Dbenchmark.size=512] [-Dbenchmark.threads=8]
+ */
+public class ExecutorBenchmark {
+
+    private static final int SIZE = Integer.getInteger("benchmark.size", 256);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", Runtime.getRuntime().availableProcessors());
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void benchmarkTiredExecutorVersusForkJoin() {
+        double[][] a = randomMatrix(1);
+        double[][] b = randomMatrix(2);
+        double[][] c = randomMatrix(3);
+
+        double[][] tired = time("tired", TiredExecutor::new, a, b, c);
+        double[][] forkJoin = time("forkjoin", ForkJoinExecutor::new, a, b, c);
+
+        for (int i = 0; i < SIZE; i++) {
+            assertArrayEquals(tired[i], forkJoin[i], 1e-9);
+        }
+    }
+
+    private static double[][] time(String name, IntFunction<ParallelExecutor> backend, double[][] a, double[][] b, double[][] c) {
+        long best = Long.MAX_VALUE;
+        double[][] result = null;
+        String report = "";
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            LinearAlgebraEngine engine = new LinearAlgebraEngine(backend.apply(THREADS));
+            ComputationNode job = job(a, b, c);
+            long start = System.nanoTime();
+            result = engine.run(job).getMatrix();
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS && elapsed < best) {
+                best = elapsed;
+                report = engine.getWorkerReport();
+            }
+        }
+        System.out.printf("%s, %d threads, %dx%d: %.1f ms%n%s", name, THREADS, SIZE, SIZE, best / 1e6, report);
+        return result;
+    }
+
+    private static ComputationNode job(double[][] a, double[][] b, double[][] c) {
+        ComputationNode sum = new ComputationNode(ComputationNodeType.ADD, List.of(
+                new ComputationNode(ComputationNodeType.MULTIPLY, List.of(new ComputationNode(a), new ComputationNode(b))),
+                new ComputationNode(c)));
+        return new ComputationNode(ComputationNodeType.MULTIPLY, List.of(sum,
+                new ComputationNode(ComputationNodeType.TRANSPOSE, List.of(new ComputationNode(a)))));
+    }
+
+    private static double[][] randomMatrix(long seed) {
+        Random random = new Random(seed);
+        double[][] matrix = new double[SIZE][SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                matrix[i][j] = random.nextDouble() - 0.5;
+            }
+        }
+        return matrix;
+    }
+}
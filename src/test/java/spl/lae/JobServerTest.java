@@ -0,0 +1,123 @@
+package spl.lae;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import scheduling.TiredExecutor;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+/**
+ * Unit tests for JobServer class.
+ * Tests job submission, error responses, warm-up and the health/metrics endpoints on localhost
+ */
+public class JobServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private JobServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new JobServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), new TiredExecutor(2), Path.of("."));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    // ==================== Job Tests ====================
+
+    @Test
+    void testPostJob_ReturnsResult() throws Exception {
+        HttpResponse<String> response = post("/jobs", "{\"operator\": \"*\", \"operands\": [[[1, 2], [3, 4]], [[0, 1], [1, 0]]]}");
+
+        assertEquals(200, response.statusCode());
+        JsonNode result = mapper.readTree(response.body()).get("result");
+        assertEquals(2.0, result.get(0).get(0).asDouble());
+        assertEquals(1.0, result.get(0).get(1).asDouble());
+        assertEquals(4.0, result.get(1).get(0).asDouble());
+        assertEquals(3.0, result.get(1).get(1).asDouble());
+    }
+
+    @Test
+    void testPostJob_NamedExpressions_ReturnNamedResults() throws Exception {
+        HttpResponse<String> response = post("/jobs", "{\"leaves\": {\"A\": [[1, 2], [3, 4]]}, \"expressions\": {"
+                + "\"negated\": {\"operator\": \"-\", \"operands\": [\"A\"]},"
+                + " \"square\": {\"operator\": \"*\", \"operands\": [\"A\", \"A\"]}}}");
+
+        assertEquals(200, response.statusCode());
+        JsonNode results = mapper.readTree(response.body()).get("results");
+        assertEquals(-4.0, results.get("negated").get(1).get(1).asDouble());
+        assertEquals(7.0, results.get("square").get(0).get(0).asDouble());
+        assertEquals(22.0, results.get("square").get(1).get(1).asDouble());
+    }
+
+    @Test
+    void testPostJob_InvalidJobsReturnErrors() throws Exception {
+        HttpResponse<String> mismatch = post("/jobs", "{\"operator\": \"+\", \"operands\": [[[1, 2]], [[1], [2]]]}");
+        HttpResponse<String> malformed = post("/jobs", "{\"operator\": ");
+
+        assertEquals(400, mismatch.statusCode());
+        assertTrue(mapper.readTree(mismatch.body()).get("error").asText().contains("dimensions mismatch"));
+        assertEquals(400, malformed.statusCode());
+        assertTrue(mapper.readTree(malformed.body()).has("error"));
+    }
+
+    @Test
+    void testGetJobs_NotAllowed() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/jobs")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode());
+    }
+
+    // ==================== Health / Metrics Tests ====================
+
+    @Test
+    void testHealth_ReportsOk() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/health")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("ok", mapper.readTree(response.body()).get("status").asText());
+    }
+
+    @Test
+    void testMetrics_CountJobsAndWarmUp() throws Exception {
+        server.warmUp(2);
+        post("/jobs", "{\"operator\": \"-\", \"operands\": [[[1, 2]]]}");
+        post("/jobs", "{\"operator\": \"T\", \"operands\": [[[1, 2]]]}");
+        post("/jobs", "[1, 2]");
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/metrics")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        JsonNode metrics = mapper.readTree(response.body());
+
+        assertEquals(2, metrics.get("warmUpJobs").asLong());
+        assertEquals(2, metrics.get("completedJobs").asLong());
+        assertEquals(1, metrics.get("failedJobs").asLong());
+        assertEquals(0, metrics.get("activeJobs").asLong());
+        assertEquals(2, metrics.get("workers").size());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
@@ -3,11 +3,21 @@ package spl.lae;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
+import memory.MatrixStructure;
+import memory.Precision;
+import memory.SharedMatrix;
 import parser.ComputationNode;
 import parser.ComputationNodeType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Unit tests for LinearAlgebraEngine class.
@@ -110,6 +120,60 @@ public class LinearAlgebraEngineTest {
         assertEquals(6.0, matrix[1][2]);
     }
 
+    @Test
+    void testMultiply_StrassenCutoff_MatchesClassical() {
+        double[][] a = denseMatrix(37, 41);
+        double[][] b = denseMatrix(41, 29);
+
+        ComputationNode product = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(new ComputationNode(a), new ComputationNode(b)));
+        engine.setStrassenCutoff(8);
+        double[][] matrix = engine.run(product).getMatrix();
+
+        assertMatrixEquals(multiply(a, b), matrix);
+    }
+
+    @Test
+    void testPower_RepeatedSquaringMatchesRepeatedMultiply() {
+        double[][] a = denseMatrix(4, 4);
+        ComputationNode power = new ComputationNode(new ComputationNode(a), 7);
+
+        double[][] matrix = engine.run(power).getMatrix();
+
+        double[][] expected = a;
+        for (int k = 1; k < 7; k++) {
+            expected = multiply(expected, a);
+        }
+        assertMatrixEquals(expected, matrix);
+    }
+
+    @Test
+    void testPower_RewrittenChainInsideExpression() {
+        double[][] a = denseMatrix(3, 3);
+        double[][] b = denseMatrix(3, 3);
+
+        // A * B * B * B, with the run of B rewritten to B^3
+        ComputationNode product = new ComputationNode("*", new java.util.ArrayList<>(List.of(
+                new ComputationNode(a), new ComputationNode(b), new ComputationNode(b), new ComputationNode(b))));
+        product.rewritePowers();
+        product.associativeNesting();
+        double[][] matrix = engine.run(product).getMatrix();
+
+        assertMatrixEquals(multiply(multiply(multiply(a, b), b), b), matrix);
+    }
+
+    @Test
+    void testPower_ExponentOne_ReturnsOperand() {
+        double[][] a = denseMatrix(2, 3);
+        ComputationNode power = new ComputationNode(new ComputationNode(a), 1);
+        assertMatrixEquals(a, engine.run(power).getMatrix());
+    }
+
+    @Test
+    void testPower_NonSquare_Throws() {
+        ComputationNode power = new ComputationNode(new ComputationNode(denseMatrix(2, 3)), 2);
+        assertThrows(IllegalArgumentException.class, () -> engine.run(power));
+    }
+
     // ==================== Negate Tests ====================
 
     @Test
@@ -184,6 +248,227 @@ public class LinearAlgebraEngineTest {
         assertEquals(4.0, matrix[1][1]);
     }
 
+    @Test
+    void testTranspose_ViewsFeedMultiplyAndAdd() {
+        double[][] a = denseMatrix(3, 4);
+        double[][] b = denseMatrix(3, 2);
+        double[][] c = denseMatrix(2, 4);
+
+        // (A^T * B) + C^T, both transposes stay views over their operands
+        ComputationNode product = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(
+                new ComputationNode(ComputationNodeType.TRANSPOSE, List.of(new ComputationNode(a))),
+                new ComputationNode(b)));
+        ComputationNode sum = new ComputationNode(ComputationNodeType.ADD, List.of(product,
+                new ComputationNode(ComputationNodeType.TRANSPOSE, List.of(new ComputationNode(c)))));
+        double[][] matrix = engine.run(sum).getMatrix();
+
+        double[][] expected = multiply(transpose(a), b);
+        double[][] cT = transpose(c);
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 2; j++) {
+                expected[i][j] += cT[i][j];
+            }
+        }
+        assertMatrixEquals(expected, matrix);
+    }
+
+    @Test
+    void testMultiplyChain_RecyclesIntermediateStorage() {
+        double[][] a = denseMatrix(6, 6);
+        double[][] b = denseMatrix(6, 6);
+
+        // ((A * B) * A) * B: the first product's rows are recycled into the third product's output
+        ComputationNode first = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(new ComputationNode(a), new ComputationNode(b)));
+        ComputationNode second = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(first, new ComputationNode(a)));
+        ComputationNode third = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(second, new ComputationNode(b)));
+        double[][] matrix = engine.run(third).getMatrix();
+
+        assertMatrixEquals(multiply(multiply(multiply(a, b), a), b), matrix);
+        assertTrue(engine.getBufferPoolHits() > 0);
+    }
+
+    @Test
+    void testOffHeap_MatchesHeapResults() {
+        double[][] a = denseMatrix(5, 4);
+        double[][] b = denseMatrix(4, 5);
+
+        // -(A * B) + (A * B)^T, with every intermediate stored off-heap
+        ComputationNode product = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(new ComputationNode(a), new ComputationNode(b)));
+        ComputationNode otherProduct = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(new ComputationNode(a), new ComputationNode(b)));
+        ComputationNode sum = new ComputationNode(ComputationNodeType.ADD, List.of(
+                new ComputationNode(ComputationNodeType.NEGATE, List.of(product)),
+                new ComputationNode(ComputationNodeType.TRANSPOSE, List.of(otherProduct))));
+        engine.setOffHeap(true);
+        double[][] matrix = engine.run(sum).getMatrix();
+
+        double[][] ab = multiply(a, b);
+        double[][] expected = transpose(ab);
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 5; j++) {
+                expected[i][j] -= ab[i][j];
+            }
+        }
+        assertMatrixEquals(expected, matrix);
+    }
+
+    @Test
+    void testMemoryBudget_SpillsIntermediatesAndPagesThemIn(@TempDir Path scratch) {
+        double[][] a = denseMatrix(4, 4);
+        double[][] b = denseMatrix(4, 4);
+
+        // (A * B) + (B * A): the left product waits, spilled, while the right one is computed
+        ComputationNode sum = new ComputationNode(ComputationNodeType.ADD, List.of(
+                new ComputationNode(ComputationNodeType.MULTIPLY, List.of(new ComputationNode(a), new ComputationNode(b))),
+                new ComputationNode(ComputationNodeType.MULTIPLY, List.of(new ComputationNode(b), new ComputationNode(a)))));
+        engine.setMemoryBudget(0, scratch);
+        double[][] matrix = engine.run(sum).getMatrix();
+
+        double[][] expected = multiply(a, b);
+        double[][] other = multiply(b, a);
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                expected[i][j] += other[i][j];
+            }
+        }
+        assertMatrixEquals(expected, matrix);
+        assertTrue(engine.getSpilledBytes() >= 4 * 4 * Double.BYTES);
+    }
+
+    // ==================== Liveness Tests ====================
+
+    @Test
+    void testRun_SharedLeaf_ReleasedAfterLastConsumer() {
+        double[][] a = denseMatrix(3, 3);
+        double[][] b = denseMatrix(3, 3);
+        ComputationNode leafA = new ComputationNode(a);
+
+        // (A + B) * A: A is read by both operations
+        ComputationNode sum = new ComputationNode(ComputationNodeType.ADD, List.of(leafA, new ComputationNode(b)));
+        ComputationNode product = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(sum, leafA));
+        double[][] matrix = engine.run(product).getMatrix();
+
+        double[][] aPlusB = new double[3][3];
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                aPlusB[i][j] = a[i][j] + b[i][j];
+            }
+        }
+        assertMatrixEquals(multiply(aPlusB, a), matrix);
+        assertThrows(IllegalStateException.class, leafA::getSharedMatrix);
+    }
+
+    @Test
+    void testRun_SharedIntermediate_NotOverwrittenInPlace() {
+        double[][] a = denseMatrix(4, 4);
+        ComputationNode negated = new ComputationNode(ComputationNodeType.NEGATE, List.of(new ComputationNode(a)));
+
+        // -(-A) + (-A)^T == A - A^T, both parents read the same intermediate
+        ComputationNode sum = new ComputationNode(ComputationNodeType.ADD, List.of(
+                new ComputationNode(ComputationNodeType.NEGATE, List.of(negated)),
+                new ComputationNode(ComputationNodeType.TRANSPOSE, List.of(negated))));
+        double[][] matrix = engine.run(sum).getMatrix();
+
+        double[][] expected = new double[4][4];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                expected[i][j] = a[i][j] - a[j][i];
+            }
+        }
+        assertMatrixEquals(expected, matrix);
+    }
+
+    @Test
+    void testMatrixBytes_TracksPeakAndResult() {
+        ComputationNode leafA = new ComputationNode(denseMatrix(2, 2));
+        ComputationNode leafB = new ComputationNode(denseMatrix(2, 2));
+        long matrixBytes = 2 * 2 * Double.BYTES;
+
+        // (A * B) * A: B is released after the first product, A only after the second
+        ComputationNode first = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(leafA, leafB));
+        ComputationNode second = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(first, leafA));
+        engine.run(second);
+
+        assertEquals(3 * matrixBytes, engine.getPeakMatrixBytes());
+        assertEquals(matrixBytes, engine.getCurrentMatrixBytes());
+    }
+
+    // ==================== Verification Tests ====================
+
+    @Test
+    void testVerification_CorrectProducts_NoFailures() {
+        double[][] a = denseMatrix(30, 20);
+        double[][] b = denseMatrix(30, 25);
+        double[][] c = sparseMatrix(25, 25);
+
+        // (A^T * B) * C: a transpose view, a dense product and a dense-by-sparse product
+        ComputationNode product = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(
+                new ComputationNode(ComputationNodeType.MULTIPLY, List.of(
+                        new ComputationNode(ComputationNodeType.TRANSPOSE, List.of(new ComputationNode(a))),
+                        new ComputationNode(b))),
+                new ComputationNode(c)));
+        engine.setVerificationRounds(5);
+        engine.run(product);
+
+        assertTrue(engine.getVerificationFailures().isEmpty());
+    }
+
+    @Test
+    void testVerification_WrongResult_ReportedPerNode() {
+        double[][] a = denseMatrix(6, 6);
+        ComputationNode notIdentity = new ComputationNode(denseMatrix(6, 6));
+        notIdentity.setStructure(MatrixStructure.IDENTITY); // a wrong tag makes the engine skip the product
+
+        ComputationNode product = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(new ComputationNode(a), notIdentity));
+        engine.setVerificationRounds(10);
+        engine.run(product);
+
+        List<String> failures = engine.getVerificationFailures();
+        assertEquals(1, failures.size());
+        assertTrue(failures.getFirst().startsWith("multiply #1 (6x6)"));
+    }
+
+    // ==================== Solve / Inverse Tests ====================
+
+    @Test
+    void testSolve_ProductWithOperandGivesRightHandSide() {
+        double[][] a = invertibleMatrix(70);
+        double[][] b = denseMatrix(70, 3);
+
+        ComputationNode solve = new ComputationNode("solve", List.of(new ComputationNode(a), new ComputationNode(b)));
+        double[][] x = engine.run(solve).getMatrix();
+
+        assertMatrixEquals(b, multiply(a, x));
+    }
+
+    @Test
+    void testInverse_TimesOperandIsIdentity() {
+        double[][] a = invertibleMatrix(9);
+        a[0][0] = 0.0; // forces a row interchange
+
+        ComputationNode inverse = new ComputationNode("inverse", List.of(new ComputationNode(a)));
+        double[][] matrix = engine.run(inverse).getMatrix();
+
+        double[][] product = multiply(matrix, a);
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                assertEquals(i == j ? 1.0 : 0.0, product[i][j], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void testInverse_Singular_Throws() {
+        ComputationNode inverse = new ComputationNode("inverse", List.of(new ComputationNode(denseMatrix(4, 4))));
+        assertThrows(IllegalArgumentException.class, () -> engine.run(inverse));
+    }
+
+    @Test
+    void testSolve_DimensionMismatch_Throws() {
+        ComputationNode solve = new ComputationNode("solve", List.of(
+                new ComputationNode(invertibleMatrix(3)), new ComputationNode(denseMatrix(4, 2))));
+        assertThrows(IllegalArgumentException.class, () -> engine.run(solve));
+    }
+
     // ==================== Nested Operations Tests ====================
 
     @Test
@@ -223,6 +508,427 @@ public class LinearAlgebraEngineTest {
         assertEquals(2, matrix[0].length);
     }
 
+    // ==================== Sparse Operand Tests ====================
+
+    @Test
+    void testSparse_AddSparseMismatch_ThrowsAndKeepsWorkers() throws Exception {
+        LinearAlgebraEngine shared = new LinearAlgebraEngine(new scheduling.TiredExecutor(2), false);
+        ComputationNode addNode = new ComputationNode(ComputationNodeType.ADD,
+                List.of(new ComputationNode(sparseMatrix(20, 20)), new ComputationNode(sparseMatrix(20, 21))));
+
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> shared.run(addNode));
+        assertEquals("Illegal operation: dimensions mismatch", thrown.getMessage());
+
+        double[][] sparse = sparseMatrix(20, 20);
+        ComputationNode valid = new ComputationNode(ComputationNodeType.ADD,
+                List.of(new ComputationNode(sparse), new ComputationNode(sparse)));
+        double[][] doubled = new double[20][20];
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 20; j++) {
+                doubled[i][j] = 2 * sparse[i][j];
+            }
+        }
+        assertMatrixEquals(doubled, shared.run(valid).getMatrix());
+        shared.shutdown();
+    }
+
+    @Test
+    void testSparse_MultiplySparseByDense_MatchesDenseResult() {
+        double[][] sparse = sparseMatrix(30, 30);
+        double[][] dense = denseMatrix(30, 4);
+
+        ComputationNode mulNode = new ComputationNode(ComputationNodeType.MULTIPLY,
+                List.of(new ComputationNode(sparse), new ComputationNode(dense)));
+        double[][] matrix = engine.run(mulNode).getMatrix();
+
+        assertMatrixEquals(multiply(sparse, dense), matrix);
+    }
+
+    @Test
+    void testSparse_MultiplyDenseBySparse_MatchesDenseResult() {
+        double[][] dense = denseMatrix(4, 30);
+        double[][] sparse = sparseMatrix(30, 30);
+
+        ComputationNode mulNode = new ComputationNode(ComputationNodeType.MULTIPLY,
+                List.of(new ComputationNode(dense), new ComputationNode(sparse)));
+        double[][] matrix = engine.run(mulNode).getMatrix();
+
+        assertMatrixEquals(multiply(dense, sparse), matrix);
+    }
+
+    @Test
+    void testSparse_MultiplySparseBySparse_StaysSparse() {
+        double[][] sparse = sparseMatrix(30, 30);
+
+        ComputationNode mulNode = new ComputationNode(ComputationNodeType.MULTIPLY,
+                List.of(new ComputationNode(sparse), new ComputationNode(sparse)));
+        ComputationNode result = engine.run(mulNode);
+
+        assertTrue(result.isSparse());
+        assertMatrixEquals(multiply(sparse, sparse), result.getMatrix());
+    }
+
+    @Test
+    void testSparse_AddTransposedAndNegated() {
+        double[][] sparse = sparseMatrix(30, 30);
+        double[][] expected = new double[30][30];
+        for (int i = 0; i < 30; i++) {
+            for (int j = 0; j < 30; j++) {
+                expected[i][j] = sparse[j][i] - sparse[i][j];
+            }
+        }
+
+        ComputationNode transNode = new ComputationNode(ComputationNodeType.TRANSPOSE, List.of(new ComputationNode(sparse)));
+        ComputationNode negNode = new ComputationNode(ComputationNodeType.NEGATE, List.of(new ComputationNode(sparse)));
+        ComputationNode addNode = new ComputationNode(ComputationNodeType.ADD, List.of(transNode, negNode));
+        double[][] matrix = engine.run(addNode).getMatrix();
+
+        assertMatrixEquals(expected, matrix);
+    }
+
+    @Test
+    void testSparse_AddSparseToDense_ProducesDense() {
+        double[][] sparse = sparseMatrix(30, 30);
+        double[][] dense = denseMatrix(30, 30);
+
+        ComputationNode addNode = new ComputationNode(ComputationNodeType.ADD,
+                List.of(new ComputationNode(sparse), new ComputationNode(dense)));
+        ComputationNode result = engine.run(addNode);
+
+        assertFalse(result.isSparse());
+        assertEquals(dense[3][7] + sparse[3][7], result.getMatrix()[3][7]);
+    }
+
+    @Test
+    void testSparse_ThresholdZero_DisablesSparseStorage() {
+        engine.setSparseThreshold(0);
+        double[][] sparse = sparseMatrix(30, 30);
+
+        ComputationNode negNode = new ComputationNode(ComputationNodeType.NEGATE, List.of(new ComputationNode(sparse)));
+        ComputationNode result = engine.run(negNode);
+
+        assertFalse(result.isSparse());
+        assertEquals(-sparse[0][0], result.getMatrix()[0][0]);
+    }
+
+    // ==================== Structured Operand Tests ====================
+
+    @Test
+    void testStructured_IdentityMultiply_PassesOperandThrough() {
+        double[][] dense = denseMatrix(3, 3);
+        double[][] identity = { { 1.0, 0.0, 0.0 }, { 0.0, 1.0, 0.0 }, { 0.0, 0.0, 1.0 } };
+
+        ComputationNode mulNode = new ComputationNode(ComputationNodeType.MULTIPLY,
+                List.of(new ComputationNode(identity), new ComputationNode(dense)));
+        ComputationNode result = engine.run(mulNode);
+
+        assertMatrixEquals(dense, result.getMatrix());
+    }
+
+    @Test
+    void testStructured_ZeroOperands() {
+        double[][] dense = denseMatrix(3, 3);
+        double[][] zero = new double[3][3];
+
+        ComputationNode addNode = new ComputationNode(ComputationNodeType.ADD,
+                List.of(new ComputationNode(dense), new ComputationNode(zero)));
+        ComputationNode mulNode = new ComputationNode(ComputationNodeType.MULTIPLY,
+                List.of(addNode, new ComputationNode(new double[3][2])));
+        ComputationNode result = engine.run(mulNode);
+
+        assertEquals(MatrixStructure.ZERO, result.getStructure());
+        assertMatrixEquals(new double[3][2], result.getMatrix());
+    }
+
+    @Test
+    void testStructured_DiagonalScaling() {
+        double[][] diagonal = { { 2.0, 0.0, 0.0 }, { 0.0, 3.0, 0.0 }, { 0.0, 0.0, 4.0 } };
+        double[][] dense = denseMatrix(3, 3);
+
+        ComputationNode rowScaled = engine.run(new ComputationNode(ComputationNodeType.MULTIPLY,
+                List.of(new ComputationNode(diagonal), new ComputationNode(dense))));
+        assertMatrixEquals(multiply(diagonal, dense), rowScaled.getMatrix());
+
+        LinearAlgebraEngine other = new LinearAlgebraEngine(2);
+        ComputationNode columnScaled = other.run(new ComputationNode(ComputationNodeType.MULTIPLY,
+                List.of(new ComputationNode(dense), new ComputationNode(diagonal))));
+        assertMatrixEquals(multiply(dense, diagonal), columnScaled.getMatrix());
+    }
+
+    @Test
+    void testStructured_TriangularMultiply() {
+        double[][] upper = { { 1.0, 2.0, 3.0 }, { 0.0, 4.0, 5.0 }, { 0.0, 0.0, 6.0 } };
+        double[][] lower = { { 1.0, 0.0, 0.0 }, { 2.0, 3.0, 0.0 }, { 4.0, 5.0, 6.0 } };
+        double[][] dense = denseMatrix(3, 3);
+
+        ComputationNode upperLeft = new ComputationNode(ComputationNodeType.MULTIPLY,
+                List.of(new ComputationNode(upper), new ComputationNode(dense)));
+        ComputationNode lowerRight = new ComputationNode(ComputationNodeType.MULTIPLY,
+                List.of(new ComputationNode(dense), new ComputationNode(lower)));
+        ComputationNode addNode = new ComputationNode(ComputationNodeType.ADD, List.of(upperLeft, lowerRight));
+        double[][] matrix = engine.run(addNode).getMatrix();
+
+        double[][] expectedLeft = multiply(upper, dense);
+        double[][] expectedRight = multiply(dense, lower);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(expectedLeft[i][j] + expectedRight[i][j], matrix[i][j], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void testStructured_TransposeTagsPropagate() {
+        double[][] symmetric = { { 1.0, 2.0 }, { 2.0, 3.0 } };
+        double[][] upper = { { 1.0, 2.0 }, { 0.0, 3.0 } };
+
+        ComputationNode symmetricLeaf = new ComputationNode(symmetric);
+        ComputationNode transSymmetric = new ComputationNode(ComputationNodeType.TRANSPOSE, List.of(symmetricLeaf));
+        ComputationNode transUpper = new ComputationNode(ComputationNodeType.TRANSPOSE, List.of(new ComputationNode(upper)));
+        ComputationNode mulNode = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(transUpper, transSymmetric));
+        ComputationNode result = engine.run(mulNode);
+
+        double[][] lower = { { 1.0, 0.0 }, { 2.0, 3.0 } };
+        assertMatrixEquals(multiply(lower, symmetric), result.getMatrix());
+        assertEquals(MatrixStructure.GENERAL, result.getStructure());
+    }
+
+    // ==================== Precision Tests ====================
+
+    @Test
+    void testFloatJob_ComputesInFloat() {
+        double[][] a = denseMatrix(4, 3);
+        double[][] b = denseMatrix(3, 5);
+        engine.setPrecision(Precision.FLOAT);
+
+        ComputationNode mulNode = new ComputationNode(ComputationNodeType.MULTIPLY,
+                List.of(new ComputationNode(a), new ComputationNode(b)));
+        ComputationNode result = engine.run(mulNode);
+
+        assertEquals(Precision.FLOAT, result.getPrecision());
+        double[][] expected = multiply(a, b);
+        double[][] matrix = result.getMatrix();
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < expected[0].length; j++) {
+                assertEquals(expected[i][j], matrix[i][j], 1e-4);
+            }
+        }
+    }
+
+    @Test
+    void testFloatLeaves_MixedWithDouble_WidensToDouble() {
+        double[][] a = { { 0.1, 0.2 }, { 0.3, 0.4 } };
+        ComputationNode floatLeaf = new ComputationNode(new SharedMatrix(a, Precision.FLOAT));
+        ComputationNode otherFloatLeaf = new ComputationNode(new SharedMatrix(a, Precision.FLOAT));
+        ComputationNode floatSum = new ComputationNode(ComputationNodeType.ADD, List.of(floatLeaf, otherFloatLeaf));
+        ComputationNode mixedSum = new ComputationNode(ComputationNodeType.ADD, List.of(floatSum, new ComputationNode(a)));
+
+        ComputationNode result = engine.run(mixedSum);
+
+        assertEquals(Precision.DOUBLE, result.getPrecision());
+        assertEquals((double) (0.1f + 0.1f) + 0.1, result.getMatrix()[0][0], 1e-12);
+    }
+
+    @Test
+    void testFloatJob_DoubleAccumulation_MatchesDoubleSums() {
+        int n = 2000;
+        double[][] row = new double[1][n];
+        double[][] column = new double[n][1];
+        for (int i = 0; i < n; i++) {
+            row[0][i] = 1.0 / 3;
+            column[i][0] = 1.0;
+        }
+        engine.setPrecision(Precision.FLOAT);
+        engine.setDoubleAccumulation(true);
+
+        ComputationNode result = engine.run(new ComputationNode(ComputationNodeType.MULTIPLY,
+                List.of(new ComputationNode(row), new ComputationNode(column))));
+
+        assertEquals((float) (n * (double) (1.0f / 3)), result.getMatrix()[0][0]);
+    }
+
+    // ==================== ForkJoin Backend Tests ====================
+
+    @Test
+    void testForkJoinBackend_MatchesTiredExecutor() {
+        double[][] a = denseMatrix(40, 33);
+        double[][] b = denseMatrix(33, 40);
+        double[][] c = denseMatrix(40, 40);
+
+        // (A * B) + C with a nested parallel Strassen-Winograd split
+        ComputationNode sum = new ComputationNode(ComputationNodeType.ADD, List.of(
+                new ComputationNode(ComputationNodeType.MULTIPLY, List.of(new ComputationNode(a), new ComputationNode(b))),
+                new ComputationNode(c)));
+        LinearAlgebraEngine forkJoinEngine = new LinearAlgebraEngine(new scheduling.ForkJoinExecutor(4));
+        forkJoinEngine.setStrassenCutoff(4);
+        double[][] matrix = forkJoinEngine.run(sum).getMatrix();
+
+        double[][] expected = multiply(a, b);
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 40; j++) {
+                expected[i][j] += c[i][j];
+            }
+        }
+        assertMatrixEquals(expected, matrix);
+        assertTrue(forkJoinEngine.getWorkerReport().contains("Steals: "));
+    }
+
+    // ==================== Concurrent Jobs Tests ====================
+
+    @Test
+    void testConcurrentJobs_ShareOneEngineAndExecutor() throws Exception {
+        LinearAlgebraEngine shared = new LinearAlgebraEngine(new scheduling.TiredExecutor(4), false);
+        shared.setVerificationRounds(2); // per-job verification state must not leak between jobs
+        int jobs = 24;
+        double[][][] results = new double[jobs][][];
+        List<Thread> threads = new java.util.ArrayList<>();
+        for (int job = 0; job < jobs; job++) {
+            final int index = job;
+            threads.add(Thread.ofPlatform().start(() -> {
+                double[][] a = denseMatrix(10 + index % 5, 8);
+                double[][] b = denseMatrix(8, 9);
+                // -(A * B) + (A * B): every job's operands and intermediates are its own
+                ComputationNode product = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(new ComputationNode(a), new ComputationNode(b)));
+                ComputationNode otherProduct = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(new ComputationNode(a), new ComputationNode(b)));
+                ComputationNode sum = new ComputationNode(ComputationNodeType.ADD, List.of(
+                        new ComputationNode(ComputationNodeType.NEGATE, List.of(product)), otherProduct));
+                results[index] = shared.run(sum).getMatrix();
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int job = 0; job < jobs; job++) {
+            assertMatrixEquals(new double[10 + job % 5][9], results[job]);
+        }
+        assertTrue(shared.getVerificationFailures().isEmpty());
+
+        // the executor outlives the jobs
+        double[][] m = { { 1.0, 2.0 }, { 3.0, 4.0 } };
+        double[][] negated = shared.run(new ComputationNode(ComputationNodeType.NEGATE, List.of(new ComputationNode(m)))).getMatrix();
+        assertMatrixEquals(new double[][] { { -1.0, -2.0 }, { -3.0, -4.0 } }, negated);
+        shared.shutdown();
+    }
+
+    @Test
+    void testConcurrentJobs_StatisticsPerCallingThread() throws Exception {
+        LinearAlgebraEngine shared = new LinearAlgebraEngine(new scheduling.TiredExecutor(2), false);
+        ComputationNode notIdentity = new ComputationNode(denseMatrix(6, 6));
+        notIdentity.setStructure(MatrixStructure.IDENTITY); // a wrong tag makes the engine skip the product
+        shared.setVerificationRounds(10);
+        Thread other = Thread.ofPlatform().start(() -> shared.run(new ComputationNode(ComputationNodeType.MULTIPLY,
+                List.of(new ComputationNode(denseMatrix(6, 6)), notIdentity))));
+        other.join();
+
+        // the other thread's failed verification is not reported to this one
+        shared.loadAndCompute(new ComputationNode(ComputationNodeType.NEGATE, List.of(new ComputationNode(denseMatrix(2, 3)))));
+        assertTrue(shared.getVerificationFailures().isEmpty());
+        assertEquals(2 * 3 * Double.BYTES, shared.getCurrentMatrixBytes());
+        shared.shutdown();
+    }
+
+    @Test
+    void testRunAll_NamedTreesShareLeafStorage() throws Exception {
+        LinearAlgebraEngine shared = new LinearAlgebraEngine(new scheduling.TiredExecutor(4), false);
+        ComputationNode a = new ComputationNode(new double[][] { { 1.0, 2.0 }, { 3.0, 4.0 } });
+        Map<String, ComputationNode> roots = new java.util.LinkedHashMap<>();
+        for (int job = 0; job < 16; job++) {
+            // -(A * A), A^T and A + A, each over its own nodes of one leaf
+            roots.put("product" + job, new ComputationNode(ComputationNodeType.NEGATE, List.of(
+                    new ComputationNode(ComputationNodeType.MULTIPLY, List.of(a.shareStorage(), a.shareStorage())))));
+            roots.put("transpose" + job, new ComputationNode(ComputationNodeType.TRANSPOSE, List.of(a.shareStorage())));
+            roots.put("sum" + job, new ComputationNode(ComputationNodeType.ADD, List.of(a.shareStorage(), a.shareStorage())));
+        }
+
+        Map<String, ComputationNode> results = shared.runAll(roots);
+
+        assertEquals(List.copyOf(roots.keySet()), List.copyOf(results.keySet()));
+        for (int job = 0; job < 16; job++) {
+            assertMatrixEquals(new double[][] { { -7.0, -10.0 }, { -15.0, -22.0 } }, results.get("product" + job).getMatrix());
+            assertMatrixEquals(new double[][] { { 1.0, 3.0 }, { 2.0, 4.0 } }, results.get("transpose" + job).getMatrix());
+            assertMatrixEquals(new double[][] { { 2.0, 4.0 }, { 6.0, 8.0 } }, results.get("sum" + job).getMatrix());
+        }
+        assertMatrixEquals(new double[][] { { 1.0, 2.0 }, { 3.0, 4.0 } }, a.getMatrix()); // the shared leaf is untouched
+        shared.shutdown();
+    }
+
+    // ==================== Flight Recorder Tests ====================
+
+    @Test
+    void testFlightRecorder_RecordsNodeAndTaskEvents(@TempDir Path directory) throws Exception {
+        LinearAlgebraEngine recorded = new LinearAlgebraEngine(new scheduling.TiredExecutor(2), false);
+        Path dump = directory.resolve("engine.jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : List.of("lae.NodeEvaluation", "lae.TaskExecution", "lae.ExecutorQueueWait", "lae.VectorLockWait")) {
+                recording.enable(event).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            ComputationNode product = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(
+                    new ComputationNode(denseMatrix(12, 8)), new ComputationNode(denseMatrix(8, 5))));
+            recorded.run(new ComputationNode(ComputationNodeType.NEGATE, List.of(product)));
+            recording.stop();
+            recording.dump(dump);
+        }
+        recorded.shutdown();
+
+        List<RecordedEvent> nodes = new java.util.ArrayList<>();
+        int tasks = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            if (event.getEventType().getName().equals("lae.NodeEvaluation"))
+                nodes.add(event);
+            else if (event.getEventType().getName().equals("lae.TaskExecution"))
+                tasks++;
+        }
+        assertEquals(2, nodes.size());
+        RecordedEvent multiply = nodes.getFirst();
+        assertEquals("MULTIPLY", multiply.getString("operation"));
+        assertEquals(12, multiply.getInt("leftRows"));
+        assertEquals(5, multiply.getInt("rightColumns"));
+        assertEquals(12, multiply.getInt("resultRows"));
+        assertEquals(5, multiply.getInt("resultColumns"));
+        assertEquals("NEGATE", nodes.get(1).getString("operation"));
+        assertTrue(tasks > 0);
+    }
+
+    // ==================== Executor Ownership Tests ====================
+
+    @Test
+    void testRun_FailedJobStillShutsDownOwnedExecutor() {
+        java.util.concurrent.atomic.AtomicBoolean shutDown = new java.util.concurrent.atomic.AtomicBoolean();
+        LinearAlgebraEngine owning = new LinearAlgebraEngine(new scheduling.TiredExecutor(2) {
+            @Override
+            public void shutdown() throws InterruptedException {
+                shutDown.set(true);
+                super.shutdown();
+            }
+        });
+        ComputationNode product = new ComputationNode(ComputationNodeType.MULTIPLY, List.of(
+                new ComputationNode(new double[][] { { 1, 2 }, { 3, 4 } }), new ComputationNode(new double[][] { { 1, 2, 3 } })));
+
+        assertThrows(IllegalArgumentException.class, () -> owning.run(product));
+        assertTrue(shutDown.get());
+    }
+
+    @Test
+    void testRunAll_FailedTreeStillShutsDownOwnedExecutor() {
+        java.util.concurrent.atomic.AtomicBoolean shutDown = new java.util.concurrent.atomic.AtomicBoolean();
+        LinearAlgebraEngine owning = new LinearAlgebraEngine(new scheduling.TiredExecutor(2) {
+            @Override
+            public void shutdown() throws InterruptedException {
+                shutDown.set(true);
+                super.shutdown();
+            }
+        });
+        Map<String, ComputationNode> roots = new java.util.LinkedHashMap<>();
+        roots.put("good", new ComputationNode(ComputationNodeType.NEGATE, List.of(new ComputationNode(new double[][] { { 1 } }))));
+        roots.put("bad", new ComputationNode(ComputationNodeType.MULTIPLY, List.of(
+                new ComputationNode(new double[][] { { 1, 2 }, { 3, 4 } }), new ComputationNode(new double[][] { { 1, 2, 3 } }))));
+
+        assertThrows(IllegalArgumentException.class, () -> owning.runAll(roots));
+        assertTrue(shutDown.get());
+    }
+
     // ==================== getWorkerReport Tests ====================
 
     @Test
@@ -237,4 +943,68 @@ public class LinearAlgebraEngineTest {
         assertNotNull(report);
         assertFalse(report.isEmpty());
     }
+
+    // ==================== Helpers ====================
+
+    private static double[][] sparseMatrix(int rows, int columns) {
+        double[][] matrix = new double[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            matrix[i][(i * 7) % columns] = i + 1;
+            matrix[i][i % columns] += 2.0;
+        }
+        return matrix;
+    }
+
+    private static double[][] transpose(double[][] matrix) {
+        double[][] result = new double[matrix[0].length][matrix.length];
+        for (int i = 0; i < matrix.length; i++) {
+            for (int j = 0; j < matrix[0].length; j++) {
+                result[j][i] = matrix[i][j];
+            }
+        }
+        return result;
+    }
+
+    private static double[][] denseMatrix(int rows, int columns) {
+        double[][] matrix = new double[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                matrix[i][j] = i - 2.0 * j + 1;
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Entries of denseMatrix scaled down, plus a dominant diagonal.
+     */
+    private static double[][] invertibleMatrix(int size) {
+        double[][] matrix = denseMatrix(size, size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                matrix[i][j] /= 4.0 * size;
+            }
+            matrix[i][i] += size;
+        }
+        return matrix;
+    }
+
+    private static double[][] multiply(double[][] a, double[][] b) {
+        double[][] result = new double[a.length][b[0].length];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < b[0].length; j++) {
+                for (int k = 0; k < b.length; k++) {
+                    result[i][j] += a[i][k] * b[k][j];
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void assertMatrixEquals(double[][] expected, double[][] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], actual[i], 1e-9);
+        }
+    }
 }